@@ -0,0 +1,173 @@
+package com.hacom.order_process_system;
+
+import akka.actor.ActorRef;
+import akka.actor.ActorSystem;
+import akka.routing.ConsistentHashingPool;
+import com.hacom.grpc.CreateOrderRequest;
+import com.hacom.order_process_system.actor.OrderHashKey;
+import com.hacom.order_process_system.actor.OrderProcessingActor;
+import com.hacom.order_process_system.actor.mailbox.MeteredMailbox;
+import com.hacom.order_process_system.config.AkkaConfig;
+import com.hacom.order_process_system.config.BlockingMode;
+import com.hacom.order_process_system.config.SmppProperties;
+import com.hacom.order_process_system.metrics.OrderStageTimers;
+import com.hacom.order_process_system.repository.OrderBatchWriter;
+import com.hacom.order_process_system.repository.OrderCountBuckets;
+import com.hacom.order_process_system.repository.OrderIndexInitializer;
+import com.hacom.order_process_system.repository.OrderRepository;
+import com.hacom.order_process_system.repository.journal.OrderJournal;
+import com.hacom.order_process_system.service.cache.OrderStatusCache;
+import com.hacom.order_process_system.service.cache.RecentOrderIds;
+import com.hacom.order_process_system.service.proxy.sms.SmsDispatcher;
+import com.hacom.order_process_system.service.proxy.sms.template.OrderSmsTemplates;
+import com.hacom.order_process_system.util.DateToOffsetDateTimeConverter;
+import com.hacom.order_process_system.util.OffsetDateTimeToDateConverter;
+import com.mongodb.reactivestreams.client.MongoClient;
+import com.typesafe.config.ConfigFactory;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.SimpleReactiveMongoDatabaseFactory;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Piezas compartidas por los benchmarks: pipeline de actores real con persistencia y SMS simulados.
+ */
+public final class BenchmarkFixtures {
+
+    private BenchmarkFixtures() {
+    }
+
+    /** Repositorio que confirma cada save al instante sin tocar Mongo. */
+    public static OrderRepository inMemoryRepository() {
+        return slowRepository(Duration.ZERO);
+    }
+
+    /**
+     * Repositorio que atiende los saves de uno en uno, {@code latency} cada uno, como un Mongo saturado:
+     * por encima de 1/latency saves por segundo el trabajo pendiente se acumula en memoria.
+     */
+    public static OrderRepository slowRepository(Duration latency) {
+        Scheduler mongo = latency.isZero() ? null : Schedulers.newSingle("slow-mongo", true);
+        return (OrderRepository) Proxy.newProxyInstance(OrderRepository.class.getClassLoader(),
+                new Class<?>[]{OrderRepository.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("save")) {
+                        return mongo == null ? Mono.just(args[0]) : Mono.fromCallable(() -> {
+                            LockSupport.parkNanos(latency.toNanos());
+                            return args[0];
+                        }).subscribeOn(mongo);
+                    }
+                    if (method.getName().equals("findStatusByOrderId")) {
+                        return Mono.empty();
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    /** Converter con las mismas conversiones de fechas que {@code MongoConfig}. */
+    public static MappingMongoConverter mongoConverter() {
+        MongoCustomConversions conversions = new MongoCustomConversions(List.of(
+                new DateToOffsetDateTimeConverter(),
+                new OffsetDateTimeToDateConverter()));
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        mappingContext.afterPropertiesSet();
+
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+        return converter;
+    }
+
+    public static ReactiveMongoTemplate mongoTemplate(MongoClient client, String database) {
+        return new ReactiveMongoTemplate(new SimpleReactiveMongoDatabaseFactory(client, database), mongoConverter());
+    }
+
+    public static OrderBatchWriter passThroughWriter(OrderRepository orderRepository, MeterRegistry registry) {
+        return new OrderBatchWriter(null, orderRepository, new OrderCountBuckets(null, false, false),
+                DistributionSummary.builder("orders.batch.size").register(registry),
+                Timer.builder("orders.batch.flush").register(registry),
+                false, 1, 1, 1);
+    }
+
+    public static SmsDispatcher noopSmsDispatcher(ActorSystem system, MeterRegistry registry) {
+        return new SmsDispatcher((phoneNumber, message) -> { }, registry, stageTimers(registry), BlockingMode.PLATFORM,
+                system.dispatchers().lookup(AkkaConfig.SMS_IO_DISPATCHER), Schedulers.boundedElastic(),
+                new SmppProperties(), 100_000);
+    }
+
+    /** Sin journal, como con {@code app.journal.enabled=false}. */
+    public static OrderJournal disabledJournal(MeterRegistry registry) {
+        return new OrderJournal(registry, false, "", 64, "group", 0);
+    }
+
+    /** Índices gestionados fuera, como con {@code app.mongodb.indexes.auto-create=false}: la ingesta está abierta. */
+    public static OrderIndexInitializer readyIndexes() {
+        return new OrderIndexInitializer(null, false);
+    }
+
+    public static OrderStageTimers stageTimers(MeterRegistry registry) {
+        return new OrderStageTimers(registry, new long[]{1, 5, 10, 25, 50, 100, 250, 500, 1000}, 0);
+    }
+
+    public static OrderStatusCache orderStatusCache(MeterRegistry registry) {
+        return new OrderStatusCache(registry, true, 100_000, 300_000, 2_000);
+    }
+
+    /** ActorSystem con el mailbox y los dispatchers de {@code AkkaConfig} en su configuración por defecto. */
+    public static ActorSystem actorSystem(String name) {
+        return ActorSystem.create(name, ConfigFactory.parseMap(Map.of(
+                OrderProcessingActor.MAILBOX + ".mailbox-type", MeteredMailbox.class.getName(),
+                OrderProcessingActor.DISPATCHER + ".type", "Dispatcher",
+                OrderProcessingActor.DISPATCHER + ".throughput", 5,
+                AkkaConfig.SMS_IO_DISPATCHER + ".type", "Dispatcher",
+                AkkaConfig.SMS_IO_DISPATCHER + ".executor", "thread-pool-executor",
+                AkkaConfig.SMS_IO_DISPATCHER + ".thread-pool-executor.fixed-pool-size", 1,
+                AkkaConfig.SMS_IO_DISPATCHER + ".throughput", 1))
+                .withFallback(ConfigFactory.load()));
+    }
+
+    public static ActorRef orderPipeline(ActorSystem system, int routees) {
+        return orderPipeline(system, routees, inMemoryRepository());
+    }
+
+    public static ActorRef orderPipeline(ActorSystem system, int routees, OrderRepository orderRepository) {
+        MeterRegistry registry = new SimpleMeterRegistry();
+        Counter processed = Counter.builder("orders.processed").register(registry);
+        return system.actorOf(new ConsistentHashingPool(routees)
+                .withHashMapper(OrderHashKey.ORDER_ID.mapper())
+                .props(OrderProcessingActor.props(passThroughWriter(orderRepository, registry),
+                        disabledJournal(registry), noopSmsDispatcher(system, registry),
+                        new OrderSmsTemplates(OrderSmsTemplates.DEFAULT_ORDER_PROCESSED), orderStatusCache(registry),
+                        new RecentOrderIds(registry, orderRepository, true, 1_000_000, 0.01, 100_000),
+                        processed, stageTimers(registry))
+                        .withMailbox(OrderProcessingActor.MAILBOX)
+                        .withDispatcher(OrderProcessingActor.DISPATCHER)), "orderProcessingActor");
+    }
+
+    public static CreateOrderRequest order(long sequence) {
+        return CreateOrderRequest.newBuilder()
+                .setOrderId("ORDER-" + sequence)
+                .setCustomerId("CUSTOMER-" + (sequence % 1000))
+                .setCustomerPhoneNumber("+51987654321")
+                .addItems("Producto A")
+                .addItems("Producto B")
+                .build();
+    }
+}
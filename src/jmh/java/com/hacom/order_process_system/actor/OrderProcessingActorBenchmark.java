@@ -0,0 +1,105 @@
+package com.hacom.order_process_system.actor;
+
+import akka.actor.ActorRef;
+import akka.actor.ActorSystem;
+import com.hacom.grpc.CreateOrderRequest;
+import com.hacom.grpc.CreateOrderResponse;
+import com.hacom.order_process_system.BenchmarkFixtures;
+import io.grpc.stub.StreamObserver;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput del pool de {@link OrderProcessingActor} con persistencia y SMS simulados: cada invocación
+ * envía {@value #ORDERS} órdenes y espera a que todas respondan. {@code processOrders} usa orderId nuevos
+ * en cada invocación; {@code processRetries} reenvía órdenes ya ingeridas, que se contestan desde
+ * {@code RecentOrderIds} sin insertar.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class OrderProcessingActorBenchmark {
+
+    private static final int ORDERS = 10_000;
+
+    @Param({"1", "4"})
+    public int routees;
+
+    private ActorSystem actorSystem;
+    private ActorRef pipeline;
+    private CreateOrderRequest[] requests;
+    private CreateOrderRequest[] retries;
+    private long sequence;
+
+    @Setup(Level.Trial)
+    public void setUp() throws InterruptedException {
+        actorSystem = BenchmarkFixtures.actorSystem("OrderProcessingActorBenchmark");
+        pipeline = BenchmarkFixtures.orderPipeline(actorSystem, routees);
+        requests = new CreateOrderRequest[ORDERS];
+        retries = new CreateOrderRequest[ORDERS];
+        for (int i = 0; i < ORDERS; i++) {
+            retries[i] = BenchmarkFixtures.order(--sequence);
+        }
+        send(retries);
+    }
+
+    @Setup(Level.Invocation)
+    public void nextOrders() {
+        for (int i = 0; i < ORDERS; i++) {
+            requests[i] = BenchmarkFixtures.order(++sequence);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        actorSystem.terminate();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ORDERS)
+    public void processOrders() throws InterruptedException {
+        send(requests);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ORDERS)
+    public void processRetries() throws InterruptedException {
+        send(retries);
+    }
+
+    private void send(CreateOrderRequest[] requests) throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(ORDERS);
+        StreamObserver<CreateOrderResponse> observer = new StreamObserver<>() {
+            @Override
+            public void onNext(CreateOrderResponse value) {
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                done.countDown();
+            }
+
+            @Override
+            public void onCompleted() {
+                done.countDown();
+            }
+        };
+
+        for (CreateOrderRequest request : requests) {
+            pipeline.tell(new OrderProcessingActor.ProcessOrderMessage(request, observer), ActorRef.noSender());
+        }
+        done.await();
+    }
+}
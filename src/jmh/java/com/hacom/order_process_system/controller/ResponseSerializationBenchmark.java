@@ -0,0 +1,60 @@
+package com.hacom.order_process_system.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hacom.order_process_system.model.response.OrderCountResponse;
+import com.hacom.order_process_system.model.response.OrderResponse;
+import com.hacom.order_process_system.model.response.ResponseGeneralDto;
+import com.hacom.order_process_system.util.Constants;
+import com.hacom.order_process_system.util.OderAdapter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialización JSON de las respuestas de {@link OrderController} con un ObjectMapper configurado
+ * como el de Spring Boot (JavaTimeModule, fechas ISO-8601).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ResponseSerializationBenchmark {
+
+    private ObjectMapper objectMapper;
+    private ResponseGeneralDto statusResponse;
+    private ResponseGeneralDto countResponse;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+        OrderResponse orderResponse = new OrderResponse("ORDER-42", "PROCESSED", OffsetDateTime.now(ZoneOffset.UTC));
+        statusResponse = OderAdapter.responseGeneral(Constants.HTTP_200, HttpStatus.OK.value(),
+                "Order found successfully", orderResponse);
+
+        OffsetDateTime start = OffsetDateTime.of(2025, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+        OrderCountResponse orderCountResponse = new OrderCountResponse(123_456L, start, start.plusDays(30));
+        countResponse = OderAdapter.responseGeneral(Constants.HTTP_200, HttpStatus.OK.value(),
+                "Order count retrieved successfully", orderCountResponse);
+    }
+
+    @Benchmark
+    public byte[] statusResponse() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(statusResponse);
+    }
+
+    @Benchmark
+    public byte[] countResponse() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(countResponse);
+    }
+}
@@ -0,0 +1,126 @@
+package com.hacom.order_process_system.grpc;
+
+import akka.actor.ActorSystem;
+import com.hacom.grpc.CreateOrderResponse;
+import com.hacom.order_process_system.BenchmarkFixtures;
+import io.grpc.stub.StreamObserver;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sobrecarga de {@code CreateOrder}: se ofrecen {@code orders} órdenes de golpe contra un Mongo simulado
+ * que atiende un save cada {@code saveLatencyMicros}, muy por encima de su capacidad.
+ * Sin límite de admisión ({@code maxInFlight=0}) todas quedan pendientes en memoria; con límite el exceso
+ * se rechaza con RESOURCE_EXHAUSTED y el número de órdenes pendientes y el heap quedan acotados.
+ * <p>
+ * Los contadores auxiliares informan órdenes aceptadas y rechazadas, el pico de órdenes pendientes
+ * y el heap usado justo después de ofrecer la ráfaga.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class AdmissionOverloadBenchmark {
+
+    @Param({"0", "1000"})
+    public int maxInFlight;
+
+    @Param("50000")
+    public int orders;
+
+    @Param("50")
+    public int saveLatencyMicros;
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Outcome {
+        public long accepted;
+        public long rejected;
+        public long peakPending;
+        public long heapUsedMb;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            accepted = 0;
+            rejected = 0;
+            peakPending = 0;
+            heapUsedMb = 0;
+        }
+    }
+
+    private final AtomicLong sequence = new AtomicLong();
+    private ActorSystem actorSystem;
+    private OrderGrpcService service;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        actorSystem = BenchmarkFixtures.actorSystem("AdmissionOverloadBenchmark");
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        service = new OrderGrpcService(
+                BenchmarkFixtures.orderPipeline(actorSystem, Runtime.getRuntime().availableProcessors(),
+                        BenchmarkFixtures.slowRepository(Duration.ofNanos(TimeUnit.MICROSECONDS.toNanos(saveLatencyMicros)))),
+                new OrderAdmission(registry, maxInFlight), BenchmarkFixtures.readyIndexes(), registry,
+                Counter.builder("orders.processed").register(registry), 256);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        actorSystem.terminate();
+    }
+
+    @Benchmark
+    public void offerBurst(Outcome outcome) throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(orders);
+        AtomicInteger pending = new AtomicInteger();
+        AtomicLong accepted = new AtomicLong();
+        AtomicLong rejected = new AtomicLong();
+        StreamObserver<CreateOrderResponse> observer = new StreamObserver<>() {
+            @Override
+            public void onNext(CreateOrderResponse value) {
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                rejected.incrementAndGet();
+                pending.decrementAndGet();
+                done.countDown();
+            }
+
+            @Override
+            public void onCompleted() {
+                accepted.incrementAndGet();
+                pending.decrementAndGet();
+                done.countDown();
+            }
+        };
+
+        int peakPending = 0;
+        for (int i = 0; i < orders; i++) {
+            peakPending = Math.max(peakPending, pending.incrementAndGet());
+            service.createOrder(BenchmarkFixtures.order(sequence.incrementAndGet()), observer);
+        }
+        outcome.heapUsedMb = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed() >> 20;
+        outcome.peakPending = peakPending;
+
+        done.await();
+        outcome.accepted = accepted.get();
+        outcome.rejected = rejected.get();
+    }
+}
@@ -0,0 +1,142 @@
+package com.hacom.order_process_system.grpc;
+
+import akka.actor.ActorRef;
+import akka.actor.ActorSystem;
+import com.hacom.grpc.CreateOrderRequest;
+import com.hacom.grpc.CreateOrderResponse;
+import com.hacom.grpc.OrderServiceGrpc;
+import com.hacom.order_process_system.BenchmarkFixtures;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.netty.shaded.io.grpc.netty.NettyChannelBuilder;
+import io.grpc.netty.shaded.io.grpc.netty.NettyServerBuilder;
+import io.grpc.stub.ClientCallStreamObserver;
+import io.grpc.stub.ClientResponseObserver;
+import io.grpc.stub.StreamObserver;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Carga sobre HTTP/2 real (Netty, loopback) comparando {@code CreateOrder} unario con el stream
+ * bidireccional {@code CreateOrders}. Ambos envían {@value #ORDERS} órdenes por invocación con el
+ * mismo número de órdenes en vuelo y el pipeline de actores real con persistencia simulada.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class CreateOrdersBenchmark {
+
+    private static final int ORDERS = 1000;
+    private static final int MAX_IN_FLIGHT = 256;
+
+    private final AtomicLong sequence = new AtomicLong();
+    private ActorSystem actorSystem;
+    private Server server;
+    private ManagedChannel channel;
+    private OrderServiceGrpc.OrderServiceStub stub;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        actorSystem = BenchmarkFixtures.actorSystem("CreateOrdersBenchmark");
+        ActorRef pipeline = BenchmarkFixtures.orderPipeline(actorSystem, Runtime.getRuntime().availableProcessors());
+
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        OrderGrpcService service = new OrderGrpcService(pipeline, new OrderAdmission(registry, 0),
+                BenchmarkFixtures.readyIndexes(), registry,
+                Counter.builder("orders.processed").register(registry), MAX_IN_FLIGHT);
+        server = NettyServerBuilder.forPort(0).addService(service).build().start();
+        channel = NettyChannelBuilder.forAddress("localhost", server.getPort()).usePlaintext().build();
+        stub = OrderServiceGrpc.newStub(channel);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        server.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        actorSystem.terminate();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ORDERS)
+    public void unary() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(ORDERS);
+        Semaphore inFlight = new Semaphore(MAX_IN_FLIGHT);
+
+        for (int i = 0; i < ORDERS; i++) {
+            inFlight.acquire();
+            stub.createOrder(BenchmarkFixtures.order(sequence.incrementAndGet()), new StreamObserver<>() {
+                @Override
+                public void onNext(CreateOrderResponse value) {
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    inFlight.release();
+                    done.countDown();
+                }
+
+                @Override
+                public void onCompleted() {
+                    inFlight.release();
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ORDERS)
+    public void bidiStream() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(1);
+
+        stub.createOrders(new ClientResponseObserver<CreateOrderRequest, CreateOrderResponse>() {
+            private int sent;
+
+            @Override
+            public void beforeStart(ClientCallStreamObserver<CreateOrderRequest> requestStream) {
+                // Sólo se escribe mientras el transporte acepta más mensajes
+                requestStream.setOnReadyHandler(() -> {
+                    while (requestStream.isReady() && sent < ORDERS) {
+                        requestStream.onNext(BenchmarkFixtures.order(sequence.incrementAndGet()));
+                        sent++;
+                    }
+                    if (sent == ORDERS) {
+                        sent++;
+                        requestStream.onCompleted();
+                    }
+                });
+            }
+
+            @Override
+            public void onNext(CreateOrderResponse value) {
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                done.countDown();
+            }
+
+            @Override
+            public void onCompleted() {
+                done.countDown();
+            }
+        });
+        done.await();
+    }
+}
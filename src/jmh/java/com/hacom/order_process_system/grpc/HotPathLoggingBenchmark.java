@@ -0,0 +1,88 @@
+package com.hacom.order_process_system.grpc;
+
+import akka.actor.ActorSystem;
+import com.hacom.grpc.CreateOrderResponse;
+import com.hacom.order_process_system.BenchmarkFixtures;
+import io.grpc.stub.StreamObserver;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.core.LoggerContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latencia y asignación por orden de {@code CreateOrder} (servicio gRPC, actor y persistencia simulada)
+ * con la configuración de logging por defecto ({@code log4j2.yml}) y la de producción ({@code log4j2-prod.yml}).
+ * La asignación por orden sale de {@code gc.alloc.rate.norm} del profiler gc.
+ * <p>
+ * La salida estándar del fork se descarta para que el Console appender no inunde la salida de JMH;
+ * el coste de formatear y escribir el fichero de log sí se mide.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class HotPathLoggingBenchmark {
+
+    @Param({"log4j2.yml", "log4j2-prod.yml"})
+    public String loggingConfig;
+
+    private final Semaphore completed = new Semaphore(0);
+    private final StreamObserver<CreateOrderResponse> observer = new StreamObserver<>() {
+        @Override
+        public void onNext(CreateOrderResponse value) {
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            completed.release();
+        }
+
+        @Override
+        public void onCompleted() {
+            completed.release();
+        }
+    };
+
+    private ActorSystem actorSystem;
+    private OrderGrpcService service;
+    private long sequence;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        LoggerContext loggerContext = (LoggerContext) LogManager.getContext(false);
+        loggerContext.setConfigLocation(getClass().getClassLoader().getResource(loggingConfig).toURI());
+
+        actorSystem = BenchmarkFixtures.actorSystem("HotPathLoggingBenchmark");
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        service = new OrderGrpcService(BenchmarkFixtures.orderPipeline(actorSystem, 1),
+                new OrderAdmission(registry, 0), BenchmarkFixtures.readyIndexes(), registry,
+                Counter.builder("orders.processed").register(registry), 256);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        actorSystem.terminate();
+    }
+
+    @Benchmark
+    public void createOrder() throws InterruptedException {
+        // orderId nuevo en cada llamada: un orderId repetido se contestaría como reintento
+        service.createOrder(BenchmarkFixtures.order(++sequence), observer);
+        completed.acquire();
+    }
+}
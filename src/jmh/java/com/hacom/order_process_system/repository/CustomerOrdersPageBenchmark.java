@@ -0,0 +1,115 @@
+package com.hacom.order_process_system.repository;
+
+import com.hacom.order_process_system.BenchmarkFixtures;
+import com.hacom.order_process_system.config.MongoClientProperties;
+import com.hacom.order_process_system.model.OrderStatus;
+import com.hacom.order_process_system.model.request.OrderRequest;
+import com.hacom.order_process_system.util.ContinuationToken;
+import com.mongodb.reactivestreams.client.MongoClient;
+import com.mongodb.reactivestreams.client.MongoClients;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import reactor.core.publisher.Flux;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coste de una página de {@code GET /api/customers/{customerId}/orders} según su profundidad:
+ * {@code keyset} continúa desde el cursor de la página anterior y {@code skipLimit} salta
+ * {@code page * pageSize} documentos como haría una paginación por offset.
+ * <p>
+ * Necesita un Mongo real ({@code -p mongoUri=...}). La colección de {@code benchmarkDb} se siembra con
+ * {@code documents} órdenes repartidas entre {@code customers} clientes sólo si no tiene ya ese número,
+ * así que los 10M documentos se insertan una vez y se reutilizan en los siguientes trials.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class CustomerOrdersPageBenchmark {
+
+    private static final OffsetDateTime EPOCH = OffsetDateTime.of(2025, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+    private static final String CUSTOMER = "CUSTOMER-0";
+
+    @Param("mongodb://127.0.0.1:27017")
+    public String mongoUri;
+
+    @Param("10000000")
+    public int documents;
+
+    @Param("1000")
+    public int customers;
+
+    @Param("20")
+    public int pageSize;
+
+    @Param({"0", "50", "400"})
+    public int page;
+
+    private MongoClient client;
+    private ReactiveMongoTemplate template;
+    private OrderKeysetQueries orderKeysetQueries;
+    private ContinuationToken after;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        client = MongoClients.create(mongoUri);
+        template = BenchmarkFixtures.mongoTemplate(client, "benchmarkDb");
+        orderKeysetQueries = new OrderKeysetQueries(new OrderCollection(template, new MongoClientProperties()));
+
+        if (template.count(new Query(), OrderRequest.class).block() != documents) {
+            template.dropCollection(OrderRequest.class).block();
+            Flux.fromIterable(OrderIndexInitializer.indexes())
+                    .concatMap(index -> template.indexOps(OrderRequest.class).ensureIndex(index))
+                    .blockLast();
+            Flux.range(0, documents)
+                    .map(i -> new OrderRequest("ORDER-" + i, "CUSTOMER-" + (i % customers), "+51987654321",
+                            OrderStatus.PROCESSED, List.of("Producto A", "Producto B"), EPOCH.plusSeconds(i)))
+                    .buffer(10_000)
+                    .concatMap(batch -> template.insert(batch, OrderRequest.class).then(), 4)
+                    .blockLast();
+        }
+
+        // Cursor al final de la página anterior, recorriendo como lo haría un cliente
+        after = null;
+        for (int i = 0; i < page; i++) {
+            List<OrderRequest> previous = orderKeysetQueries.findByCustomerId(CUSTOMER, after, pageSize)
+                    .collectList().block();
+            after = ContinuationToken.of(previous.get(previous.size() - 1));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        client.close();
+    }
+
+    @Benchmark
+    public List<OrderRequest> keyset() {
+        return orderKeysetQueries.findByCustomerId(CUSTOMER, after, pageSize).collectList().block();
+    }
+
+    @Benchmark
+    public List<OrderRequest> skipLimit() {
+        Query query = Query.query(Criteria.where("customerId").is(CUSTOMER))
+                .with(Sort.by(Sort.Direction.DESC, "ts", "_id"))
+                .skip((long) page * pageSize)
+                .limit(pageSize);
+        query.fields().exclude("customerPhoneNumber");
+        return template.find(query, OrderRequest.class).collectList().block();
+    }
+}
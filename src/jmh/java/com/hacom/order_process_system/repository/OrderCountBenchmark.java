@@ -0,0 +1,104 @@
+package com.hacom.order_process_system.repository;
+
+import com.hacom.order_process_system.BenchmarkFixtures;
+import com.hacom.order_process_system.model.OrderStatus;
+import com.hacom.order_process_system.model.request.OrderRequest;
+import com.mongodb.reactivestreams.client.MongoClient;
+import com.mongodb.reactivestreams.client.MongoClients;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.repository.support.ReactiveMongoRepositoryFactory;
+import reactor.core.publisher.Flux;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latencia de GET /api/orders/count antes y después de llevar el conteo a Mongo: {@code legacyFindCount}
+ * trae y decodifica cada orden del rango, {@code countDocuments} cuenta en el servidor sobre el índice de ts
+ * y {@code dailyBuckets} suma un contador pre-agregado por día.
+ * Necesita un Mongo real ({@code -p mongoUri=...}); la colección de {@code benchmarkDb} se recrea en cada trial.
+ * En modo SampleTime JMH informa los percentiles, p0.99 incluido.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class OrderCountBenchmark {
+
+    private static final OffsetDateTime EPOCH = OffsetDateTime.of(2025, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+    private static final int DAYS = 90;
+
+    @Param("mongodb://127.0.0.1:27017")
+    public String mongoUri;
+
+    @Param("100000")
+    public int orders;
+
+    @Param("30")
+    public int rangeDays;
+
+    private MongoClient client;
+    private OrderRepository orderRepository;
+    private OrderCountBuckets orderCountBuckets;
+    private OffsetDateTime start;
+    private OffsetDateTime end;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        client = MongoClients.create(mongoUri);
+        ReactiveMongoTemplate template = BenchmarkFixtures.mongoTemplate(client, "benchmarkDb");
+        orderRepository = new ReactiveMongoRepositoryFactory(template).getRepository(OrderRepository.class);
+
+        template.dropCollection(OrderRequest.class).block();
+        template.dropCollection(OrderCountBuckets.COLLECTION).block();
+        Flux.fromIterable(OrderIndexInitializer.indexes())
+                .concatMap(index -> template.indexOps(OrderRequest.class).ensureIndex(index))
+                .blockLast();
+
+        // Órdenes repartidas uniformemente en DAYS días
+        long stepSeconds = TimeUnit.DAYS.toSeconds(DAYS) / orders;
+        Flux.range(0, orders)
+                .map(i -> new OrderRequest("ORDER-" + i, "CUSTOMER-" + (i % 1000), "+51987654321", OrderStatus.PROCESSED,
+                        List.of("Producto A", "Producto B", "Producto C"), EPOCH.plusSeconds(i * stepSeconds)))
+                .buffer(5000)
+                .concatMap(batch -> template.insert(batch, OrderRequest.class).then())
+                .blockLast();
+
+        orderCountBuckets = new OrderCountBuckets(template, true, false);
+        orderCountBuckets.rebuild(OrderCountBuckets.Granularity.DAY, EPOCH, EPOCH.plusDays(DAYS)).block();
+
+        start = EPOCH;
+        end = EPOCH.plusDays(rangeDays).minusSeconds(1);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        client.close();
+    }
+
+    @Benchmark
+    public Long legacyFindCount() {
+        return orderRepository.findByTsBetween(start, end).count().block();
+    }
+
+    @Benchmark
+    public Long countDocuments() {
+        return orderRepository.countByTsBetween(start, end).block();
+    }
+
+    @Benchmark
+    public Long dailyBuckets() {
+        return orderCountBuckets.sum(OrderCountBuckets.Granularity.DAY, start, end).block();
+    }
+}
@@ -0,0 +1,91 @@
+package com.hacom.order_process_system.repository.codec;
+
+import com.hacom.order_process_system.BenchmarkFixtures;
+import com.hacom.order_process_system.model.OrderStatus;
+import com.hacom.order_process_system.model.request.OrderRequest;
+import com.mongodb.MongoClientSettings;
+import org.bson.BsonBinaryReader;
+import org.bson.BsonBinaryWriter;
+import org.bson.Document;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.io.BasicOutputBuffer;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+
+import java.nio.ByteBuffer;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coste por documento de pasar una orden a BSON y de vuelta: {@code springEncode}/{@code springDecode}
+ * siguen el camino de Spring Data ({@code MappingMongoConverter} con los converters de fechas más el
+ * {@code DocumentCodec} del driver) y {@code codecEncode}/{@code codecDecode} el de {@link OrderRequestCodec}.
+ * Sin Mongo: se mide sólo la serialización. La asignación por documento sale de {@code gc.alloc.rate.norm}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class OrderRequestCodecBenchmark {
+
+    private final OrderRequestCodec codec = new OrderRequestCodec();
+    private final Codec<Document> documentCodec = MongoClientSettings.getDefaultCodecRegistry().get(Document.class);
+    private final EncoderContext encoderContext = EncoderContext.builder().isEncodingCollectibleDocument(true).build();
+    private final DecoderContext decoderContext = DecoderContext.builder().build();
+
+    private MappingMongoConverter converter;
+    private OrderRequest order;
+    private byte[] bson;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        converter = BenchmarkFixtures.mongoConverter();
+        order = new OrderRequest(new ObjectId(), "ORDER-123456", "CUSTOMER-42", "+51987654321", OrderStatus.PROCESSED,
+                List.of("Producto A", "Producto B", "Producto C"),
+                OffsetDateTime.of(2025, 6, 1, 12, 30, 0, 0, ZoneOffset.UTC));
+        // Documento tal como lo guarda Spring Data, _class incluido
+        Document document = new Document();
+        converter.write(order, document);
+        BasicOutputBuffer buffer = new BasicOutputBuffer();
+        documentCodec.encode(new BsonBinaryWriter(buffer), document, encoderContext);
+        bson = buffer.toByteArray();
+    }
+
+    @Benchmark
+    public int springEncode() {
+        Document document = new Document();
+        converter.write(order, document);
+        BasicOutputBuffer buffer = new BasicOutputBuffer(256);
+        documentCodec.encode(new BsonBinaryWriter(buffer), document, encoderContext);
+        return buffer.getPosition();
+    }
+
+    @Benchmark
+    public int codecEncode() {
+        BasicOutputBuffer buffer = new BasicOutputBuffer(256);
+        codec.encode(new BsonBinaryWriter(buffer), order, encoderContext);
+        return buffer.getPosition();
+    }
+
+    @Benchmark
+    public OrderRequest springDecode() {
+        Document document = documentCodec.decode(new BsonBinaryReader(ByteBuffer.wrap(bson)), decoderContext);
+        return converter.read(OrderRequest.class, document);
+    }
+
+    @Benchmark
+    public OrderRequest codecDecode() {
+        return codec.decode(new BsonBinaryReader(ByteBuffer.wrap(bson)), decoderContext);
+    }
+}
@@ -0,0 +1,80 @@
+package com.hacom.order_process_system.repository.journal;
+
+import com.hacom.grpc.CreateOrderRequest;
+import com.hacom.order_process_system.BenchmarkFixtures;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Órdenes por segundo que acepta el {@link OrderJournal} con cada política de fsync: 16 hilos de JMH simulan
+ * routees concurrentes y cada operación añade una orden y espera a que sea durable. Con {@code always} cada
+ * orden paga su fsync; con {@code group} un fsync cubre a todas las que llegaron mientras duraba el anterior;
+ * con {@code none} sólo se copia al fichero mapeado. Percentiles (p0.99) de la espera por orden.
+ * <p>
+ * El journal se crea en {@code journalDir} (por defecto el directorio temporal): para medir el disco real hay
+ * que apuntarlo al mismo volumen que usará {@code app.journal.dir}, p. ej. {@code -p journalDir=/data}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(16)
+public class OrderJournalBenchmark {
+
+    @Param({"always", "group", "none"})
+    public String fsync;
+
+    @Param("")
+    public String journalDir;
+
+    private Path directory;
+    private OrderJournal journal;
+    private CreateOrderRequest order;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        Path parent = journalDir.isEmpty() ? Path.of(System.getProperty("java.io.tmpdir")) : Path.of(journalDir);
+        directory = Files.createTempDirectory(parent, "order-journal-bench-");
+        journal = new OrderJournal(new SimpleMeterRegistry(), true, directory.toString(), 64, fsync, 0);
+        order = BenchmarkFixtures.order(1);
+    }
+
+    /** Como si Mongo hubiera confirmado todo lo añadido: el checkpoint borra los segmentos llenos. */
+    @TearDown(Level.Iteration)
+    public void checkpoint() {
+        journal.checkpoint();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException, IOException {
+        journal.destroy();
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public long append() {
+        long sequence = journal.append(order, System.currentTimeMillis()).block();
+        journal.committed(sequence);
+        return sequence;
+    }
+}
@@ -0,0 +1,91 @@
+package com.hacom.order_process_system.service.proxy.sms;
+
+import com.hacom.order_process_system.BenchmarkFixtures;
+import com.hacom.order_process_system.config.BlockingConfig;
+import com.hacom.order_process_system.config.BlockingMode;
+import com.hacom.order_process_system.config.SmppProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import reactor.core.scheduler.Scheduler;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * {@link SmsDispatcher} con hilos de plataforma frente a hilos virtuales cuando cada envío se bloquea
+ * {@code submitMicros} (sesión ocupada o ventana SMPP llena). 32 hilos de JMH simulan órdenes concurrentes;
+ * cada operación encola un SMS y espera a que termine su envío. Throughput y percentiles (p0.99) por modo.
+ * El modo virtual necesita ejecutar el jar con Java 21.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(32)
+public class SmsDispatchBenchmark {
+
+    @Param({"platform", "virtual"})
+    public String mode;
+
+    @Param("2")
+    public int workers;
+
+    @Param("2000")
+    public int submitMicros;
+
+    private final Map<String, CountDownLatch> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private SmsDispatcher dispatcher;
+    private ExecutorService platformExecutor;
+    private Scheduler blockingScheduler;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BlockingMode blockingMode = BlockingMode.from(mode);
+        if (!blockingMode.isSupported()) {
+            throw new IllegalStateException(blockingMode + " needs Java 21, running " + Runtime.version());
+        }
+        long submitNanos = TimeUnit.MICROSECONDS.toNanos(submitMicros);
+        SmsService blockingSmsService = (phoneNumber, message) -> {
+            LockSupport.parkNanos(submitNanos);
+            inFlight.remove(message).countDown();
+        };
+        // Mismo número de hilos fijos que el sms-io-dispatcher con pool-size = workers
+        platformExecutor = Executors.newFixedThreadPool(workers);
+        blockingScheduler = new BlockingConfig().blockingScheduler(blockingMode);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        dispatcher = new SmsDispatcher(blockingSmsService, registry, BenchmarkFixtures.stageTimers(registry),
+                blockingMode, platformExecutor, blockingScheduler, new SmppProperties(), 100_000);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        dispatcher.destroy();
+        platformExecutor.shutdownNow();
+        blockingScheduler.dispose();
+    }
+
+    @Benchmark
+    public void dispatchAndWait() throws InterruptedException {
+        String message = "Your order ORDER-" + sequence.incrementAndGet() + " has been processed";
+        CountDownLatch sent = new CountDownLatch(1);
+        inFlight.put(message, sent);
+        dispatcher.dispatch("+51987654321", message);
+        sent.await();
+    }
+}
@@ -0,0 +1,82 @@
+package com.hacom.order_process_system.service.proxy.sms;
+
+import com.hacom.grpc.CreateOrderRequest;
+import com.hacom.order_process_system.service.proxy.sms.template.OrderSmsTemplates;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Codificación del texto de un SMS con {@link SmsEncoder} frente al {@code message.getBytes()} anterior, para
+ * un aviso corto y uno largo (varios segmentos) en GSM-7 y en UCS-2, con y sin empaquetado a 7 bits. Con el
+ * profiler {@code gc}, {@code gc.alloc.rate.norm} de {@code encode} debe quedar en 0 bytes por mensaje;
+ * {@code encodeForSubmit} añade las copias por segmento que necesita el submit_sm. {@code render} mide la
+ * plantilla de orden.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SmsEncoderBenchmark {
+
+    @Param({"gsm7-short", "gsm7-long", "ucs2-short", "ucs2-long"})
+    public String text;
+
+    @Param({"false", "true"})
+    public boolean packed;
+
+    private String message;
+    private SmsEncoder encoder;
+    private OrderSmsTemplates templates;
+    private CreateOrderRequest request;
+
+    @Setup
+    public void setUp() {
+        String shortText = text.startsWith("gsm7")
+                ? "Your order ORDER-000123 has been processed"
+                : "Hola José Núñez, tu orden ORDER-000123 está en camino";
+        message = text.endsWith("long") ? shortText.repeat(5) : shortText;
+        encoder = new SmsEncoder(packed);
+        templates = new OrderSmsTemplates(OrderSmsTemplates.DEFAULT_ORDER_PROCESSED);
+        request = CreateOrderRequest.newBuilder()
+                .setOrderId("ORDER-000123")
+                .setCustomerId("CUSTOMER-1")
+                .setCustomerPhoneNumber("+51987654321")
+                .addItems("item-1")
+                .build();
+    }
+
+    @Benchmark
+    public void encode(Blackhole blackhole) {
+        SmsEncoder.Encoded encoded = encoder.encode(message, 1);
+        for (int segment = 0; segment < encoded.segments(); segment++) {
+            blackhole.consume(encoded.buffer()[encoded.offset(segment)]);
+            blackhole.consume(encoded.length(segment));
+        }
+    }
+
+    @Benchmark
+    public void encodeForSubmit(Blackhole blackhole) {
+        SmsEncoder.Encoded encoded = encoder.encode(message, 1);
+        for (int segment = 0; segment < encoded.segments(); segment++) {
+            blackhole.consume(encoded.segment(segment));
+        }
+    }
+
+    @Benchmark
+    public byte[] platformGetBytes() {
+        return message.getBytes();
+    }
+
+    @Benchmark
+    public String render() {
+        return templates.orderProcessed(request);
+    }
+}
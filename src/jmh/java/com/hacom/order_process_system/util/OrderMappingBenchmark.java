@@ -0,0 +1,77 @@
+package com.hacom.order_process_system.util;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.hacom.grpc.CreateOrderRequest;
+import com.hacom.order_process_system.BenchmarkFixtures;
+import com.hacom.order_process_system.model.OrderStatus;
+import com.hacom.order_process_system.model.request.OrderRequest;
+import org.bson.Document;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+
+import java.time.OffsetDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conversiones del camino de escritura y lectura de una orden: petición gRPC a {@link OrderRequest},
+ * ida y vuelta de {@code OffsetDateTime} por los converters de Mongo y mapeo completo del documento.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class OrderMappingBenchmark {
+
+    private final OffsetDateTimeToDateConverter toDate = new OffsetDateTimeToDateConverter();
+    private final DateToOffsetDateTimeConverter toOffsetDateTime = new DateToOffsetDateTimeConverter();
+
+    private CreateOrderRequest request;
+    private byte[] requestBytes;
+    private OffsetDateTime ts;
+    private MappingMongoConverter converter;
+    private OrderRequest order;
+    private Document document;
+
+    @Setup
+    public void setUp() {
+        request = BenchmarkFixtures.order(42);
+        requestBytes = request.toByteArray();
+        ts = OffsetDateTime.now();
+        converter = BenchmarkFixtures.mongoConverter();
+        order = OderAdapter.toOrderRequest(request, OrderStatus.PROCESSED);
+        document = new Document();
+        converter.write(order, document);
+    }
+
+    @Benchmark
+    public OrderRequest protobufToOrderRequest() {
+        return OderAdapter.toOrderRequest(request, OrderStatus.PROCESSED);
+    }
+
+    @Benchmark
+    public OrderRequest parseAndConvert() throws InvalidProtocolBufferException {
+        return OderAdapter.toOrderRequest(CreateOrderRequest.parseFrom(requestBytes), OrderStatus.PROCESSED);
+    }
+
+    @Benchmark
+    public OffsetDateTime offsetDateTimeRoundTrip() {
+        return toOffsetDateTime.convert(toDate.convert(ts));
+    }
+
+    @Benchmark
+    public Document mongoWrite() {
+        Document target = new Document();
+        converter.write(order, target);
+        return target;
+    }
+
+    @Benchmark
+    public OrderRequest mongoRead() {
+        return converter.read(OrderRequest.class, document);
+    }
+}
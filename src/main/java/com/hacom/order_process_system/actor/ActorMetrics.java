@@ -0,0 +1,124 @@
+package com.hacom.order_process_system.actor;
+
+import akka.actor.AbstractExtensionId;
+import akka.actor.ActorRef;
+import akka.actor.ActorSystem;
+import akka.actor.ExtendedActorSystem;
+import akka.actor.Extension;
+import com.hacom.order_process_system.actor.mailbox.MeteredMessageQueue;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Extensión de Akka que da acceso al {@link MeterRegistry} de Spring desde componentes
+ * que Akka instancia por reflexión (mailboxes, dispatchers).
+ * <p>
+ * Los executors de los dispatchers se crean sin referencia al ActorSystem, así que la extensión también
+ * se localiza por nombre de sistema ({@link #forSystem(String)}). Los que se registran antes de
+ * {@link #bindTo(MeterRegistry)}, como el del dispatcher por defecto, se publican al enlazar el registro.
+ */
+public class ActorMetrics implements Extension {
+
+    private static final Map<String, ActorMetrics> BY_SYSTEM = new ConcurrentHashMap<>();
+
+    private static final AbstractExtensionId<ActorMetrics> ID = new AbstractExtensionId<>() {
+        @Override
+        public ActorMetrics createExtension(ExtendedActorSystem system) {
+            ActorMetrics metrics = forSystem(system.name());
+            system.registerOnTermination(() -> BY_SYSTEM.remove(system.name(), metrics));
+            return metrics;
+        }
+    };
+
+    private final Map<String, ExecutorService> dispatchers = new ConcurrentHashMap<>();
+    private volatile MeterRegistry meterRegistry;
+
+    public static ActorMetrics get(ActorSystem system) {
+        return ID.get(system);
+    }
+
+    public static ActorMetrics forSystem(String systemName) {
+        return BY_SYSTEM.computeIfAbsent(systemName, name -> new ActorMetrics());
+    }
+
+    public synchronized void bindTo(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        dispatchers.forEach((id, executor) -> registerDispatcherGauges(meterRegistry, id, executor));
+    }
+
+    public void registerMailbox(ActorRef owner, MeteredMessageQueue queue) {
+        MeterRegistry registry = meterRegistry;
+        if (registry == null) {
+            return;
+        }
+        String actor = owner.path().toStringWithoutAddress();
+        Gauge gauge = Gauge.builder("akka.mailbox.size", queue, MeteredMessageQueue::numberOfMessages)
+                .description("Number of messages waiting in the actor mailbox")
+                .tag("actor", actor)
+                .register(registry);
+        Counter dropped = Counter.builder("akka.mailbox.dropped")
+                .description("Number of messages rejected because the bounded actor mailbox was full")
+                .tag("actor", actor)
+                .register(registry);
+        queue.onDropped(dropped::increment);
+        queue.onCleanUp(() -> {
+            registry.remove(gauge);
+            registry.remove(dropped);
+        });
+    }
+
+    public synchronized void registerDispatcher(String dispatcherId, ExecutorService executor) {
+        dispatchers.put(dispatcherId, executor);
+        if (meterRegistry != null) {
+            registerDispatcherGauges(meterRegistry, dispatcherId, executor);
+        }
+    }
+
+    private static void registerDispatcherGauges(MeterRegistry registry, String dispatcherId, ExecutorService executor) {
+        if (executor instanceof ForkJoinPool pool) {
+            dispatcherGauges(registry, dispatcherId, pool, ForkJoinPool::getActiveThreadCount,
+                    ForkJoinPool::getPoolSize, ForkJoinPool::getParallelism,
+                    p -> p.getQueuedSubmissionCount() + p.getQueuedTaskCount());
+        } else if (executor instanceof ThreadPoolExecutor pool) {
+            dispatcherGauges(registry, dispatcherId, pool, ThreadPoolExecutor::getActiveCount,
+                    ThreadPoolExecutor::getPoolSize, ThreadPoolExecutor::getMaximumPoolSize,
+                    p -> p.getQueue().size());
+        }
+    }
+
+    private static <T> void dispatcherGauges(MeterRegistry registry, String dispatcherId, T pool,
+                                             ToDoubleFunction<T> active,
+                                             ToDoubleFunction<T> size,
+                                             ToDoubleFunction<T> parallelism,
+                                             ToDoubleFunction<T> queued) {
+        Gauge.builder("akka.dispatcher.threads.active", pool, active)
+                .description("Number of dispatcher threads running actors or tasks")
+                .tag("dispatcher", dispatcherId)
+                .register(registry);
+        Gauge.builder("akka.dispatcher.threads.pool", pool, size)
+                .description("Number of threads started by the dispatcher")
+                .tag("dispatcher", dispatcherId)
+                .register(registry);
+        Gauge.builder("akka.dispatcher.parallelism", pool, parallelism)
+                .description("Target number of dispatcher threads")
+                .tag("dispatcher", dispatcherId)
+                .register(registry);
+        Gauge.builder("akka.dispatcher.utilization", pool,
+                        p -> active.applyAsDouble(p) / Math.max(1, parallelism.applyAsDouble(p)))
+                .description("Fraction of the dispatcher parallelism currently busy")
+                .tag("dispatcher", dispatcherId)
+                .register(registry);
+        Gauge.builder("akka.dispatcher.queue.size", pool, queued)
+                .description("Number of tasks (mailboxes scheduled to run) waiting for a dispatcher thread")
+                .tag("dispatcher", dispatcherId)
+                .register(registry);
+    }
+}
@@ -0,0 +1,39 @@
+package com.hacom.order_process_system.actor;
+
+import akka.routing.ConsistentHashingRouter.ConsistentHashMapper;
+
+/**
+ * Campo de la orden usado por el router consistent-hashing para elegir el routee.
+ * Todas las órdenes con la misma clave caen en el mismo actor, conservando su orden.
+ */
+public enum OrderHashKey {
+
+    ORDER_ID("orderId"),
+    CUSTOMER_ID("customerId");
+
+    private final String property;
+
+    OrderHashKey(String property) {
+        this.property = property;
+    }
+
+    public static OrderHashKey from(String value) {
+        for (OrderHashKey key : values()) {
+            if (key.property.equalsIgnoreCase(value) || key.name().equalsIgnoreCase(value)) {
+                return key;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported order hash key: " + value);
+    }
+
+    public ConsistentHashMapper mapper() {
+        return message -> {
+            if (message instanceof OrderProcessingActor.ProcessOrderMessage processOrder) {
+                return this == CUSTOMER_ID
+                        ? processOrder.getRequest().getCustomerId()
+                        : processOrder.getRequest().getOrderId();
+            }
+            return null;
+        };
+    }
+}
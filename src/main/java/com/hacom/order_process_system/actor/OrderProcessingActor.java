@@ -4,31 +4,76 @@ import akka.actor.AbstractActor;
 import akka.actor.Props;
 import com.hacom.grpc.CreateOrderRequest;
 import com.hacom.grpc.CreateOrderResponse;
+import com.hacom.order_process_system.actor.mailbox.PrioritizedMessage;
+import com.hacom.order_process_system.actor.mailbox.RejectableMessage;
+import com.hacom.order_process_system.metrics.OrderStageTimers;
+import com.hacom.order_process_system.metrics.OrderTrace;
+import com.hacom.order_process_system.model.OrderStatus;
 import com.hacom.order_process_system.model.request.OrderRequest;
-import com.hacom.order_process_system.repository.OrderRepository;
-import com.hacom.order_process_system.service.proxy.sms.impl.SmsServiceImpl;
+import com.hacom.order_process_system.repository.OrderBatchWriter;
+import com.hacom.order_process_system.repository.journal.OrderJournal;
+import com.hacom.order_process_system.service.cache.OrderStatusCache;
+import com.hacom.order_process_system.service.cache.RecentOrderIds;
+import com.hacom.order_process_system.service.proxy.sms.SmsDispatcher;
+import com.hacom.order_process_system.service.proxy.sms.template.OrderSmsTemplates;
+import com.hacom.order_process_system.util.OderAdapter;
+import io.grpc.Status;
 import io.grpc.stub.StreamObserver;
 import io.micrometer.core.instrument.Counter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-
-import java.time.OffsetDateTime;
-import java.util.List;
+import org.springframework.dao.DuplicateKeyException;
+import reactor.core.publisher.Mono;
 
 public class OrderProcessingActor extends AbstractActor {
 
     private static final Logger logger = LoggerFactory.getLogger(OrderProcessingActor.class);
 
-    private final OrderRepository orderRepository;
-    private final SmsServiceImpl smsServiceImpl;
+    public static final String MAILBOX = "order-processing-mailbox";
+    public static final String DISPATCHER = "order-processing-dispatcher";
+
+    private final OrderBatchWriter orderBatchWriter;
+    private final OrderJournal orderJournal;
+    private final SmsDispatcher smsDispatcher;
+    private final OrderSmsTemplates smsTemplates;
+    private final OrderStatusCache orderStatusCache;
+    private final RecentOrderIds recentOrderIds;
     private final Counter orderProcessedCounter;
-    public static class ProcessOrderMessage {
+    private final OrderStageTimers stageTimers;
+
+    /** Orden persistida por este mensaje o, si {@code duplicate}, la que ya existía con el mismo orderId. */
+    private record Ingested(OrderRequest order, boolean duplicate) {
+    }
+
+    /**
+     * Orden a procesar. Con el mailbox {@code priority} las de {@code CreateOrder}, con un cliente esperando
+     * cada respuesta, pasan delante de las de {@code CreateOrders}, que ya tienen su ventana de órdenes en vuelo.
+     */
+    public static class ProcessOrderMessage implements RejectableMessage, PrioritizedMessage {
+
+        public static final int UNARY_PRIORITY = PrioritizedMessage.DEFAULT_PRIORITY;
+        public static final int STREAM_PRIORITY = PrioritizedMessage.DEFAULT_PRIORITY + 10;
+
         private final CreateOrderRequest request;
         private final StreamObserver<CreateOrderResponse> responseObserver;
+        private final OrderTrace trace;
+        private final int priority;
 
         public ProcessOrderMessage(CreateOrderRequest request, StreamObserver<CreateOrderResponse> responseObserver) {
+            this(request, responseObserver, OrderTrace.start());
+        }
+
+        public ProcessOrderMessage(CreateOrderRequest request, StreamObserver<CreateOrderResponse> responseObserver,
+                                   OrderTrace trace) {
+            this(request, responseObserver, trace, UNARY_PRIORITY);
+        }
+
+        public ProcessOrderMessage(CreateOrderRequest request, StreamObserver<CreateOrderResponse> responseObserver,
+                                   OrderTrace trace, int priority) {
             this.request = request;
             this.responseObserver = responseObserver;
+            this.trace = trace;
+            this.priority = priority;
         }
 
         public CreateOrderRequest getRequest() {
@@ -38,17 +83,45 @@ public class OrderProcessingActor extends AbstractActor {
         public StreamObserver<CreateOrderResponse> getResponseObserver() {
             return responseObserver;
         }
+
+        public OrderTrace getTrace() {
+            return trace;
+        }
+
+        @Override
+        public int priority() {
+            return priority;
+        }
+
+        /** El mailbox del routee está lleno: mismo rechazo que el control de admisión, el cliente reintenta. */
+        @Override
+        public void reject() {
+            responseObserver.onError(Status.RESOURCE_EXHAUSTED
+                    .withDescription("Order processing mailbox full, retry later")
+                    .asRuntimeException());
+        }
     }
 
-    public OrderProcessingActor(OrderRepository orderRepository, SmsServiceImpl smsServiceImpl, Counter orderProcessedCounter) {
-        this.orderRepository = orderRepository;
-        this.smsServiceImpl = smsServiceImpl;
+    public OrderProcessingActor(OrderBatchWriter orderBatchWriter, OrderJournal orderJournal, SmsDispatcher smsDispatcher,
+                                OrderSmsTemplates smsTemplates, OrderStatusCache orderStatusCache,
+                                RecentOrderIds recentOrderIds, Counter orderProcessedCounter,
+                                OrderStageTimers stageTimers) {
+        this.orderBatchWriter = orderBatchWriter;
+        this.orderJournal = orderJournal;
+        this.smsDispatcher = smsDispatcher;
+        this.smsTemplates = smsTemplates;
+        this.orderStatusCache = orderStatusCache;
+        this.recentOrderIds = recentOrderIds;
         this.orderProcessedCounter = orderProcessedCounter;
+        this.stageTimers = stageTimers;
     }
 
-    public static Props props(OrderRepository orderRepository, SmsServiceImpl smsServiceImpl, Counter orderProcessedCounter) {
-        return Props.create(OrderProcessingActor.class, () -> new OrderProcessingActor(orderRepository, smsServiceImpl,
-                orderProcessedCounter));
+    public static Props props(OrderBatchWriter orderBatchWriter, OrderJournal orderJournal, SmsDispatcher smsDispatcher,
+                              OrderSmsTemplates smsTemplates, OrderStatusCache orderStatusCache,
+                              RecentOrderIds recentOrderIds, Counter orderProcessedCounter,
+                              OrderStageTimers stageTimers) {
+        return Props.create(OrderProcessingActor.class, () -> new OrderProcessingActor(orderBatchWriter, orderJournal,
+                smsDispatcher, smsTemplates, orderStatusCache, recentOrderIds, orderProcessedCounter, stageTimers));
     }
 
     @Override
@@ -58,45 +131,95 @@ public class OrderProcessingActor extends AbstractActor {
                 .build();
     }
 
+    /**
+     * Inserta la orden ya registrada en el journal con {@code sequence}. Si Mongo está caído la orden se da
+     * por aceptada: la escribirá el replayer del journal.
+     */
+    private Mono<Ingested> save(OrderRequest orderRequest, long sequence) {
+        boolean journaled = sequence != OrderJournal.NO_SEQUENCE;
+        if (journaled && orderJournal.isMongoUnavailable()) {
+            orderJournal.deferred(sequence);
+            return Mono.just(new Ingested(orderRequest, false));
+        }
+        return orderBatchWriter.save(orderRequest)
+                .doOnNext(savedOrder -> orderJournal.committed(sequence))
+                .map(savedOrder -> new Ingested(savedOrder, false))
+                .onErrorResume(DuplicateKeyException.class, duplicate -> {
+                    orderJournal.committed(sequence);
+                    return recentOrderIds.loadOriginal(orderRequest.getOrderId())
+                            .map(original -> new Ingested(original, true))
+                            .switchIfEmpty(Mono.error(duplicate));
+                })
+                .onErrorResume(error -> journaled && OrderJournal.isOutage(error), outage -> {
+                    orderJournal.deferred(sequence);
+                    return Mono.just(new Ingested(orderRequest, false));
+                })
+                // Mongo rechazó la orden y el cliente recibe el error: no queda nada que reproducir
+                .doOnError(error -> orderJournal.committed(sequence));
+    }
+
     private void processOrder(ProcessOrderMessage message) {
+        OrderTrace trace = message.getTrace();
+        stageTimers.dequeued(trace);
         try {
             CreateOrderRequest request = message.getRequest();
             StreamObserver<CreateOrderResponse> responseObserver = message.getResponseObserver();
 
-            logger.info("Processing order: {}", request.getOrderId());
+            if (logger.isDebugEnabled()) {
+                logger.debug("Processing order: {}", request.getOrderId());
+            }
 
             // Crear el objeto Order
-            OrderRequest orderRequest = new OrderRequest(
-                    request.getOrderId(),
-                    request.getCustomerId(),
-                    request.getCustomerPhoneNumber(),
-                    "PROCESSED",
-                    List.copyOf(request.getItemsList()),
-                    OffsetDateTime.now()
-            );
-
-            // Guardar en MongoDB
-            orderRepository.save(orderRequest)
+            OrderRequest orderRequest = OderAdapter.toOrderRequest(request, OrderStatus.PROCESSED);
+
+            // Un reintento del cliente recibe la respuesta original sin volver a insertar ni enviar SMS
+            recentOrderIds.findOriginal(request.getOrderId())
+                    .map(original -> new Ingested(original, true))
+                    // Journal local primero y después MongoDB (insert agrupado en lotes); el índice único de
+                    // orderId resuelve los duplicados que el filtro no conoce
+                    .switchIfEmpty(Mono.defer(() -> orderJournal
+                            .append(request, orderRequest.getTs().toInstant().toEpochMilli())
+                            .flatMap(sequence -> save(orderRequest, sequence))))
                     .subscribe(
-                            savedOrder -> {
-                                logger.info("Order saved successfully: {}", savedOrder.getOrderId());
-
+                            ingested -> {
+                                if (ingested.duplicate()) {
+                                    if (logger.isDebugEnabled()) {
+                                        logger.debug("Order {} already ingested, answering with its original status",
+                                                request.getOrderId());
+                                    }
+                                    responseObserver.onNext(CreateOrderResponse.newBuilder()
+                                            .setOrderId(request.getOrderId())
+                                            .setStatus(OderAdapter.statusName(ingested.order().getStatus()))
+                                            .build());
+                                    responseObserver.onCompleted();
+                                    return;
+                                }
+                                OrderRequest savedOrder = ingested.order();
+                                stageTimers.saved(trace);
                                 orderProcessedCounter.increment();
 
-                                // Enviar SMS
-                                String smsMessage = "Your order " + request.getOrderId() + " has been processed";
-                                smsServiceImpl.sendSms(request.getCustomerPhoneNumber(), smsMessage);
+                                // Antes del ack: el primer sondeo de estado del cliente ya encuentra la orden
+                                orderStatusCache.put(savedOrder);
+                                recentOrderIds.record(savedOrder);
 
-                                // Enviar respuesta gRPC
+                                // Enviar respuesta gRPC en cuanto la orden está persistida
                                 CreateOrderResponse response = CreateOrderResponse.newBuilder()
                                         .setOrderId(request.getOrderId())
-                                        .setStatus("PROCESSED")
+                                        .setStatus(OderAdapter.statusName(savedOrder.getStatus()))
                                         .build();
 
                                 responseObserver.onNext(response);
                                 responseObserver.onCompleted();
+                                stageTimers.acked(request.getOrderId(), trace);
+
+                                // Encolar SMS; el envío ocurre en su propia etapa
+                                String smsMessage = smsTemplates.orderProcessed(request);
+                                smsDispatcher.dispatch(request.getOrderId(), request.getCustomerPhoneNumber(), smsMessage,
+                                        trace);
 
-                                logger.info("Order processing completed: {}", request.getOrderId());
+                                if (logger.isDebugEnabled()) {
+                                    logger.debug("Order processing completed: {} ({})", request.getOrderId(), trace);
+                                }
                             },
                             error -> {
                                 logger.error("Error saving order {}: {}", request.getOrderId(), error.getMessage());
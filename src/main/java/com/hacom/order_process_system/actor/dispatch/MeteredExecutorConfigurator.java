@@ -0,0 +1,49 @@
+package com.hacom.order_process_system.actor.dispatch;
+
+import akka.dispatch.DispatcherPrerequisites;
+import akka.dispatch.ExecutorServiceConfigurator;
+import akka.dispatch.ExecutorServiceFactory;
+import akka.dispatch.ForkJoinExecutorConfigurator;
+import akka.dispatch.ThreadPoolExecutorConfigurator;
+import com.hacom.order_process_system.actor.ActorMetrics;
+import com.typesafe.config.Config;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Executor de dispatcher que delega en el {@code fork-join-executor} o {@code thread-pool-executor}
+ * estándar de Akka (según {@code metered-executor} en la configuración del dispatcher) y registra
+ * el pool creado en {@link ActorMetrics} para publicar su utilización. Akka lo instancia por reflexión
+ * con este constructor cuando el dispatcher declara {@code executor = "<esta clase>"}.
+ */
+public class MeteredExecutorConfigurator extends ExecutorServiceConfigurator {
+
+    public static final String DELEGATE = "metered-executor";
+
+    private final ExecutorServiceConfigurator delegate;
+    private final String systemName;
+
+    public MeteredExecutorConfigurator(Config config, DispatcherPrerequisites prerequisites) {
+        super(config, prerequisites);
+        String executor = config.hasPath(DELEGATE) ? config.getString(DELEGATE) : "fork-join-executor";
+        this.delegate = switch (executor) {
+            case "fork-join-executor" ->
+                    new ForkJoinExecutorConfigurator(config.getConfig("fork-join-executor"), prerequisites);
+            case "thread-pool-executor" ->
+                    new ThreadPoolExecutorConfigurator(config.getConfig("thread-pool-executor"), prerequisites);
+            default -> throw new IllegalArgumentException("Unsupported metered executor: " + executor);
+        };
+        this.systemName = prerequisites.settings().name();
+    }
+
+    @Override
+    public ExecutorServiceFactory createExecutorServiceFactory(String id, ThreadFactory threadFactory) {
+        ExecutorServiceFactory factory = delegate.createExecutorServiceFactory(id, threadFactory);
+        return () -> {
+            ExecutorService executor = factory.createExecutorService();
+            ActorMetrics.forSystem(systemName).registerDispatcher(id, executor);
+            return executor;
+        };
+    }
+}
@@ -0,0 +1,37 @@
+package com.hacom.order_process_system.actor.mailbox;
+
+import akka.actor.ActorRef;
+import akka.actor.ActorSystem;
+import akka.dispatch.MailboxType;
+import akka.dispatch.MessageQueue;
+import akka.dispatch.ProducesMessageQueue;
+import com.typesafe.config.Config;
+import scala.Option;
+
+/**
+ * Variante acotada de {@link MeteredMailbox}: además de {@code queue} lee {@code mailbox-capacity}, que debe
+ * ser mayor que 0. Es un MailboxType aparte porque Akka comprueba los {@code RequiresMessageQueue} de los
+ * actores contra el tipo que declara {@link ProducesMessageQueue}.
+ */
+public class BoundedMeteredMailbox implements MailboxType, ProducesMessageQueue<MeteredMessageQueue.Bounded> {
+
+    public static final String CAPACITY = "mailbox-capacity";
+
+    private final MeteredMailbox.QueueType queueType;
+    private final int capacity;
+
+    public BoundedMeteredMailbox(ActorSystem.Settings settings, Config config) {
+        this.queueType = MeteredMailbox.queueType(config);
+        this.capacity = config.getInt(CAPACITY);
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Unsupported bounded mailbox capacity: " + capacity);
+        }
+    }
+
+    @Override
+    public MessageQueue create(Option<ActorRef> owner, Option<ActorSystem> system) {
+        ActorRef deadLetters = system.isDefined() ? system.get().deadLetters() : null;
+        return MeteredMailbox.register(new MeteredMessageQueue.Bounded(queueType.newQueue(), capacity, deadLetters),
+                owner, system);
+    }
+}
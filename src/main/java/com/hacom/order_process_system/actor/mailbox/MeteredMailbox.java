@@ -0,0 +1,82 @@
+package com.hacom.order_process_system.actor.mailbox;
+
+import akka.actor.ActorRef;
+import akka.actor.ActorSystem;
+import akka.dispatch.Envelope;
+import akka.dispatch.MailboxType;
+import akka.dispatch.MessageQueue;
+import akka.dispatch.NodeMessageQueue;
+import akka.dispatch.ProducesMessageQueue;
+import akka.dispatch.UnboundedMailbox;
+import akka.dispatch.UnboundedStablePriorityMailbox;
+import com.hacom.order_process_system.actor.ActorMetrics;
+import com.typesafe.config.Config;
+import scala.Option;
+
+import java.util.Comparator;
+
+/**
+ * MailboxType que crea un {@link MeteredMessageQueue} sin límite por actor y publica su profundidad
+ * a través de {@link ActorMetrics}. Akka lo instancia por reflexión con este constructor.
+ * <p>
+ * Lee de la configuración del mailbox {@code queue} (ver {@link QueueType}); la variante acotada es
+ * {@link BoundedMeteredMailbox}.
+ */
+public class MeteredMailbox implements MailboxType, ProducesMessageQueue<MeteredMessageQueue.Unbounded> {
+
+    public static final String QUEUE = "queue";
+
+    private final QueueType queueType;
+
+    public MeteredMailbox(ActorSystem.Settings settings, Config config) {
+        this.queueType = queueType(config);
+    }
+
+    @Override
+    public MessageQueue create(Option<ActorRef> owner, Option<ActorSystem> system) {
+        return register(new MeteredMessageQueue.Unbounded(queueType.newQueue()), owner, system);
+    }
+
+    static QueueType queueType(Config config) {
+        return config.hasPath(QUEUE) ? QueueType.from(config.getString(QUEUE)) : QueueType.UNBOUNDED;
+    }
+
+    static <Q extends MeteredMessageQueue> Q register(Q queue, Option<ActorRef> owner, Option<ActorSystem> system) {
+        if (owner.isDefined() && system.isDefined()) {
+            ActorMetrics.get(system.get()).registerMailbox(owner.get(), queue);
+        }
+        return queue;
+    }
+
+    /** Cola de Akka sobre la que se mide el mailbox. */
+    public enum QueueType {
+        /** {@code ConcurrentLinkedQueue}, la del mailbox por defecto de Akka. */
+        UNBOUNDED,
+        /** Cola MPSC sin bloqueos; más barata que la anterior porque cada mailbox tiene un único consumidor. */
+        SINGLE_CONSUMER,
+        /** Por {@link PrioritizedMessage#priority()} y, a igual prioridad, en orden de llegada. */
+        PRIORITY;
+
+        private static final Comparator<Envelope> BY_PRIORITY = Comparator.comparingInt(
+                envelope -> envelope.message() instanceof PrioritizedMessage prioritized
+                        ? prioritized.priority()
+                        : PrioritizedMessage.DEFAULT_PRIORITY);
+
+        public static QueueType from(String value) {
+            for (QueueType type : values()) {
+                if (type.name().replace('_', '-').equalsIgnoreCase(value) || type.name().equalsIgnoreCase(value)) {
+                    return type;
+                }
+            }
+            throw new IllegalArgumentException("Unsupported mailbox queue: " + value);
+        }
+
+        MessageQueue newQueue() {
+            return switch (this) {
+                case UNBOUNDED -> new UnboundedMailbox.MessageQueue();
+                case SINGLE_CONSUMER -> new NodeMessageQueue();
+                case PRIORITY -> new UnboundedStablePriorityMailbox.MessageQueue(11, BY_PRIORITY);
+            };
+        }
+    }
+}
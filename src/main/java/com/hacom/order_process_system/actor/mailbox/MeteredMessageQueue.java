@@ -0,0 +1,116 @@
+package com.hacom.order_process_system.actor.mailbox;
+
+import akka.actor.ActorRef;
+import akka.actor.DeadLetter;
+import akka.dispatch.BoundedMessageQueueSemantics;
+import akka.dispatch.Envelope;
+import akka.dispatch.MessageQueue;
+import akka.dispatch.UnboundedMessageQueueSemantics;
+import scala.concurrent.duration.Duration;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Cola de mailbox que mantiene su profundidad en un contador atómico, de modo que pueda leerse
+ * en O(1) desde un gauge de Micrometer, sobre una de las colas de Akka (ver {@link MeteredMailbox.QueueType}).
+ * <p>
+ * Con capacidad mayor que 0 la cola queda acotada: un mensaje que no cabe no espera (bloquearía al
+ * emisor, normalmente un hilo de gRPC) sino que se rechaza al momento con {@link RejectableMessage#reject()}
+ * o, si el mensaje no sabe rechazarse, se envía a dead letters. Cada variante declara su semántica:
+ * {@link Unbounded} y {@link Bounded}, con {@code pushTimeOut} 0.
+ */
+public abstract class MeteredMessageQueue implements MessageQueue {
+
+    private final MessageQueue queue;
+    private final int capacity;
+    private final ActorRef deadLetters;
+    private final AtomicInteger depth = new AtomicInteger();
+    private volatile Runnable onCleanUp = () -> { };
+    private volatile Runnable onDropped = () -> { };
+
+    private MeteredMessageQueue(MessageQueue queue, int capacity, ActorRef deadLetters) {
+        this.queue = queue;
+        this.capacity = capacity;
+        this.deadLetters = deadLetters;
+    }
+
+    public void onCleanUp(Runnable onCleanUp) {
+        this.onCleanUp = onCleanUp;
+    }
+
+    public void onDropped(Runnable onDropped) {
+        this.onDropped = onDropped;
+    }
+
+    @Override
+    public void enqueue(ActorRef receiver, Envelope handle) {
+        int size = depth.incrementAndGet();
+        if (capacity > 0 && size > capacity) {
+            depth.decrementAndGet();
+            drop(receiver, handle);
+            return;
+        }
+        queue.enqueue(receiver, handle);
+    }
+
+    @Override
+    public Envelope dequeue() {
+        Envelope envelope = queue.dequeue();
+        if (envelope != null) {
+            depth.decrementAndGet();
+        }
+        return envelope;
+    }
+
+    @Override
+    public int numberOfMessages() {
+        return depth.get();
+    }
+
+    @Override
+    public boolean hasMessages() {
+        return queue.hasMessages();
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    @Override
+    public void cleanUp(ActorRef owner, MessageQueue deadLetters) {
+        Envelope envelope;
+        while ((envelope = dequeue()) != null) {
+            deadLetters.enqueue(owner, envelope);
+        }
+        onCleanUp.run();
+    }
+
+    private void drop(ActorRef receiver, Envelope handle) {
+        onDropped.run();
+        if (handle.message() instanceof RejectableMessage rejectable) {
+            rejectable.reject();
+        } else if (deadLetters != null) {
+            deadLetters.tell(new DeadLetter(handle.message(), handle.sender(), receiver), handle.sender());
+        }
+    }
+
+    public static final class Unbounded extends MeteredMessageQueue implements UnboundedMessageQueueSemantics {
+
+        Unbounded(MessageQueue queue) {
+            super(queue, 0, null);
+        }
+    }
+
+    public static final class Bounded extends MeteredMessageQueue implements BoundedMessageQueueSemantics {
+
+        Bounded(MessageQueue queue, int capacity, ActorRef deadLetters) {
+            super(queue, capacity, deadLetters);
+        }
+
+        /** Lleno, no se espera: el mensaje se rechaza al momento. */
+        @Override
+        public Duration pushTimeOut() {
+            return Duration.Zero();
+        }
+    }
+}
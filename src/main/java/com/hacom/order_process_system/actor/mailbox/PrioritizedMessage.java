@@ -0,0 +1,13 @@
+package com.hacom.order_process_system.actor.mailbox;
+
+/**
+ * Mensaje con prioridad para el mailbox {@code priority}: se entregan antes los de valor menor y,
+ * a igual prioridad, en orden de llegada. Los mensajes que no implementan la interfaz tienen
+ * {@link #DEFAULT_PRIORITY}.
+ */
+public interface PrioritizedMessage {
+
+    int DEFAULT_PRIORITY = 100;
+
+    int priority();
+}
@@ -0,0 +1,10 @@
+package com.hacom.order_process_system.actor.mailbox;
+
+/**
+ * Mensaje que sabe avisar a quien lo envió cuando un mailbox acotado lo rechaza por estar lleno,
+ * en lugar de perderse en dead letters sin respuesta.
+ */
+public interface RejectableMessage {
+
+    void reject();
+}
@@ -2,38 +2,159 @@ package com.hacom.order_process_system.config;
 
 import akka.actor.ActorRef;
 import akka.actor.ActorSystem;
+import akka.routing.ConsistentHashingPool;
+import com.hacom.order_process_system.actor.ActorMetrics;
+import com.hacom.order_process_system.actor.OrderHashKey;
 import com.hacom.order_process_system.actor.OrderProcessingActor;
-import com.hacom.order_process_system.repository.OrderRepository;
-import com.hacom.order_process_system.service.proxy.sms.impl.SmsServiceImpl;
+import com.hacom.order_process_system.actor.dispatch.MeteredExecutorConfigurator;
+import com.hacom.order_process_system.actor.mailbox.BoundedMeteredMailbox;
+import com.hacom.order_process_system.actor.mailbox.MeteredMailbox;
+import com.hacom.order_process_system.metrics.OrderStageTimers;
+import com.hacom.order_process_system.repository.OrderBatchWriter;
+import com.hacom.order_process_system.repository.journal.OrderJournal;
+import com.hacom.order_process_system.service.cache.OrderStatusCache;
+import com.hacom.order_process_system.service.cache.RecentOrderIds;
+import com.hacom.order_process_system.service.proxy.sms.SmsDispatcher;
+import com.hacom.order_process_system.service.proxy.sms.template.OrderSmsTemplates;
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
 import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
 @Configuration
 public class AkkaConfig {
 
     private static final Logger logger = LoggerFactory.getLogger(AkkaConfig.class);
 
+    public static final String SMS_IO_DISPATCHER = "sms-io-dispatcher";
+
     private ActorSystem actorSystem;
 
+    @Value("${app.akka.order-pool.size:0}")
+    private int orderPoolSize;
+
+    @Value("${app.akka.order-pool.hash-key:orderId}")
+    private String orderPoolHashKey;
+
+    @Value("${app.akka.dispatchers.order-processing.throughput:5}")
+    private int orderThroughput;
+
+    @Value("${app.akka.dispatchers.order-processing.parallelism-min:2}")
+    private int orderParallelismMin;
+
+    @Value("${app.akka.dispatchers.order-processing.parallelism-factor:1.0}")
+    private double orderParallelismFactor;
+
+    @Value("${app.akka.dispatchers.order-processing.parallelism-max:16}")
+    private int orderParallelismMax;
+
+    @Value("${app.akka.dispatchers.sms-io.pool-size:${app.sms.dispatch.workers:2}}")
+    private int smsIoPoolSize;
+
+    @Value("${app.akka.dispatchers.sms-io.throughput:1}")
+    private int smsIoThroughput;
+
+    @Value("${app.akka.mailbox.queue:unbounded}")
+    private String mailboxQueue;
+
+    @Value("${app.akka.mailbox.capacity:0}")
+    private int mailboxCapacity;
+
+    @Value("${app.akka.config:}")
+    private String akkaConfigOverrides;
+
     @Bean
-    public ActorSystem actorSystem() {
+    public ActorSystem actorSystem(MeterRegistry meterRegistry) {
         logger.info("Creating Akka ActorSystem");
-        actorSystem = ActorSystem.create("OrderProcessingSystem");
+        actorSystem = ActorSystem.create("OrderProcessingSystem", akkaConfig());
+        ActorMetrics.get(actorSystem).bindTo(meterRegistry);
         return actorSystem;
     }
 
+    /**
+     * Configuración de Akka a partir de {@code app.akka}: dispatcher fork-join para el pool de órdenes,
+     * dispatcher de hilos fijos para el envío SMPP y el mailbox medido del pool. Todos los dispatchers,
+     * el por defecto incluido, publican su utilización. {@code app.akka.config} admite HOCON que tiene
+     * prioridad sobre lo anterior y sobre {@code application.conf}.
+     */
+    Config akkaConfig() {
+        String metered = MeteredExecutorConfigurator.class.getName();
+        Map<String, Object> settings = new HashMap<>();
+        settings.put("akka.actor.default-dispatcher.executor", metered);
+        settings.put("akka.actor.default-dispatcher." + MeteredExecutorConfigurator.DELEGATE, "fork-join-executor");
+
+        String order = OrderProcessingActor.DISPATCHER;
+        settings.put(order + ".type", "Dispatcher");
+        settings.put(order + ".executor", metered);
+        settings.put(order + "." + MeteredExecutorConfigurator.DELEGATE, "fork-join-executor");
+        settings.put(order + ".fork-join-executor.parallelism-min", orderParallelismMin);
+        settings.put(order + ".fork-join-executor.parallelism-factor", orderParallelismFactor);
+        settings.put(order + ".fork-join-executor.parallelism-max", orderParallelismMax);
+        settings.put(order + ".throughput", orderThroughput);
+
+        settings.put(SMS_IO_DISPATCHER + ".type", "Dispatcher");
+        settings.put(SMS_IO_DISPATCHER + ".executor", metered);
+        settings.put(SMS_IO_DISPATCHER + "." + MeteredExecutorConfigurator.DELEGATE, "thread-pool-executor");
+        settings.put(SMS_IO_DISPATCHER + ".thread-pool-executor.fixed-pool-size", smsIoPoolSize);
+        settings.put(SMS_IO_DISPATCHER + ".throughput", smsIoThroughput);
+
+        String mailbox = OrderProcessingActor.MAILBOX;
+        settings.put(mailbox + "." + MeteredMailbox.QUEUE, MeteredMailbox.QueueType.from(mailboxQueue).name());
+        if (mailboxCapacity > 0) {
+            settings.put(mailbox + ".mailbox-type", BoundedMeteredMailbox.class.getName());
+            settings.put(mailbox + "." + BoundedMeteredMailbox.CAPACITY, mailboxCapacity);
+        } else {
+            settings.put(mailbox + ".mailbox-type", MeteredMailbox.class.getName());
+        }
+
+        logger.info("Order dispatcher parallelism {}x cores in [{}, {}], throughput {}; SMS I/O dispatcher {} threads; "
+                        + "order mailbox {} with capacity {}", orderParallelismFactor, orderParallelismMin,
+                orderParallelismMax, orderThroughput, smsIoPoolSize, mailboxQueue,
+                mailboxCapacity > 0 ? mailboxCapacity : "unbounded");
+        return ConfigFactory.parseString(akkaConfigOverrides)
+                .withFallback(ConfigFactory.parseMap(settings))
+                .withFallback(ConfigFactory.load());
+    }
+
+    /**
+     * Dispatcher {@code sms-io-dispatcher} como Executor, para el trabajo bloqueante de SMPP en modo
+     * {@link BlockingMode#PLATFORM}; así no ocupa hilos del dispatcher de órdenes.
+     */
+    @Bean
+    public Executor smsIoExecutor(ActorSystem actorSystem) {
+        return actorSystem.dispatchers().lookup(SMS_IO_DISPATCHER);
+    }
+
     @Bean
     public ActorRef orderProcessingActor(ActorSystem actorSystem,
-                                         OrderRepository orderRepository,
-                                         SmsServiceImpl smsServiceImpl,
-                                         Counter orderProcessedCounter ) {
-        logger.info("Creating OrderProcessingActor");
-        return actorSystem.actorOf(OrderProcessingActor.props(orderRepository,
-                smsServiceImpl,orderProcessedCounter), "orderProcessingActor");
+                                         OrderBatchWriter orderBatchWriter,
+                                         OrderJournal orderJournal,
+                                         SmsDispatcher smsDispatcher,
+                                         OrderSmsTemplates orderSmsTemplates,
+                                         OrderStatusCache orderStatusCache,
+                                         RecentOrderIds recentOrderIds,
+                                         Counter orderProcessedCounter,
+                                         OrderStageTimers orderStageTimers) {
+        int poolSize = orderPoolSize > 0 ? orderPoolSize : Runtime.getRuntime().availableProcessors();
+        OrderHashKey hashKey = OrderHashKey.from(orderPoolHashKey);
+        logger.info("Creating OrderProcessingActor pool with {} routees hashed by {}", poolSize, hashKey);
+
+        return actorSystem.actorOf(new ConsistentHashingPool(poolSize)
+                .withHashMapper(hashKey.mapper())
+                .props(OrderProcessingActor.props(orderBatchWriter, orderJournal, smsDispatcher, orderSmsTemplates,
+                                orderStatusCache, recentOrderIds, orderProcessedCounter, orderStageTimers)
+                        .withMailbox(OrderProcessingActor.MAILBOX)
+                        .withDispatcher(OrderProcessingActor.DISPATCHER)), "orderProcessingActor");
     }
 
     @PreDestroy
@@ -0,0 +1,41 @@
+package com.hacom.order_process_system.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+@Configuration
+public class BlockingConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(BlockingConfig.class);
+
+    /** Modo de {@code app.blocking.mode}; virtual en un JVM sin hilos virtuales vuelve a platform. */
+    @Bean
+    public BlockingMode blockingMode(@Value("${app.blocking.mode:platform}") String value) {
+        BlockingMode mode = BlockingMode.from(value);
+        if (!mode.isSupported()) {
+            logger.warn("Blocking mode {} requires Java 21 (running {}), falling back to {}",
+                    mode, Runtime.version(), BlockingMode.PLATFORM);
+            return BlockingMode.PLATFORM;
+        }
+        logger.info("Blocking work runs on {} threads", mode.name().toLowerCase());
+        return mode;
+    }
+
+    /**
+     * Scheduler para envolver llamadas bloqueantes en flujos reactivos ({@code subscribeOn(blockingScheduler)})
+     * sin ocupar los event loops de Netty/Reactor: boundedElastic con hilos de plataforma, o un hilo
+     * virtual por tarea. Lo usan las rondas de {@code OrderJournalReplayer} y, en modo virtual, los envíos SMPP
+     * de {@code SmsDispatcher}.
+     */
+    @Bean(destroyMethod = "dispose")
+    public Scheduler blockingScheduler(BlockingMode blockingMode) {
+        return blockingMode == BlockingMode.VIRTUAL
+                ? Schedulers.fromExecutorService(BlockingMode.newVirtualThreadPerTaskExecutor("blocking-"), "blocking")
+                : Schedulers.boundedElastic();
+    }
+}
@@ -0,0 +1,49 @@
+package com.hacom.order_process_system.config;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Dónde se ejecuta el trabajo bloqueante (envío SMPP y futuros adaptadores síncronos), según
+ * {@code app.blocking.mode}: en un pool de hilos de plataforma de tamaño fijo o en un hilo virtual por tarea.
+ * <p>
+ * Los hilos virtuales necesitan Java 21. El proyecto compila con 17, así que el executor virtual se
+ * obtiene por reflexión; en un JVM anterior {@link #isSupported()} devuelve false.
+ */
+public enum BlockingMode {
+
+    PLATFORM,
+    VIRTUAL;
+
+    public static BlockingMode from(String value) {
+        for (BlockingMode mode : values()) {
+            if (mode.name().equalsIgnoreCase(value)) {
+                return mode;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported blocking mode: " + value);
+    }
+
+    public boolean isSupported() {
+        return this == PLATFORM || Runtime.version().feature() >= 21;
+    }
+
+    /**
+     * Executor que arranca un hilo virtual por tarea, con nombres {@code <prefix>0}, {@code <prefix>1}...
+     * Sólo para {@link #VIRTUAL} en Java 21 o superior.
+     */
+    public static ExecutorService newVirtualThreadPerTaskExecutor(String prefix) {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, prefix, 0L);
+            ThreadFactory factory = (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+            Method perTask = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+            return (ExecutorService) perTask.invoke(null, factory);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Virtual threads require Java 21, running on " + Runtime.version(), e);
+        }
+    }
+}
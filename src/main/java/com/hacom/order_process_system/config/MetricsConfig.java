@@ -1,7 +1,9 @@
 package com.hacom.order_process_system.config;
 
 import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
 import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -15,4 +17,20 @@ public class MetricsConfig {
                 .description("Number of orders successfully processed")
                 .register(meterRegistry);
     }
+
+    @Bean
+    public DistributionSummary orderBatchSizeSummary(MeterRegistry meterRegistry) {
+        return DistributionSummary.builder("orders.batch.size")
+                .description("Number of orders per bulk insert")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    @Bean
+    public Timer orderBatchFlushTimer(MeterRegistry meterRegistry) {
+        return Timer.builder("orders.batch.flush")
+                .description("Latency of a bulk insert of orders until Mongo acknowledges it")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
 }
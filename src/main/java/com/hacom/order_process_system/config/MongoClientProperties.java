@@ -0,0 +1,117 @@
+package com.hacom.order_process_system.config;
+
+import com.mongodb.MongoCompressor;
+import com.mongodb.ReadConcern;
+import com.mongodb.ReadConcernLevel;
+import com.mongodb.ReadPreference;
+import com.mongodb.WriteConcern;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ajustes del MongoClient que {@code MongoConfig} aplica sobre la URI: pool de conexiones, compresión,
+ * read concern/preference por defecto y perfiles de write concern por tipo de escritura.
+ * <p>
+ * Los ajustes del cliente son null mientras no se configuren, y entonces vale lo que diga
+ * {@code app.mongodb.uri} ({@code maxPoolSize}, {@code compressors}, {@code readConcernLevel}, {@code w}...) o,
+ * si tampoco lo fija, el valor por defecto del driver. Definidos en los dos sitios, gana el de aquí.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.mongodb")
+public class MongoClientProperties {
+
+    private Pool pool = new Pool();
+    /** Compresores en orden de preferencia: zstd, snappy, zlib. Vacío = sin compresión. */
+    private List<String> compressors;
+    /** primary | primaryPreferred | secondary | secondaryPreferred | nearest */
+    private String readPreference;
+    /** local | majority | linearizable | snapshot | available */
+    private String readConcern;
+    /** Write concern por defecto del cliente (escrituras sin perfil). */
+    private WriteConcernSettings writeConcern;
+    private WriteConcerns writeConcerns = new WriteConcerns();
+
+    @Data
+    public static class Pool {
+        /**
+         * Espera por una conexión si ni {@code max-wait-ms} ni {@code waitQueueTimeoutMS} la fijan: la del
+         * driver son 2 minutos, demasiado para que el journal detecte una caída.
+         */
+        public static final long DEFAULT_MAX_WAIT_MS = 2000;
+
+        private Integer maxSize;
+        private Integer minSize;
+        /** Espera máxima por una conexión libre antes de fallar con MongoTimeoutException. */
+        private Long maxWaitMs;
+        /** Conexiones que pueden estar estableciéndose a la vez. */
+        private Integer maxConnecting;
+        /** 0 = sin límite. */
+        private Long maxIdleMs;
+    }
+
+    /** Perfiles con nombre: cada tipo de escritura elige su compromiso entre latencia y durabilidad. */
+    @Data
+    public static class WriteConcerns {
+        /** Inserción de órdenes: un nodo confirma, el ack al cliente no espera a la replicación. */
+        private WriteConcernSettings ingest = new WriteConcernSettings("1", null, 0);
+        /** Cambios de estado: mayoría, para que un failover no los pierda. */
+        private WriteConcernSettings statusUpdate = new WriteConcernSettings("majority", null, 5000);
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class WriteConcernSettings {
+        /** Número de nodos, {@code majority} o el nombre de un tag set. */
+        private String w = "1";
+        /** null = lo que decida el servidor. */
+        private Boolean journal;
+        /** 0 = sin límite. */
+        private long wtimeoutMs;
+
+        public WriteConcern toWriteConcern() {
+            WriteConcern writeConcern;
+            if ("majority".equalsIgnoreCase(w)) {
+                writeConcern = WriteConcern.MAJORITY;
+            } else if (w.chars().allMatch(Character::isDigit)) {
+                writeConcern = new WriteConcern(Integer.parseInt(w));
+            } else {
+                writeConcern = new WriteConcern(w);
+            }
+            if (journal != null) {
+                writeConcern = writeConcern.withJournal(journal);
+            }
+            if (wtimeoutMs > 0) {
+                writeConcern = writeConcern.withWTimeout(wtimeoutMs, TimeUnit.MILLISECONDS);
+            }
+            return writeConcern;
+        }
+    }
+
+    public List<MongoCompressor> mongoCompressors() {
+        return compressors.stream()
+                .map(name -> switch (name.trim().toLowerCase(Locale.ROOT)) {
+                    case "zstd" -> MongoCompressor.createZstdCompressor();
+                    case "snappy" -> MongoCompressor.createSnappyCompressor();
+                    case "zlib" -> MongoCompressor.createZlibCompressor();
+                    default -> throw new IllegalArgumentException("Unsupported Mongo compressor: " + name);
+                })
+                .toList();
+    }
+
+    public ReadPreference mongoReadPreference() {
+        return ReadPreference.valueOf(readPreference);
+    }
+
+    public ReadConcern mongoReadConcern() {
+        return new ReadConcern(ReadConcernLevel.fromString(readConcern));
+    }
+}
@@ -1,9 +1,19 @@
 package com.hacom.order_process_system.config;
 
+import com.hacom.order_process_system.model.request.OrderRequest;
+import com.hacom.order_process_system.repository.codec.OrderCodecs;
+import com.hacom.order_process_system.util.CodeToOrderStatusConverter;
 import com.hacom.order_process_system.util.DateToOffsetDateTimeConverter;
 import com.hacom.order_process_system.util.OffsetDateTimeToDateConverter;
+import com.hacom.order_process_system.util.OrderStatusToCodeConverter;
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.WriteConcern;
+import com.mongodb.connection.ConnectionPoolSettings;
 import com.mongodb.reactivestreams.client.MongoClient;
 import com.mongodb.reactivestreams.client.MongoClients;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.mongodb.MongoMetricsCommandListener;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -12,9 +22,11 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.core.convert.converter.Converter;
 import org.springframework.data.mongodb.config.AbstractReactiveMongoConfiguration;
 import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.WriteConcernResolver;
 import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
 
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 @Configuration
 public class MongoConfig extends AbstractReactiveMongoConfiguration {
@@ -27,6 +39,14 @@ public class MongoConfig extends AbstractReactiveMongoConfiguration {
     @Value("${app.mongodb.uri}")
     private String mongodbUri;
 
+    private final MongoClientProperties clientProperties;
+    private final MeterRegistry meterRegistry;
+
+    public MongoConfig(MongoClientProperties clientProperties, MeterRegistry meterRegistry) {
+        this.clientProperties = clientProperties;
+        this.meterRegistry = meterRegistry;
+    }
+
     @Override
     protected String getDatabaseName() {
         logger.info("Configuring MongoDB database: {}", mongodbDatabase);
@@ -37,20 +57,98 @@ public class MongoConfig extends AbstractReactiveMongoConfiguration {
     @Bean
     public MongoClient reactiveMongoClient() {
         logger.info("Creating MongoDB client with URI: {}", mongodbUri);
-        return MongoClients.create(mongodbUri);
+        MongoClientSettings settings = clientSettings(new ConnectionString(mongodbUri), clientProperties)
+                // OrderRequestCodec y OffsetDateTimeCodec para quien use el driver directamente (OrderCollection)
+                .codecRegistry(OrderCodecs.withOrderCodecs(MongoClientSettings.getDefaultCodecRegistry()))
+                .applyToConnectionPoolSettings(builder -> builder
+                        .addConnectionPoolListener(new MongoPoolMetrics(meterRegistry)))
+                .addCommandListener(new MongoMetricsCommandListener(meterRegistry))
+                .build();
+        ConnectionPoolSettings pool = settings.getConnectionPoolSettings();
+        logger.info("MongoDB pool {}..{} connections (max wait {} ms), compressors {}, read preference {}, "
+                        + "read concern {}, write concern {}",
+                pool.getMinSize(), pool.getMaxSize(), pool.getMaxWaitTime(TimeUnit.MILLISECONDS),
+                settings.getCompressorList(), settings.getReadPreference(), settings.getReadConcern().asDocument(),
+                settings.getWriteConcern().asDocument());
+        return MongoClients.create(settings);
+    }
+
+    /**
+     * La URI y encima sólo los ajustes de {@code app.mongodb} definidos, para no pisar los que una instalación
+     * ya fija en la URI.
+     */
+    static MongoClientSettings.Builder clientSettings(ConnectionString uri, MongoClientProperties properties) {
+        MongoClientProperties.Pool pool = properties.getPool();
+        MongoClientSettings.Builder builder = MongoClientSettings.builder()
+                .applyConnectionString(uri)
+                .applyToConnectionPoolSettings(poolBuilder -> {
+                    if (pool.getMaxSize() != null) {
+                        poolBuilder.maxSize(pool.getMaxSize());
+                    }
+                    if (pool.getMinSize() != null) {
+                        poolBuilder.minSize(pool.getMinSize());
+                    }
+                    if (pool.getMaxWaitMs() != null) {
+                        poolBuilder.maxWaitTime(pool.getMaxWaitMs(), TimeUnit.MILLISECONDS);
+                    } else if (uri.getMaxWaitTime() == null) {
+                        poolBuilder.maxWaitTime(MongoClientProperties.Pool.DEFAULT_MAX_WAIT_MS, TimeUnit.MILLISECONDS);
+                    }
+                    if (pool.getMaxConnecting() != null) {
+                        poolBuilder.maxConnecting(pool.getMaxConnecting());
+                    }
+                    if (pool.getMaxIdleMs() != null) {
+                        poolBuilder.maxConnectionIdleTime(pool.getMaxIdleMs(), TimeUnit.MILLISECONDS);
+                    }
+                });
+        if (properties.getCompressors() != null) {
+            builder.compressorList(properties.mongoCompressors());
+        }
+        if (properties.getReadPreference() != null) {
+            builder.readPreference(properties.mongoReadPreference());
+        }
+        if (properties.getReadConcern() != null) {
+            builder.readConcern(properties.mongoReadConcern());
+        }
+        if (properties.getWriteConcern() != null) {
+            builder.writeConcern(properties.getWriteConcern().toWriteConcern());
+        }
+        return builder;
     }
 
     @Bean
     public ReactiveMongoTemplate reactiveMongoTemplate() {
         logger.info("Creating ReactiveMongoTemplate");
-        return new ReactiveMongoTemplate(reactiveMongoClient(), getDatabaseName());
+        ReactiveMongoTemplate template = new ReactiveMongoTemplate(reactiveMongoClient(), getDatabaseName());
+        template.setWriteConcernResolver(writeConcernResolver(clientProperties.getWriteConcerns()));
+        return template;
+    }
+
+    /**
+     * Escrituras de órdenes desde el template: altas con el perfil {@code ingest}, actualizaciones con
+     * {@code status-update}. El resto (contadores, claves de idempotencia) usa el write concern del cliente.
+     */
+    static WriteConcernResolver writeConcernResolver(MongoClientProperties.WriteConcerns profiles) {
+        WriteConcern ingest = profiles.getIngest().toWriteConcern();
+        WriteConcern statusUpdate = profiles.getStatusUpdate().toWriteConcern();
+        return action -> {
+            if (!OrderRequest.class.equals(action.getEntityType())) {
+                return action.getDefaultWriteConcern();
+            }
+            return switch (action.getMongoActionOperation()) {
+                case INSERT, INSERT_LIST, SAVE -> ingest;
+                case UPDATE, REPLACE, BULK -> statusUpdate;
+                default -> action.getDefaultWriteConcern();
+            };
+        };
     }
 
     @Bean
     public MongoCustomConversions customConversions() {
         List<Converter<?, ?>> converters = List.of(
                 new DateToOffsetDateTimeConverter(),
-                new OffsetDateTimeToDateConverter()
+                new OffsetDateTimeToDateConverter(),
+                new OrderStatusToCodeConverter(),
+                new CodeToOrderStatusConverter()
         );
         return new MongoCustomConversions(converters);
     }
@@ -0,0 +1,96 @@
+package com.hacom.order_process_system.config;
+
+import com.mongodb.event.ConnectionCheckOutFailedEvent;
+import com.mongodb.event.ConnectionCheckOutStartedEvent;
+import com.mongodb.event.ConnectionCheckedInEvent;
+import com.mongodb.event.ConnectionCheckedOutEvent;
+import com.mongodb.event.ConnectionClosedEvent;
+import com.mongodb.event.ConnectionCreatedEvent;
+import com.mongodb.event.ConnectionPoolClosedEvent;
+import com.mongodb.event.ConnectionPoolCreatedEvent;
+import com.mongodb.event.ConnectionPoolListener;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.mongodb.MongoMetricsConnectionPoolListener;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Métricas del pool de conexiones de Mongo. Delega en el listener de Micrometer los gauges
+ * {@code mongodb.driver.pool.size}, {@code .checkedout} y {@code .waitqueuesize}, y añade lo que éste no
+ * publica: cuánto espera una operación por una conexión libre y el ritmo al que se crean y cierran
+ * conexiones (un pool que crea conexiones sin parar suele estar mal dimensionado).
+ */
+public class MongoPoolMetrics implements ConnectionPoolListener {
+
+    private final MongoMetricsConnectionPoolListener delegate;
+    private final Timer checkoutWait;
+    private final Timer checkoutFailed;
+    private final Counter connectionsCreated;
+    private final Counter connectionsClosed;
+
+    public MongoPoolMetrics(MeterRegistry meterRegistry) {
+        this.delegate = new MongoMetricsConnectionPoolListener(meterRegistry);
+        this.checkoutWait = Timer.builder("mongodb.driver.pool.checkout.wait")
+                .description("Time an operation waited for a pooled connection")
+                .tag("result", "success")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.checkoutFailed = Timer.builder("mongodb.driver.pool.checkout.wait")
+                .description("Time an operation waited for a pooled connection")
+                .tag("result", "failed")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.connectionsCreated = Counter.builder("mongodb.driver.pool.connections.created")
+                .description("Number of connections opened by the pool")
+                .register(meterRegistry);
+        this.connectionsClosed = Counter.builder("mongodb.driver.pool.connections.closed")
+                .description("Number of connections closed by the pool")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void connectionPoolCreated(ConnectionPoolCreatedEvent event) {
+        delegate.connectionPoolCreated(event);
+    }
+
+    @Override
+    public void connectionPoolClosed(ConnectionPoolClosedEvent event) {
+        delegate.connectionPoolClosed(event);
+    }
+
+    @Override
+    public void connectionCheckOutStarted(ConnectionCheckOutStartedEvent event) {
+        delegate.connectionCheckOutStarted(event);
+    }
+
+    @Override
+    public void connectionCheckedOut(ConnectionCheckedOutEvent event) {
+        delegate.connectionCheckedOut(event);
+        checkoutWait.record(event.getElapsedTime(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void connectionCheckOutFailed(ConnectionCheckOutFailedEvent event) {
+        delegate.connectionCheckOutFailed(event);
+        checkoutFailed.record(event.getElapsedTime(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void connectionCheckedIn(ConnectionCheckedInEvent event) {
+        delegate.connectionCheckedIn(event);
+    }
+
+    @Override
+    public void connectionCreated(ConnectionCreatedEvent event) {
+        delegate.connectionCreated(event);
+        connectionsCreated.increment();
+    }
+
+    @Override
+    public void connectionClosed(ConnectionClosedEvent event) {
+        delegate.connectionClosed(event);
+        connectionsClosed.increment();
+    }
+}
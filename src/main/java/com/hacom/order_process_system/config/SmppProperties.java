@@ -0,0 +1,39 @@
+package com.hacom.order_process_system.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.smpp")
+public class SmppProperties {
+
+    public enum Selection { ROUND_ROBIN, LEAST_LOADED }
+
+    private String host = "localhost";
+    private int port = 2775;
+    private String systemId = "test";
+    private String password = "test";
+    private String sourceAddress = "12345";
+
+    /** Número de sesiones TRANSCEIVER enlazadas en paralelo. */
+    private int sessions = 2;
+    /** submit_sm en vuelo permitidos por sesión. */
+    private int windowSize = 10;
+    private Selection selection = Selection.LEAST_LOADED;
+
+    private long bindTimeoutMs = 5000;
+    private long enquireLinkIntervalMs = 30000;
+    private long rebindInitialBackoffMs = 1000;
+    private long rebindMaxBackoffMs = 60000;
+
+    /** submit_sm por segundo permitidos a la cuenta, repartidos entre todas sus sesiones; 0 = sin límite. */
+    private double tps = 0;
+    /** submit_sm que pueden salir seguidos tras un rato sin enviar. */
+    private int burst = 1;
+    /** Reintentos de un submit_sm rechazado con ESME_RTHROTTLED antes de darlo por fallido. */
+    private int throttleMaxRetries = 5;
+    private long throttleInitialBackoffMs = 200;
+    private long throttleMaxBackoffMs = 5000;
+}
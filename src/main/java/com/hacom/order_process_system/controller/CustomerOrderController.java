@@ -0,0 +1,59 @@
+package com.hacom.order_process_system.controller;
+
+import com.hacom.order_process_system.model.response.ResponseGeneralDto;
+import com.hacom.order_process_system.service.impl.OrderServiceImpl;
+import com.hacom.order_process_system.util.Constants;
+import com.hacom.order_process_system.util.ContinuationToken;
+import com.hacom.order_process_system.util.OderAdapter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+@RestController
+@RequestMapping("/api/customers")
+public class CustomerOrderController {
+
+    private static final Logger logger = LoggerFactory.getLogger(CustomerOrderController.class);
+
+    @Autowired
+    private OrderServiceImpl orderServiceImpl;
+
+    /**
+     * Órdenes del cliente de la más reciente a la más antigua, paginadas por keyset: la respuesta trae
+     * {@code nextCursor}, que se pasa como {@code after} para pedir la página siguiente.
+     */
+    @GetMapping("/{customerId}/orders")
+    public Mono<ResponseEntity<ResponseGeneralDto>> findCustomerOrders(
+        @PathVariable String customerId,
+        @RequestParam(required = false) String after,
+        @RequestParam(defaultValue = "50") int limit) {
+
+        logger.debug("Listing orders of customer {} (after={}, limit={})", customerId, after, limit);
+
+        ContinuationToken token = ContinuationToken.decode(after);
+        return orderServiceImpl.findCustomerOrders(customerId, token, limit)
+            .map(page -> ResponseEntity.ok(OderAdapter.responseGeneral(
+                Constants.HTTP_200,
+                HttpStatus.OK.value(),
+                "Customer orders retrieved successfully",
+                page)))
+            .onErrorResume(error -> {
+                logger.error("Error listing orders of customer {}: {}", customerId, error.getMessage(), error);
+
+                return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(OderAdapter.responseGeneral(
+                        Constants.HTTP_500,
+                        HttpStatus.INTERNAL_SERVER_ERROR.value(),
+                        "Error retrieving customer orders",
+                        error.getMessage())));
+            });
+    }
+}
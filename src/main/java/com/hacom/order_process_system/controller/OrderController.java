@@ -1,12 +1,17 @@
 package com.hacom.order_process_system.controller;
 
 import com.hacom.order_process_system.exception.OrderException;
+import com.hacom.order_process_system.model.request.OrderStatusUpdateRequest;
 import com.hacom.order_process_system.model.response.OrderCountResponse;
+import com.hacom.order_process_system.model.response.OrderExportResponse;
 import com.hacom.order_process_system.model.response.OrderResponse;
+import com.hacom.order_process_system.model.response.OrderStatusUpdateResponse;
 import com.hacom.order_process_system.model.response.ResponseGeneralDto;
 import com.hacom.order_process_system.repository.OrderRepository;
+import com.hacom.order_process_system.repository.OrderStatusStore;
 import com.hacom.order_process_system.service.impl.OrderServiceImpl;
 import com.hacom.order_process_system.util.Constants;
+import com.hacom.order_process_system.util.ContinuationToken;
 import com.hacom.order_process_system.util.OderAdapter;
 import java.time.LocalDate;
 import java.time.ZoneOffset;
@@ -16,12 +21,16 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.io.Serializable;
 import java.time.OffsetDateTime;
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -50,7 +59,7 @@ public class OrderController {
 
                     OrderResponse orderResponse = new OrderResponse();
                     orderResponse.setOrderId(order.getOrderId());
-                    orderResponse.setStatus(order.getStatus());
+                    orderResponse.setStatus(order.getStatus() != null ? order.getStatus().name() : null);
                     orderResponse.setTimestamp(order.getTs());
 
                     ResponseGeneralDto response = OderAdapter.responseGeneral(
@@ -90,6 +99,98 @@ public class OrderController {
                 });
     }
 
+    /**
+     * Cambio de estado condicional: 200 si la orden queda en {@code status}, 409 si estaba en otro estado
+     * (el actual va en la respuesta), 404 si no existe y 400 si el estado o la transición no son válidos.
+     */
+    @PutMapping("/{orderId}/status")
+    public Mono<ResponseEntity<ResponseGeneralDto>> updateOrderStatus(@PathVariable String orderId,
+                                                                      @RequestBody OrderStatusUpdateRequest request) {
+        OrderStatusStore.Change change;
+        try {
+            change = OderAdapter.toStatusChange(orderId, request.getStatus(), request.getExpectedStatus());
+        } catch (IllegalArgumentException e) {
+            return Mono.just(ResponseEntity.badRequest()
+                    .body(OderAdapter.responseGeneral(
+                            Constants.HTTP_400,
+                            HttpStatus.BAD_REQUEST.value(),
+                            Constants.messageProcessBadRequest,
+                            e.getMessage())));
+        }
+
+        return orderServiceImpl.updateOrderStatus(change)
+                .map(result -> {
+                    OrderStatusUpdateResponse data = OderAdapter.toOrderStatusUpdateResponse(result);
+                    return switch (result.outcome()) {
+                        case APPLIED -> ResponseEntity.ok(OderAdapter.responseGeneral(
+                                Constants.HTTP_200, HttpStatus.OK.value(), "Order status updated successfully", data));
+                        case CONFLICT -> ResponseEntity.status(HttpStatus.CONFLICT).body(OderAdapter.responseGeneral(
+                                Constants.HTTP_409, HttpStatus.CONFLICT.value(), Constants.messageProcessConflict, data));
+                        case NOT_FOUND -> ResponseEntity.status(HttpStatus.NOT_FOUND).body(OderAdapter.responseGeneral(
+                                Constants.HTTP_404, HttpStatus.NOT_FOUND.value(), Constants.messageProcessNotFound, data));
+                        case INVALID -> ResponseEntity.badRequest().body(OderAdapter.responseGeneral(
+                                Constants.HTTP_400, HttpStatus.BAD_REQUEST.value(), "Invalid status transition", data));
+                    };
+                })
+                .onErrorResume(error -> {
+                    logger.error("Error updating status of order {}: {}", orderId, error.getMessage(), error);
+
+                    return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                            .body(OderAdapter.responseGeneral(
+                                    Constants.HTTP_500,
+                                    HttpStatus.INTERNAL_SERVER_ERROR.value(),
+                                    "Error updating order status",
+                                    error.getMessage())));
+                });
+    }
+
+    /**
+     * Lote de cambios de estado aplicado en un solo bulkWrite. Responde 200 con el resultado de cada cambio,
+     * en el mismo orden; 400 si algún estado no existe o el lote supera {@code app.orders.status.max-batch-size}.
+     */
+    @PostMapping("/status")
+    public Mono<ResponseEntity<ResponseGeneralDto>> updateOrderStatuses(@RequestBody List<OrderStatusUpdateRequest> requests) {
+        List<OrderStatusStore.Change> changes;
+        try {
+            changes = requests.stream()
+                    .map(request -> OderAdapter.toStatusChange(request.getOrderId(), request.getStatus(),
+                            request.getExpectedStatus()))
+                    .toList();
+        } catch (IllegalArgumentException e) {
+            return Mono.just(ResponseEntity.badRequest()
+                    .body(OderAdapter.responseGeneral(
+                            Constants.HTTP_400,
+                            HttpStatus.BAD_REQUEST.value(),
+                            Constants.messageProcessBadRequest,
+                            e.getMessage())));
+        }
+
+        return orderServiceImpl.updateOrderStatuses(changes)
+                .map(results -> ResponseEntity.ok(OderAdapter.responseGeneral(
+                        Constants.HTTP_200,
+                        HttpStatus.OK.value(),
+                        "Order statuses processed",
+                        results.stream().map(OderAdapter::toOrderStatusUpdateResponse).toList())))
+                .onErrorResume(error -> {
+                    if (error instanceof IllegalArgumentException) {
+                        return Mono.just(ResponseEntity.badRequest()
+                                .body(OderAdapter.responseGeneral(
+                                        Constants.HTTP_400,
+                                        HttpStatus.BAD_REQUEST.value(),
+                                        Constants.messageProcessBadRequest,
+                                        error.getMessage())));
+                    }
+                    logger.error("Error updating the status of {} orders: {}", changes.size(), error.getMessage(), error);
+
+                    return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                            .body(OderAdapter.responseGeneral(
+                                    Constants.HTTP_500,
+                                    HttpStatus.INTERNAL_SERVER_ERROR.value(),
+                                    "Error updating order statuses",
+                                    error.getMessage())));
+                });
+    }
+
     @GetMapping("/count")
     public Mono<ResponseEntity<ResponseGeneralDto>> getOrderCountByDateRange(
         @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
@@ -131,4 +232,96 @@ public class OrderController {
             });
     }
 
-    }
\ No newline at end of file
+    @PostMapping("/counters/rebuild")
+    public Mono<ResponseEntity<ResponseGeneralDto>> rebuildOrderCounters(
+        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+
+        logger.info("Rebuilding order counters between {} and {}", startDate, endDate);
+
+        // Días completos: [startDate 00:00, endDate + 1 00:00)
+        OffsetDateTime startDateTime = startDate.atStartOfDay().atOffset(ZoneOffset.UTC);
+        OffsetDateTime endDateTime = endDate.plusDays(1).atStartOfDay().atOffset(ZoneOffset.UTC);
+
+        return orderServiceImpl.rebuildOrderCounters(startDateTime, endDateTime)
+            .map(result -> ResponseEntity.ok(OderAdapter.responseGeneral(
+                Constants.HTTP_200,
+                HttpStatus.OK.value(),
+                "Order counters rebuilt successfully",
+                result)))
+            .onErrorResume(error -> {
+                logger.error("Error rebuilding order counters: {}", error.getMessage(), error);
+
+                return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(OderAdapter.responseGeneral(
+                        Constants.HTTP_500,
+                        HttpStatus.INTERNAL_SERVER_ERROR.value(),
+                        "Error rebuilding order counters",
+                        error.getMessage())));
+            });
+    }
+
+    @GetMapping("/counters/check")
+    public Mono<ResponseEntity<ResponseGeneralDto>> checkOrderCounters(
+        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+
+        logger.info("Checking order counters between {} and {}", startDate, endDate);
+
+        OffsetDateTime startDateTime = startDate.atStartOfDay().atOffset(ZoneOffset.UTC);
+        OffsetDateTime endDateTime = endDate.plusDays(1).atStartOfDay().atOffset(ZoneOffset.UTC);
+
+        return orderServiceImpl.checkOrderCounters(startDateTime, endDateTime)
+            .map(result -> ResponseEntity.ok(OderAdapter.responseGeneral(
+                Constants.HTTP_200,
+                HttpStatus.OK.value(),
+                result.isConsistent() ? "Order counters are consistent" : "Order counters are out of sync",
+                result)))
+            .onErrorResume(error -> {
+                logger.error("Error checking order counters: {}", error.getMessage(), error);
+
+                return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(OderAdapter.responseGeneral(
+                        Constants.HTTP_500,
+                        HttpStatus.INTERNAL_SERVER_ERROR.value(),
+                        "Error checking order counters",
+                        error.getMessage())));
+            });
+    }
+
+    /**
+     * Exporta las órdenes de [start, end] como NDJSON, una por línea, leyendo de Mongo a medida que el
+     * cliente consume. Cada línea lleva un {@code cursor}; tras un corte se reanuda con {@code after=<cursor>}.
+     */
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<OrderExportResponse> exportOrders(
+        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime start,
+        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime end,
+        @RequestParam(required = false) String after) {
+
+        ContinuationToken token = ContinuationToken.decode(after);
+        return orderServiceImpl.exportOrders(start, end, token)
+            .map(OderAdapter::toOrderExportResponse)
+            .doOnError(error -> logger.error("Error exporting orders between {} and {}: {}",
+                start, end, error.getMessage()));
+    }
+
+    /**
+     * La misma exportación como Server-Sent Events: el id de cada evento es el cursor, así que un
+     * EventSource que se reconecta continúa solo vía {@code Last-Event-ID}.
+     */
+    @GetMapping(value = "/export", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<OrderExportResponse>> exportOrderEvents(
+        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime start,
+        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime end,
+        @RequestParam(required = false) String after,
+        @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+
+        ContinuationToken token = ContinuationToken.decode(lastEventId != null ? lastEventId : after);
+        return orderServiceImpl.exportOrders(start, end, token)
+            .map(OderAdapter::toOrderExportResponse)
+            .map(order -> ServerSentEvent.builder(order).id(order.getCursor()).event("order").build())
+            .doOnError(error -> logger.error("Error exporting orders between {} and {}: {}",
+                start, end, error.getMessage()));
+    }
+}
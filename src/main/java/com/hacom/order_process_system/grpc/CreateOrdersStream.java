@@ -0,0 +1,145 @@
+package com.hacom.order_process_system.grpc;
+
+import com.hacom.grpc.CreateOrderRequest;
+import com.hacom.grpc.CreateOrderResponse;
+import io.grpc.Status;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.function.BiConsumer;
+
+/**
+ * Lado servidor de {@code CreateOrders}: recibe órdenes de un stream bidireccional y devuelve
+ * un ack por orden a medida que se persisten.
+ * <p>
+ * El control de flujo es manual: sólo se piden al cliente tantas órdenes como
+ * {@code maxInFlight} admita, y cada ack escrito libera un hueco. Si el transporte de salida
+ * no está listo ({@code isReady() == false}) el hueco se libera cuando gRPC avisa con onReady,
+ * de modo que un cliente que no lee sus acks deja de poder enviar órdenes.
+ */
+class CreateOrdersStream implements StreamObserver<CreateOrderRequest> {
+
+    private static final Logger logger = LoggerFactory.getLogger(CreateOrdersStream.class);
+
+    private final ServerCallStreamObserver<CreateOrderResponse> responseObserver;
+    private final BiConsumer<CreateOrderRequest, StreamObserver<CreateOrderResponse>> submitter;
+    private final Object lock = new Object();
+
+    private int outstanding;
+    private int deferredRequests;
+    private boolean inputCompleted;
+    private boolean closed;
+
+    CreateOrdersStream(ServerCallStreamObserver<CreateOrderResponse> responseObserver,
+                       int maxInFlight,
+                       BiConsumer<CreateOrderRequest, StreamObserver<CreateOrderResponse>> submitter) {
+        this.responseObserver = responseObserver;
+        this.submitter = submitter;
+
+        responseObserver.disableAutoRequest();
+        responseObserver.setOnReadyHandler(this::onReady);
+        responseObserver.setOnCancelHandler(() -> {
+            synchronized (lock) {
+                closed = true;
+            }
+        });
+        responseObserver.request(maxInFlight);
+    }
+
+    @Override
+    public void onNext(CreateOrderRequest request) {
+        synchronized (lock) {
+            outstanding++;
+        }
+        submitter.accept(request, new OrderAck(request.getOrderId()));
+    }
+
+    @Override
+    public void onError(Throwable t) {
+        logger.warn("CreateOrders stream aborted by client: {}", t.getMessage());
+        synchronized (lock) {
+            closed = true;
+        }
+    }
+
+    @Override
+    public void onCompleted() {
+        synchronized (lock) {
+            inputCompleted = true;
+            completeIfDone();
+        }
+    }
+
+    private void acknowledge(CreateOrderResponse response) {
+        boolean requestMore;
+        synchronized (lock) {
+            outstanding--;
+            if (closed) {
+                return;
+            }
+            responseObserver.onNext(response);
+            requestMore = !inputCompleted && responseObserver.isReady();
+            if (!inputCompleted && !requestMore) {
+                deferredRequests++;
+            }
+            completeIfDone();
+        }
+        if (requestMore) {
+            responseObserver.request(1);
+        }
+    }
+
+    private void onReady() {
+        int requests;
+        synchronized (lock) {
+            requests = deferredRequests;
+            deferredRequests = 0;
+        }
+        if (requests > 0) {
+            responseObserver.request(requests);
+        }
+    }
+
+    private void completeIfDone() {
+        if (inputCompleted && outstanding == 0 && !closed) {
+            closed = true;
+            responseObserver.onCompleted();
+        }
+    }
+
+    /**
+     * Observer por orden que recibe el actor; traduce su respuesta en un ack del stream
+     * y un error en un ack con estado FAILED (REJECTED si no fue admitida o la ingesta aún no está abierta),
+     * sin cerrar el stream completo.
+     */
+    private class OrderAck implements StreamObserver<CreateOrderResponse> {
+        private final String orderId;
+        private CreateOrderResponse response;
+
+        private OrderAck(String orderId) {
+            this.orderId = orderId;
+        }
+
+        @Override
+        public void onNext(CreateOrderResponse value) {
+            this.response = value;
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            Status.Code code = Status.fromThrowable(t).getCode();
+            boolean rejected = code == Status.Code.RESOURCE_EXHAUSTED || code == Status.Code.UNAVAILABLE;
+            acknowledge(CreateOrderResponse.newBuilder()
+                    .setOrderId(orderId)
+                    .setStatus(rejected ? "REJECTED" : "FAILED")
+                    .build());
+        }
+
+        @Override
+        public void onCompleted() {
+            acknowledge(response);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.hacom.order_process_system.grpc;
+
+import com.hacom.grpc.CreateOrderResponse;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.stub.StreamObserver;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Control de admisión de órdenes: limita las órdenes en vuelo (recibidas y aún sin respuesta del actor)
+ * a {@code app.grpc.admission.max-in-flight}. Sin permiso libre la orden se rechaza al momento con
+ * {@code RESOURCE_EXHAUSTED} en lugar de encolarse, así que cuando Mongo se ralentiza la memoria
+ * ocupada por órdenes pendientes queda acotada y el cliente recibe la señal para reintentar.
+ * Con max-in-flight 0 no hay límite.
+ */
+@Component
+public class OrderAdmission {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderAdmission.class);
+
+    private final int maxInFlight;
+    private final Semaphore permits;
+    private final Counter rejectedCounter;
+
+    public OrderAdmission(MeterRegistry meterRegistry,
+                          @Value("${app.grpc.admission.max-in-flight:10000}") int maxInFlight) {
+        this.maxInFlight = maxInFlight;
+        this.permits = maxInFlight > 0 ? new Semaphore(maxInFlight) : null;
+
+        this.rejectedCounter = Counter.builder("orders.admission.rejected")
+                .description("Number of orders rejected with RESOURCE_EXHAUSTED because too many were in flight")
+                .register(meterRegistry);
+        Gauge.builder("orders.admission.inflight", this, OrderAdmission::inFlight)
+                .description("Number of admitted orders waiting for the actor to answer")
+                .register(meterRegistry);
+        logger.info("Order admission {}", maxInFlight > 0 ? "limited to " + maxInFlight + " in flight" : "unlimited");
+    }
+
+    /**
+     * Admite la orden y devuelve el observer que el actor debe usar: libera el permiso al recibir
+     * onCompleted u onError. Si no hay permiso devuelve null y el llamador debe rechazar la orden.
+     */
+    public StreamObserver<CreateOrderResponse> tryAdmit(StreamObserver<CreateOrderResponse> responseObserver) {
+        if (permits == null) {
+            return responseObserver;
+        }
+        if (!permits.tryAcquire()) {
+            rejectedCounter.increment();
+            return null;
+        }
+        return new ReleasingObserver(responseObserver);
+    }
+
+    public int inFlight() {
+        return permits == null ? 0 : maxInFlight - permits.availablePermits();
+    }
+
+    static StatusRuntimeException rejection() {
+        return Status.RESOURCE_EXHAUSTED
+                .withDescription("Too many orders in flight, retry later")
+                .asRuntimeException();
+    }
+
+    private class ReleasingObserver implements StreamObserver<CreateOrderResponse> {
+        private final StreamObserver<CreateOrderResponse> delegate;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private ReleasingObserver(StreamObserver<CreateOrderResponse> delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void onNext(CreateOrderResponse value) {
+            delegate.onNext(value);
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            release();
+            delegate.onError(t);
+        }
+
+        @Override
+        public void onCompleted() {
+            release();
+            delegate.onCompleted();
+        }
+
+        private void release() {
+            if (released.compareAndSet(false, true)) {
+                permits.release();
+            }
+        }
+    }
+}
@@ -5,9 +5,14 @@ import com.hacom.grpc.CreateOrderRequest;
 import com.hacom.grpc.CreateOrderResponse;
 import com.hacom.grpc.OrderServiceGrpc;
 import com.hacom.order_process_system.actor.OrderProcessingActor;
+import com.hacom.order_process_system.metrics.OrderTrace;
+import com.hacom.order_process_system.repository.OrderIndexInitializer;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
 import net.devh.boot.grpc.server.service.GrpcService;
 import akka.actor.ActorRef;
 
+import io.grpc.stub.ServerCallStreamObserver;
 import io.grpc.stub.StreamObserver;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.MeterRegistry;
@@ -16,6 +21,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 
 @GrpcService
 public class OrderGrpcService extends OrderServiceGrpc.OrderServiceImplBase {
@@ -23,16 +29,25 @@ public class OrderGrpcService extends OrderServiceGrpc.OrderServiceImplBase {
     private static final Logger logger = LoggerFactory.getLogger(OrderGrpcService.class);
 
     private final ActorRef orderProcessingActor;
+    private final OrderAdmission orderAdmission;
+    private final OrderIndexInitializer orderIndexInitializer;
     private final Counter orderCounter;
     private final Counter orderProcessedCounter;
+    private final int streamMaxInFlight;
 
     @Autowired
     public OrderGrpcService(ActorRef orderProcessingActor,
+                            OrderAdmission orderAdmission,
+                            OrderIndexInitializer orderIndexInitializer,
                             MeterRegistry meterRegistry,
                             @Qualifier("orderProcessedCounter")
-                                Counter orderProcessedCounter) {
+                                Counter orderProcessedCounter,
+                            @Value("${app.grpc.stream.max-in-flight:256}") int streamMaxInFlight) {
         this.orderProcessingActor = orderProcessingActor;
+        this.orderAdmission = orderAdmission;
+        this.orderIndexInitializer = orderIndexInitializer;
         this.orderProcessedCounter = orderProcessedCounter;
+        this.streamMaxInFlight = streamMaxInFlight;
 
         this.orderCounter = Counter.builder("orders.created")
                 .description("Number of orders created")
@@ -41,17 +56,62 @@ public class OrderGrpcService extends OrderServiceGrpc.OrderServiceImplBase {
 
     @Override
     public void createOrder(CreateOrderRequest request, StreamObserver<CreateOrderResponse> responseObserver) {
-        logger.info("Received gRPC request to create order: {}", request.getOrderId());
+        OrderTrace trace = OrderTrace.start();
+        if (logger.isDebugEnabled()) {
+            logger.debug("Received gRPC request to create order: {}", request.getOrderId());
+        }
+
+        if (!orderIndexInitializer.isUniqueIndexReady()) {
+            responseObserver.onError(notReady());
+            return;
+        }
+
+        // Sin hueco para más órdenes en vuelo se rechaza en vez de encolar
+        StreamObserver<CreateOrderResponse> admittedObserver = orderAdmission.tryAdmit(responseObserver);
+        if (admittedObserver == null) {
+            responseObserver.onError(OrderAdmission.rejection());
+            return;
+        }
 
         // Incrementar contador de Prometheus
         orderCounter.increment();
 
         // Enviar mensaje al actor para procesamiento
         OrderProcessingActor.ProcessOrderMessage message =
-                new OrderProcessingActor.ProcessOrderMessage(request, responseObserver);
+                new OrderProcessingActor.ProcessOrderMessage(request, admittedObserver, trace);
 
         orderProcessingActor.tell(message, ActorRef.noSender());
+    }
+
+    @Override
+    public StreamObserver<CreateOrderRequest> createOrders(StreamObserver<CreateOrderResponse> responseObserver) {
+        logger.info("Opening CreateOrders stream");
+
+        return new CreateOrdersStream((ServerCallStreamObserver<CreateOrderResponse>) responseObserver,
+                streamMaxInFlight,
+                (request, orderObserver) -> {
+                    OrderTrace trace = OrderTrace.start();
+                    if (!orderIndexInitializer.isUniqueIndexReady()) {
+                        orderObserver.onError(notReady());
+                        return;
+                    }
+                    StreamObserver<CreateOrderResponse> admittedObserver = orderAdmission.tryAdmit(orderObserver);
+                    if (admittedObserver == null) {
+                        orderObserver.onError(OrderAdmission.rejection());
+                        return;
+                    }
+                    orderCounter.increment();
+                    orderProcessingActor.tell(new OrderProcessingActor.ProcessOrderMessage(request, admittedObserver, trace,
+                                    OrderProcessingActor.ProcessOrderMessage.STREAM_PRIORITY),
+                            ActorRef.noSender());
+                });
+    }
 
-        logger.info("Order processing message sent to actor for order: {}", request.getOrderId());
+    /** Sin el índice único un reintento del cliente podría duplicar la orden: se rechaza hasta tenerlo. */
+    private StatusRuntimeException notReady() {
+        return Status.UNAVAILABLE
+                .withDescription("Order ingestion not ready: unique orderId index is "
+                        + orderIndexInitializer.getUniqueIndexState().name().toLowerCase())
+                .asRuntimeException();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,85 @@
+package com.hacom.order_process_system.grpc;
+
+import com.hacom.grpc.OrderStatusServiceGrpc;
+import com.hacom.grpc.UpdateOrderStatusRequest;
+import com.hacom.grpc.UpdateOrderStatusResponse;
+import com.hacom.grpc.UpdateOrderStatusesRequest;
+import com.hacom.grpc.UpdateOrderStatusesResponse;
+import com.hacom.order_process_system.repository.OrderStatusStore;
+import com.hacom.order_process_system.service.OrderService;
+import com.hacom.order_process_system.util.OderAdapter;
+import io.grpc.Status;
+import io.grpc.stub.StreamObserver;
+import net.devh.boot.grpc.server.service.GrpcService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Cambios de estado de órdenes por gRPC. Un estado desconocido es INVALID_ARGUMENT; el resultado de cada
+ * cambio (aplicado, conflicto, orden inexistente o transición inválida) va en la respuesta.
+ */
+@GrpcService
+public class OrderStatusGrpcService extends OrderStatusServiceGrpc.OrderStatusServiceImplBase {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderStatusGrpcService.class);
+
+    private final OrderService orderService;
+
+    public OrderStatusGrpcService(OrderService orderService) {
+        this.orderService = orderService;
+    }
+
+    @Override
+    public void updateOrderStatus(UpdateOrderStatusRequest request,
+                                  StreamObserver<UpdateOrderStatusResponse> responseObserver) {
+        OrderStatusStore.Change change;
+        try {
+            change = toChange(request);
+        } catch (IllegalArgumentException e) {
+            responseObserver.onError(Status.INVALID_ARGUMENT.withDescription(e.getMessage()).asRuntimeException());
+            return;
+        }
+        orderService.updateOrderStatus(change).subscribe(
+                result -> {
+                    responseObserver.onNext(OderAdapter.toUpdateOrderStatusResponse(result));
+                    responseObserver.onCompleted();
+                },
+                error -> {
+                    logger.error("Error updating status of order {}: {}", change.orderId(), error.getMessage());
+                    responseObserver.onError(Status.INTERNAL.withDescription(error.getMessage()).asRuntimeException());
+                });
+    }
+
+    @Override
+    public void updateOrderStatuses(UpdateOrderStatusesRequest request,
+                                    StreamObserver<UpdateOrderStatusesResponse> responseObserver) {
+        List<OrderStatusStore.Change> changes = new ArrayList<>(request.getUpdatesCount());
+        try {
+            for (UpdateOrderStatusRequest update : request.getUpdatesList()) {
+                changes.add(toChange(update));
+            }
+        } catch (IllegalArgumentException e) {
+            responseObserver.onError(Status.INVALID_ARGUMENT.withDescription(e.getMessage()).asRuntimeException());
+            return;
+        }
+        orderService.updateOrderStatuses(changes).subscribe(
+                results -> {
+                    UpdateOrderStatusesResponse.Builder response = UpdateOrderStatusesResponse.newBuilder();
+                    results.forEach(result -> response.addResults(OderAdapter.toUpdateOrderStatusResponse(result)));
+                    responseObserver.onNext(response.build());
+                    responseObserver.onCompleted();
+                },
+                error -> {
+                    logger.error("Error updating status of {} orders: {}", changes.size(), error.getMessage());
+                    Status status = error instanceof IllegalArgumentException ? Status.INVALID_ARGUMENT : Status.INTERNAL;
+                    responseObserver.onError(status.withDescription(error.getMessage()).asRuntimeException());
+                });
+    }
+
+    private static OrderStatusStore.Change toChange(UpdateOrderStatusRequest request) {
+        return OderAdapter.toStatusChange(request.getOrderId(), request.getStatus(), request.getExpectedStatus());
+    }
+}
@@ -0,0 +1,112 @@
+package com.hacom.order_process_system.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Timers de las etapas del pipeline de órdenes, alimentados por las marcas de {@link OrderTrace}:
+ * <ul>
+ *     <li>{@code orders.queue.wait}: recepción gRPC → el actor la saca del mailbox.</li>
+ *     <li>{@code orders.stage.latency{stage=save}}: salida del mailbox → Mongo confirma el lote.</li>
+ *     <li>{@code orders.stage.latency{stage=ack}}: confirmación de Mongo → respuesta gRPC enviada.</li>
+ *     <li>{@code orders.stage.latency{stage=sms.queue}}: SMS encolado → un hilo empieza a entregarlo.</li>
+ *     <li>{@code orders.stage.latency{stage=sms.submit}}: entrega del {@code submit_sm} a la sesión SMPP.</li>
+ *     <li>{@code orders.latency{until=ack|sms}}: de la recepción a la respuesta y a la entrega del SMS.</li>
+ * </ul>
+ * Todos se registran al arrancar con sus tags, así que registrar una etapa no crea tags ni busca en el
+ * registro. Publican histograma de percentiles y, además, los buckets de {@code app.metrics.slo-ms} para
+ * calcular en Prometheus qué fracción de órdenes cumple cada objetivo.
+ * <p>
+ * Con {@code app.metrics.slow-order-ms} mayor que 0, una orden que tarda más en recibir respuesta se
+ * registra en WARN con su desglose por etapa.
+ */
+@Component
+public class OrderStageTimers {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderStageTimers.class);
+
+    private final Timer queueWait;
+    private final Timer save;
+    private final Timer ack;
+    private final Timer smsQueue;
+    private final Timer smsSubmit;
+    private final Timer untilAck;
+    private final Timer untilSms;
+    private final long slowOrderNanos;
+
+    public OrderStageTimers(MeterRegistry meterRegistry,
+                            @Value("${app.metrics.slo-ms:1,5,10,25,50,100,250,500,1000}") long[] sloMs,
+                            @Value("${app.metrics.slow-order-ms:0}") long slowOrderMs) {
+        Duration[] slos = Arrays.stream(sloMs).mapToObj(Duration::ofMillis).toArray(Duration[]::new);
+        this.queueWait = timer("orders.queue.wait", "Time from gRPC receipt until the actor dequeues the order",
+                null, null, slos, meterRegistry);
+        this.save = timer("orders.stage.latency", "Time spent in each stage of the order pipeline",
+                "stage", "save", slos, meterRegistry);
+        this.ack = timer("orders.stage.latency", "Time spent in each stage of the order pipeline",
+                "stage", "ack", slos, meterRegistry);
+        this.smsQueue = timer("orders.stage.latency", "Time spent in each stage of the order pipeline",
+                "stage", "sms.queue", slos, meterRegistry);
+        this.smsSubmit = timer("orders.stage.latency", "Time spent in each stage of the order pipeline",
+                "stage", "sms.submit", slos, meterRegistry);
+        this.untilAck = timer("orders.latency", "Time from gRPC receipt until the order reaches a milestone",
+                "until", "ack", slos, meterRegistry);
+        this.untilSms = timer("orders.latency", "Time from gRPC receipt until the order reaches a milestone",
+                "until", "sms", slos, meterRegistry);
+        this.slowOrderNanos = TimeUnit.MILLISECONDS.toNanos(slowOrderMs);
+    }
+
+    private static Timer timer(String name, String description, String tagKey, String tagValue,
+                               Duration[] slos, MeterRegistry meterRegistry) {
+        Timer.Builder builder = Timer.builder(name)
+                .description(description)
+                .publishPercentileHistogram()
+                .serviceLevelObjectives(slos)
+                .minimumExpectedValue(Duration.ofNanos(100_000))
+                .maximumExpectedValue(Duration.ofSeconds(30));
+        if (tagKey != null) {
+            builder.tag(tagKey, tagValue);
+        }
+        return builder.register(meterRegistry);
+    }
+
+    public void dequeued(OrderTrace trace) {
+        queueWait.record(trace.markDequeued() - trace.getReceivedAt(), TimeUnit.NANOSECONDS);
+    }
+
+    public void saved(OrderTrace trace) {
+        save.record(trace.markSaved() - trace.getDequeuedAt(), TimeUnit.NANOSECONDS);
+    }
+
+    public void acked(String orderId, OrderTrace trace) {
+        long ackedAt = trace.markAcked();
+        ack.record(ackedAt - trace.getSavedAt(), TimeUnit.NANOSECONDS);
+        long total = ackedAt - trace.getReceivedAt();
+        untilAck.record(total, TimeUnit.NANOSECONDS);
+        if (slowOrderNanos > 0 && total > slowOrderNanos) {
+            logger.warn("Slow order {}: acknowledged after {} ms ({})",
+                    orderId, TimeUnit.NANOSECONDS.toMillis(total), trace);
+        }
+    }
+
+    public void smsQueued(OrderTrace trace) {
+        trace.markSmsQueued();
+    }
+
+    public void smsStarted(OrderTrace trace) {
+        smsQueue.record(trace.markSmsStarted() - trace.getSmsQueuedAt(), TimeUnit.NANOSECONDS);
+    }
+
+    public void smsSubmitted(OrderTrace trace) {
+        long submittedAt = trace.markSmsSubmitted();
+        smsSubmit.record(submittedAt - trace.getSmsStartedAt(), TimeUnit.NANOSECONDS);
+        untilSms.record(submittedAt - trace.getReceivedAt(), TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,104 @@
+package com.hacom.order_process_system.metrics;
+
+/**
+ * Marcas de tiempo ({@link System#nanoTime()}) de una orden a su paso por el pipeline: recepción gRPC,
+ * salida del mailbox, confirmación de Mongo, respuesta al cliente, y cola y entrega del SMS. Viaja con la orden
+ * en {@code ProcessOrderMessage} y {@link OrderStageTimers} registra cada etapa al marcarla.
+ * <p>
+ * Cada marca la escribe un único hilo, y el paso entre etapas (tell al actor, callback de Mongo,
+ * executor del SMS) ya publica las anteriores, así que los campos no necesitan sincronización.
+ * Una marca a 0 significa que la orden no llegó a esa etapa.
+ */
+public final class OrderTrace {
+
+    private final long receivedAt;
+    private long dequeuedAt;
+    private long savedAt;
+    private long ackedAt;
+    private long smsQueuedAt;
+    private long smsStartedAt;
+    private long smsSubmittedAt;
+
+    private OrderTrace(long receivedAt) {
+        this.receivedAt = receivedAt;
+    }
+
+    /** Traza de una orden recibida ahora. */
+    public static OrderTrace start() {
+        return new OrderTrace(System.nanoTime());
+    }
+
+    long markDequeued() {
+        return dequeuedAt = System.nanoTime();
+    }
+
+    long markSaved() {
+        return savedAt = System.nanoTime();
+    }
+
+    long markAcked() {
+        return ackedAt = System.nanoTime();
+    }
+
+    long markSmsQueued() {
+        return smsQueuedAt = System.nanoTime();
+    }
+
+    long markSmsStarted() {
+        return smsStartedAt = System.nanoTime();
+    }
+
+    long markSmsSubmitted() {
+        return smsSubmittedAt = System.nanoTime();
+    }
+
+    public long getReceivedAt() {
+        return receivedAt;
+    }
+
+    public long getDequeuedAt() {
+        return dequeuedAt;
+    }
+
+    public long getSavedAt() {
+        return savedAt;
+    }
+
+    public long getAckedAt() {
+        return ackedAt;
+    }
+
+    public long getSmsQueuedAt() {
+        return smsQueuedAt;
+    }
+
+    public long getSmsStartedAt() {
+        return smsStartedAt;
+    }
+
+    public long getSmsSubmittedAt() {
+        return smsSubmittedAt;
+    }
+
+    /** Desglose en microsegundos para los logs, p. ej. {@code queue=85us save=4210us ack=31us}. */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(96);
+        appendStage(sb, "queue", receivedAt, dequeuedAt);
+        appendStage(sb, "save", dequeuedAt, savedAt);
+        appendStage(sb, "ack", savedAt, ackedAt);
+        appendStage(sb, "sms.queue", smsQueuedAt, smsStartedAt);
+        appendStage(sb, "sms.submit", smsStartedAt, smsSubmittedAt);
+        return sb.toString();
+    }
+
+    private static void appendStage(StringBuilder sb, String stage, long from, long to) {
+        if (from == 0 || to == 0) {
+            return;
+        }
+        if (!sb.isEmpty()) {
+            sb.append(' ');
+        }
+        sb.append(stage).append('=').append((to - from) / 1_000).append("us");
+    }
+}
@@ -0,0 +1,80 @@
+package com.hacom.order_process_system.model;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Ciclo de vida de una orden: RECEIVED → PROCESSED → SMS_SENT → DELIVERED, con FAILED alcanzable desde
+ * cualquier estado no final. En Mongo se guarda {@link #code()} (un int32) en lugar del nombre; los
+ * documentos antiguos con el nombre como string se siguen leyendo.
+ */
+public enum OrderStatus {
+
+    RECEIVED(1),
+    PROCESSED(2),
+    SMS_SENT(3),
+    DELIVERED(4),
+    FAILED(5);
+
+    private static final OrderStatus[] BY_CODE = new OrderStatus[6];
+
+    static {
+        RECEIVED.next = EnumSet.of(PROCESSED, FAILED);
+        PROCESSED.next = EnumSet.of(SMS_SENT, FAILED);
+        SMS_SENT.next = EnumSet.of(DELIVERED, FAILED);
+        DELIVERED.next = EnumSet.noneOf(OrderStatus.class);
+        FAILED.next = EnumSet.noneOf(OrderStatus.class);
+
+        for (OrderStatus status : values()) {
+            BY_CODE[status.code] = status;
+            status.previous = EnumSet.noneOf(OrderStatus.class);
+        }
+        for (OrderStatus status : values()) {
+            for (OrderStatus target : status.next) {
+                target.previous.add(status);
+            }
+        }
+    }
+
+    private final int code;
+    private Set<OrderStatus> next;
+    private Set<OrderStatus> previous;
+
+    OrderStatus(int code) {
+        this.code = code;
+    }
+
+    public int code() {
+        return code;
+    }
+
+    public static OrderStatus fromCode(int code) {
+        if (code <= 0 || code >= BY_CODE.length) {
+            throw new IllegalArgumentException("Unsupported order status code: " + code);
+        }
+        return BY_CODE[code];
+    }
+
+    public static OrderStatus from(String value) {
+        for (OrderStatus status : values()) {
+            if (status.name().equalsIgnoreCase(value)) {
+                return status;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported order status: " + value);
+    }
+
+    public boolean canTransitionTo(OrderStatus target) {
+        return next.contains(target);
+    }
+
+    public boolean isFinal() {
+        return next.isEmpty();
+    }
+
+    /** Estados desde los que se puede pasar a éste; vacío para RECEIVED. */
+    public Set<OrderStatus> previous() {
+        return Collections.unmodifiableSet(previous);
+    }
+}
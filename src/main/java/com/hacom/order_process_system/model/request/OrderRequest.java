@@ -1,5 +1,6 @@
 package com.hacom.order_process_system.model.request;
 
+import com.hacom.order_process_system.model.OrderStatus;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -19,12 +20,13 @@ public class OrderRequest {
     private String orderId;
     private String customerId;
     private String customerPhoneNumber;
-    private String status;
+    /** Se guarda como {@link OrderStatus#code()}. */
+    private OrderStatus status;
     private List<String> items;
     private OffsetDateTime ts;
 
     public OrderRequest(String orderId, String customerId, String customerPhoneNumber,
-                        String status, List<String> items, OffsetDateTime ts) {
+                        OrderStatus status, List<String> items, OffsetDateTime ts) {
         this.orderId = orderId;
         this.customerId = customerId;
         this.customerPhoneNumber = customerPhoneNumber;
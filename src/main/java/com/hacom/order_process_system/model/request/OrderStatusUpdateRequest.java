@@ -0,0 +1,17 @@
+package com.hacom.order_process_system.model.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderStatusUpdateRequest {
+
+    /** Sólo en las actualizaciones en lote; en {@code PUT /{orderId}/status} va en la ruta. */
+    private String orderId;
+    private String status;
+    /** Estado previo exigido; vacío acepta cualquiera desde el que la transición sea válida. */
+    private String expectedStatus;
+}
@@ -0,0 +1,32 @@
+package com.hacom.order_process_system.model.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+@Builder
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderCounterCheckResponse {
+
+    private OffsetDateTime startDate;
+    private OffsetDateTime endDate;
+    private boolean consistent;
+    private Long bucketTotal;
+    private Long orderTotal;
+    private List<Mismatch> mismatches;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Mismatch {
+        private String bucket;
+        private Long bucketCount;
+        private Long orderCount;
+    }
+}
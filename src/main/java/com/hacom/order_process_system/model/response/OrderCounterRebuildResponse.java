@@ -0,0 +1,19 @@
+package com.hacom.order_process_system.model.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.OffsetDateTime;
+
+@Builder
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderCounterRebuildResponse {
+
+    private OffsetDateTime startDate;
+    private OffsetDateTime endDate;
+    private Integer bucketsWritten;
+}
@@ -0,0 +1,24 @@
+package com.hacom.order_process_system.model.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+@Builder
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderExportResponse {
+
+    private String orderId;
+    private String customerId;
+    private String status;
+    private List<String> items;
+    private OffsetDateTime timestamp;
+    /** Token para reanudar la exportación justo después de esta orden. */
+    private String cursor;
+}
@@ -0,0 +1,20 @@
+package com.hacom.order_process_system.model.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Builder
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderPageResponse {
+
+    private String customerId;
+    private List<OrderExportResponse> orders;
+    /** Cursor de la página siguiente ({@code after}), o null si es la última. */
+    private String nextCursor;
+}
@@ -0,0 +1,19 @@
+package com.hacom.order_process_system.model.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Builder
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderStatusUpdateResponse {
+
+    private String orderId;
+    /** APPLIED, CONFLICT, NOT_FOUND o INVALID. */
+    private String result;
+    /** Estado actual de la orden tras el intento. */
+    private String status;
+}
@@ -0,0 +1,184 @@
+package com.hacom.order_process_system.repository;
+
+import com.hacom.order_process_system.model.request.OrderRequest;
+import com.mongodb.ErrorCategory;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Timer;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.MongoExceptionTranslator;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind de órdenes: agrupa los inserts concurrentes en lotes que se envían a Mongo
+ * como un único insertMany no ordenado a través de {@link OrderCollection}. Un lote se vacía al alcanzar {@code app.mongodb.batch.size}
+ * documentos o tras {@code app.mongodb.batch.linger-ms}, lo que ocurra primero, y cada llamador
+ * recibe su propio resultado cuando el lote es confirmado. Después se actualizan los contadores
+ * diarios de {@link OrderCountBuckets} con las órdenes que sí se insertaron.
+ */
+@Component
+public class OrderBatchWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderBatchWriter.class);
+
+    private static final MongoExceptionTranslator exceptionTranslator = new MongoExceptionTranslator();
+
+    private final OrderCollection orderCollection;
+    private final OrderRepository orderRepository;
+    private final OrderCountBuckets orderCountBuckets;
+    private final DistributionSummary batchSizeSummary;
+    private final Timer batchFlushTimer;
+    private final boolean enabled;
+    private final Sinks.Many<PendingWrite> pendingWrites = Sinks.many().unicast().onBackpressureBuffer();
+
+    private record PendingWrite(OrderRequest order, Sinks.One<OrderRequest> result) {
+    }
+
+    public OrderBatchWriter(OrderCollection orderCollection,
+                            OrderRepository orderRepository,
+                            OrderCountBuckets orderCountBuckets,
+                            @Qualifier("orderBatchSizeSummary") DistributionSummary batchSizeSummary,
+                            @Qualifier("orderBatchFlushTimer") Timer batchFlushTimer,
+                            @Value("${app.mongodb.batch.enabled:true}") boolean enabled,
+                            @Value("${app.mongodb.batch.size:500}") int batchSize,
+                            @Value("${app.mongodb.batch.linger-ms:5}") long lingerMs,
+                            @Value("${app.mongodb.batch.max-in-flight:4}") int maxInFlight) {
+        this.orderCollection = orderCollection;
+        this.orderRepository = orderRepository;
+        this.orderCountBuckets = orderCountBuckets;
+        this.batchSizeSummary = batchSizeSummary;
+        this.batchFlushTimer = batchFlushTimer;
+        this.enabled = enabled;
+
+        // fairBackpressure: si vence el linger con max-in-flight lotes en vuelo, el lote espera a que acabe uno.
+        // Sin él bufferTimeout falla con OverflowException, el sink se queda sin suscriptor y todo save() se cuelga
+        pendingWrites.asFlux()
+                .bufferTimeout(batchSize, Duration.ofMillis(lingerMs), true)
+                .flatMap(this::flush, maxInFlight)
+                .subscribe();
+        logger.info("Order batch writer {} (size={}, linger={}ms)", enabled ? "enabled" : "disabled",
+                batchSize, lingerMs);
+    }
+
+    /**
+     * Inserta la orden en el siguiente lote. Se encola al suscribirse, igual que {@code orderRepository.save}.
+     */
+    public Mono<OrderRequest> save(OrderRequest order) {
+        if (!enabled) {
+            return orderRepository.save(order)
+                    .doOnNext(saved -> orderCountBuckets.increment(List.of(saved)).subscribe());
+        }
+        return Mono.defer(() -> {
+            // El _id se asigna aquí para devolverlo al llamador sin releerlo de Mongo
+            if (order.get_id() == null) {
+                order.set_id(new ObjectId());
+            }
+            Sinks.One<OrderRequest> result = Sinks.one();
+            pendingWrites.emitNext(new PendingWrite(order, result),
+                    Sinks.EmitFailureHandler.busyLooping(Duration.ofMillis(100)));
+            return result.asMono();
+        });
+    }
+
+    private Mono<Void> flush(List<PendingWrite> batch) {
+        long start = System.nanoTime();
+        List<OrderRequest> orders = batch.stream().map(PendingWrite::order).toList();
+
+        return orderCollection.insertUnordered(orders)
+                .then(Mono.fromCallable(() -> {
+                    batch.forEach(write -> write.result().tryEmitValue(write.order()));
+                    return orders;
+                }))
+                .onErrorResume(error -> Mono.just(completeExceptionally(batch, error)))
+                .doOnNext(inserted -> {
+                    batchFlushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                    batchSizeSummary.record(batch.size());
+                })
+                // Los llamadores ya tienen su resultado; los contadores no suman latencia al ack
+                .flatMap(orderCountBuckets::increment);
+    }
+
+    /**
+     * En un bulk no ordenado sólo fallan los documentos con error; el resto del lote sí se insertó.
+     * Devuelve las órdenes insertadas.
+     */
+    private List<OrderRequest> completeExceptionally(List<PendingWrite> batch, Throwable error) {
+        List<BulkWriteError> writeErrors = writeErrors(error);
+        if (writeErrors == null) {
+            logger.error("Error flushing batch of {} orders: {}", batch.size(), error.getMessage());
+            Throwable translated = translate(error);
+            batch.forEach(write -> write.result().tryEmitError(translated));
+            return List.of();
+        }
+
+        List<OrderRequest> inserted = new ArrayList<>(batch.size());
+        boolean[] failed = new boolean[batch.size()];
+        for (BulkWriteError writeError : writeErrors) {
+            if (writeError.getIndex() < batch.size()) {
+                failed[writeError.getIndex()] = true;
+                batch.get(writeError.getIndex()).result().tryEmitError(translate(writeError));
+            }
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            if (!failed[i]) {
+                batch.get(i).result().tryEmitValue(batch.get(i).order());
+                inserted.add(batch.get(i).order());
+            }
+        }
+        logger.warn("Batch of {} orders flushed with {} write errors", batch.size(), writeErrors.size());
+        return inserted;
+    }
+
+    /** Mismo tipo de excepción que lanzaría {@code orderRepository.save} para ese documento. */
+    private static RuntimeException translate(BulkWriteError writeError) {
+        return ErrorCategory.fromErrorCode(writeError.getCode()) == ErrorCategory.DUPLICATE_KEY
+                ? new DuplicateKeyException(writeError.getMessage())
+                : new DataIntegrityViolationException(writeError.getMessage());
+    }
+
+    /** Las mismas excepciones de Spring que lanzaría {@code orderRepository.save}. */
+    private static Throwable translate(Throwable error) {
+        if (error instanceof RuntimeException runtimeException) {
+            DataAccessException translated = exceptionTranslator.translateExceptionIfPossible(runtimeException);
+            if (translated != null) {
+                return translated;
+            }
+        }
+        return error;
+    }
+
+    private static List<BulkWriteError> writeErrors(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof BulkOperationException bulkOperationException) {
+                return bulkOperationException.getErrors();
+            }
+            if (cause instanceof MongoBulkWriteException mongoBulkWriteException) {
+                return mongoBulkWriteException.getWriteErrors();
+            }
+        }
+        return null;
+    }
+
+    @PreDestroy
+    public void destroy() {
+        // Completar el flujo vacía el último lote pendiente antes de cerrar el cliente
+        pendingWrites.tryEmitComplete();
+    }
+}
@@ -0,0 +1,96 @@
+package com.hacom.order_process_system.repository;
+
+import com.hacom.order_process_system.config.MongoClientProperties;
+import com.hacom.order_process_system.model.request.OrderRequest;
+import com.hacom.order_process_system.repository.codec.OrderCodecs;
+import com.hacom.order_process_system.repository.codec.OrderRequestCodec;
+import com.mongodb.WriteConcern;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.FindOneAndUpdateOptions;
+import com.mongodb.client.model.InsertManyOptions;
+import com.mongodb.client.model.ReturnDocument;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.reactivestreams.client.FindPublisher;
+import com.mongodb.reactivestreams.client.MongoCollection;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Acceso directo a la colección {@code orders} del driver con {@link OrderRequestCodec}, para los caminos
+ * calientes (inserts por lotes y recorridos de muchos documentos): cada documento se codifica y decodifica
+ * sin el {@code Document} intermedio ni el {@code MappingMongoConverter} de Spring Data.
+ * Las consultas se siguen escribiendo con {@link Query}/{@code Criteria}; sus fechas las codifica el
+ * {@code OffsetDateTimeCodec}.
+ * <p>
+ * Las altas usan el write concern {@code ingest} y los cambios de estado {@code status-update}.
+ */
+@Component
+public class OrderCollection {
+
+    private final Mono<MongoCollection<OrderRequest>> collection;
+    private final Mono<MongoCollection<OrderRequest>> statusCollection;
+
+    public OrderCollection(ReactiveMongoTemplate reactiveMongoTemplate, MongoClientProperties clientProperties) {
+        String collectionName = reactiveMongoTemplate.getCollectionName(OrderRequest.class);
+        WriteConcern ingest = clientProperties.getWriteConcerns().getIngest().toWriteConcern();
+        WriteConcern statusUpdate = clientProperties.getWriteConcerns().getStatusUpdate().toWriteConcern();
+        Mono<MongoCollection<OrderRequest>> orders = reactiveMongoTemplate.getMongoDatabase()
+                .map(database -> database.getCollection(collectionName, OrderRequest.class)
+                        .withCodecRegistry(OrderCodecs.withOrderCodecs(database.getCodecRegistry())))
+                .cache();
+        this.collection = orders.map(mongoCollection -> mongoCollection.withWriteConcern(ingest)).cache();
+        this.statusCollection = orders.map(mongoCollection -> mongoCollection.withWriteConcern(statusUpdate)).cache();
+    }
+
+    /** insertMany no ordenado con el write concern {@code ingest}: un documento con error no impide insertar el resto. */
+    public Mono<Void> insertUnordered(List<OrderRequest> orders) {
+        return collection.flatMap(mongoCollection -> Mono.from(
+                        mongoCollection.insertMany(orders, new InsertManyOptions().ordered(false))))
+                .then();
+    }
+
+    /** Filtro, proyección, orden, límite y tamaño de lote de la {@link Query}. */
+    public Flux<OrderRequest> find(Query query) {
+        return collection.flatMapMany(mongoCollection -> {
+            FindPublisher<OrderRequest> find = mongoCollection.find(query.getQueryObject())
+                    .projection(query.getFieldsObject())
+                    .sort(query.getSortObject());
+            if (query.isLimited()) {
+                find = find.limit(query.getLimit());
+            }
+            Integer batchSize = query.getMeta().getCursorBatchSize();
+            if (batchSize != null) {
+                find = find.batchSize(batchSize);
+            }
+            return find;
+        });
+    }
+
+    /**
+     * findOneAndUpdate atómico con el write concern {@code status-update}: aplica {@code update} a la orden que
+     * cumple el filtro de {@code query} y devuelve su proyección ya actualizada, o vacío si ninguna lo cumple.
+     */
+    public Mono<OrderRequest> findAndModify(Query query, Update update) {
+        return statusCollection.flatMap(mongoCollection -> Mono.from(mongoCollection.findOneAndUpdate(
+                query.getQueryObject(), update.getUpdateObject(),
+                new FindOneAndUpdateOptions()
+                        .projection(query.getFieldsObject())
+                        .returnDocument(ReturnDocument.AFTER))));
+    }
+
+    /**
+     * Un bulkWrite ordenado de updateOne con el write concern {@code status-update}: los cambios de una misma
+     * orden se aplican en el orden de la lista, en un solo viaje a Mongo.
+     */
+    public Mono<BulkWriteResult> updateEach(List<UpdateOneModel<OrderRequest>> updates) {
+        return statusCollection.flatMap(mongoCollection -> Mono.from(
+                mongoCollection.bulkWrite(updates, new BulkWriteOptions().ordered(true))));
+    }
+}
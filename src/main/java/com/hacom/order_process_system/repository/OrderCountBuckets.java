@@ -0,0 +1,209 @@
+package com.hacom.order_process_system.repository;
+
+import com.hacom.order_process_system.model.request.OrderRequest;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.ReactiveBulkOperations;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationExpression;
+import org.springframework.data.mongodb.core.aggregation.DateOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Contadores de órdenes pre-agregados por día (y opcionalmente por hora) en la colección
+ * {@value #COLLECTION}. Cada bucket es {@code {_id: "DAY:2025-01-15", granularity, start, count}}:
+ * el _id ordena cronológicamente, así que sumar un rango es una consulta por rango sobre el índice de _id
+ * que toca como mucho un documento por día.
+ * <p>
+ * {@link OrderBatchWriter} incrementa los buckets con un bulk de {@code $inc} por cada lote insertado.
+ * Los buckets se pueden recalcular desde {@code orders} con {@link #rebuild} y comparar con {@link #orderCounts}.
+ */
+@Component
+public class OrderCountBuckets {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderCountBuckets.class);
+
+    static final String COLLECTION = "order_counts";
+
+    public enum Granularity {
+        DAY(ChronoUnit.DAYS, "yyyy-MM-dd", "%Y-%m-%d"),
+        HOUR(ChronoUnit.HOURS, "yyyy-MM-dd'T'HH", "%Y-%m-%dT%H");
+
+        private final ChronoUnit unit;
+        private final DateTimeFormatter formatter;
+        private final String mongoFormat;
+
+        Granularity(ChronoUnit unit, String pattern, String mongoFormat) {
+            this.unit = unit;
+            this.formatter = DateTimeFormatter.ofPattern(pattern);
+            this.mongoFormat = mongoFormat;
+        }
+
+        String key(OffsetDateTime ts) {
+            return name() + ":" + formatter.format(ts.withOffsetSameInstant(ZoneOffset.UTC));
+        }
+
+        OffsetDateTime start(OffsetDateTime ts) {
+            return ts.withOffsetSameInstant(ZoneOffset.UTC).truncatedTo(unit);
+        }
+
+        boolean isAligned(OffsetDateTime ts) {
+            return start(ts).isEqual(ts);
+        }
+    }
+
+    private final ReactiveMongoTemplate reactiveMongoTemplate;
+    private final Set<Granularity> granularities;
+
+    public OrderCountBuckets(ReactiveMongoTemplate reactiveMongoTemplate,
+                             @Value("${app.mongodb.counters.enabled:true}") boolean enabled,
+                             @Value("${app.mongodb.counters.hourly:false}") boolean hourly) {
+        this.reactiveMongoTemplate = reactiveMongoTemplate;
+        this.granularities = !enabled ? EnumSet.noneOf(Granularity.class)
+                : hourly ? EnumSet.allOf(Granularity.class)
+                : EnumSet.of(Granularity.DAY);
+        logger.info("Order count buckets: {}", granularities);
+    }
+
+    public Set<Granularity> granularities() {
+        return granularities;
+    }
+
+    /**
+     * Granularidad con la que se puede contestar el rango [start, end] sumando buckets completos,
+     * o null si no hay ninguna. {@code end} es inclusivo y se espera en el último segundo del bucket
+     * (p. ej. 23:59:59), como lo construye {@code GET /api/orders/count}.
+     */
+    public Granularity granularityFor(OffsetDateTime start, OffsetDateTime end) {
+        if (end.getNano() != 0 || end.isBefore(start)) {
+            return null;
+        }
+        OffsetDateTime endExclusive = end.plusSeconds(1);
+        for (Granularity granularity : granularities) {
+            if (granularity.isAligned(start) && granularity.isAligned(endExclusive)) {
+                return granularity;
+            }
+        }
+        return null;
+    }
+
+    /** Suma los buckets que empiezan entre {@code start} y {@code end}, ambos inclusivos. */
+    public Mono<Long> sum(Granularity granularity, OffsetDateTime start, OffsetDateTime end) {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("_id").gte(granularity.key(start)).lte(granularity.key(end))),
+                Aggregation.group().sum("count").as("total"));
+        return reactiveMongoTemplate.aggregate(aggregation, COLLECTION, Document.class)
+                .next()
+                .map(result -> ((Number) result.get("total")).longValue())
+                .defaultIfEmpty(0L);
+    }
+
+    /** Un {@code $inc} por bucket afectado por las órdenes recién insertadas. */
+    public Mono<Void> increment(List<OrderRequest> orders) {
+        if (granularities.isEmpty() || orders.isEmpty()) {
+            return Mono.empty();
+        }
+        Map<String, Long> increments = new HashMap<>();
+        Map<String, OffsetDateTime> starts = new HashMap<>();
+        for (OrderRequest order : orders) {
+            for (Granularity granularity : granularities) {
+                String key = granularity.key(order.getTs());
+                increments.merge(key, 1L, Long::sum);
+                starts.putIfAbsent(key, granularity.start(order.getTs()));
+            }
+        }
+
+        ReactiveBulkOperations bulk = reactiveMongoTemplate.bulkOps(BulkMode.UNORDERED, COLLECTION);
+        increments.forEach((key, count) -> bulk.upsert(
+                Query.query(Criteria.where("_id").is(key)),
+                new Update().inc("count", count)
+                        .setOnInsert("granularity", key.substring(0, key.indexOf(':')))
+                        .setOnInsert("start", Date.from(starts.get(key).toInstant()))));
+        return bulk.execute()
+                .doOnError(error -> logger.error("Error updating {} order count buckets: {}",
+                        increments.size(), error.getMessage()))
+                .onErrorResume(error -> Mono.empty())
+                .then();
+    }
+
+    /** Buckets guardados en [from, toExclusive), por clave. */
+    public Mono<Map<String, Long>> storedCounts(Granularity granularity, OffsetDateTime from,
+                                                OffsetDateTime toExclusive) {
+        Query query = Query.query(Criteria.where("_id").gte(granularity.key(from)).lt(granularity.key(toExclusive)));
+        return reactiveMongoTemplate.find(query, Document.class, COLLECTION)
+                .collectMap(bucket -> bucket.getString("_id"),
+                        bucket -> ((Number) bucket.get("count")).longValue(),
+                        TreeMap::new);
+    }
+
+    /** Conteo real de {@code orders} en [from, toExclusive), agrupado con la misma clave que los buckets. */
+    public Mono<Map<String, Long>> orderCounts(Granularity granularity, OffsetDateTime from,
+                                               OffsetDateTime toExclusive) {
+        AggregationExpression bucketOf = DateOperators.dateOf("ts").toString(granularity.mongoFormat);
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("ts").gte(from).lt(toExclusive)),
+                Aggregation.project().and(bucketOf).as("bucket"),
+                Aggregation.group("bucket").count().as("count"));
+        return reactiveMongoTemplate.aggregate(aggregation, OrderRequest.class, Document.class)
+                .collectMap(bucket -> granularity.name() + ":" + bucket.getString("_id"),
+                        bucket -> ((Number) bucket.get("count")).longValue(),
+                        TreeMap::new);
+    }
+
+    /**
+     * Recalcula los buckets de [from, toExclusive) desde {@code orders}: fija cada count y borra los buckets
+     * del rango sin órdenes. Los incrementos que lleguen mientras se ejecuta pueden perderse, así que conviene
+     * lanzarlo sobre días cerrados o con poco tráfico. Devuelve el número de buckets escritos.
+     */
+    public Mono<Integer> rebuild(Granularity granularity, OffsetDateTime from, OffsetDateTime toExclusive) {
+        return orderCounts(granularity, from, toExclusive).flatMap(counts -> {
+            Query stale = Query.query(Criteria.where("_id")
+                    .gte(granularity.key(from)).lt(granularity.key(toExclusive))
+                    .nin(counts.keySet()));
+            Mono<Void> write = Mono.empty();
+            if (!counts.isEmpty()) {
+                ReactiveBulkOperations bulk = reactiveMongoTemplate.bulkOps(BulkMode.UNORDERED, COLLECTION);
+                counts.forEach((key, count) -> bulk.upsert(
+                        Query.query(Criteria.where("_id").is(key)),
+                        new Update().set("count", count)
+                                .set("granularity", granularity.name())
+                                .set("start", Date.from(parseKey(granularity, key).toInstant()))));
+                write = bulk.execute().then();
+            }
+            return write
+                    .then(reactiveMongoTemplate.remove(stale, COLLECTION))
+                    .doOnNext(removed -> logger.info("Rebuilt {} {} buckets from {} to {} ({} stale removed)",
+                            counts.size(), granularity, from, toExclusive, removed.getDeletedCount()))
+                    .thenReturn(counts.size());
+        });
+    }
+
+    private static OffsetDateTime parseKey(Granularity granularity, String key) {
+        String value = key.substring(key.indexOf(':') + 1);
+        return granularity == Granularity.DAY
+                ? LocalDate.parse(value).atStartOfDay().atOffset(ZoneOffset.UTC)
+                : LocalDateTime.parse(value + ":00").atOffset(ZoneOffset.UTC);
+    }
+}
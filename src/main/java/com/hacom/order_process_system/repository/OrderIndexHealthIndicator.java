@@ -0,0 +1,33 @@
+package com.hacom.order_process_system.repository;
+
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Expone en /actuator/health, como componente {@code orderIndexes}, el índice único de {@code orderId}
+ * del que depende la ingesta: OUT_OF_SERVICE mientras se crea y DOWN si no ha podido crearse.
+ */
+@Component("orderIndexes")
+public class OrderIndexHealthIndicator implements HealthIndicator {
+
+    private final OrderIndexInitializer orderIndexInitializer;
+
+    public OrderIndexHealthIndicator(OrderIndexInitializer orderIndexInitializer) {
+        this.orderIndexInitializer = orderIndexInitializer;
+    }
+
+    @Override
+    public Health health() {
+        Health.Builder builder = switch (orderIndexInitializer.getUniqueIndexState()) {
+            case READY -> Health.up();
+            case PENDING -> Health.outOfService();
+            case FAILED -> Health.down()
+                    .withDetail("error", String.valueOf(orderIndexInitializer.getUniqueIndexError()));
+        };
+        return builder
+                .withDetail(OrderIndexInitializer.UNIQUE_INDEX,
+                        orderIndexInitializer.getUniqueIndexState().name().toLowerCase())
+                .build();
+    }
+}
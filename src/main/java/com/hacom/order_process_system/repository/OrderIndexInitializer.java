@@ -0,0 +1,148 @@
+package com.hacom.order_process_system.repository;
+
+import com.hacom.order_process_system.model.request.OrderRequest;
+import com.mongodb.MongoException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Crea al arrancar los índices que necesitan las consultas de {@link OrderRepository}.
+ * {@code createIndex} es idempotente, así que se puede lanzar en cada arranque; se ejecuta
+ * en segundo plano.
+ * <p>
+ * El índice único {@code orderId_1} es el que garantiza que un reintento del cliente no duplica la orden,
+ * así que hasta tenerlo la ingesta está cerrada ({@link #isUniqueIndexReady()}): gRPC contesta UNAVAILABLE
+ * y el replayer del journal no escribe. Si Mongo no responde se reintenta con backoff; si la colección ya
+ * tiene {@code orderId} duplicados el índice no puede crearse, queda en {@link UniqueIndexState#FAILED}
+ * (DOWN en {@code /actuator/health}) hasta eliminarlos y reiniciar. El resto de índices sólo sirven a
+ * consultas: un fallo se registra sin más.
+ * <p>
+ * Con {@code app.mongodb.indexes.auto-create=false} los índices se gestionan fuera y se dan por creados.
+ */
+@Component
+public class OrderIndexInitializer {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderIndexInitializer.class);
+
+    public static final String UNIQUE_INDEX = "orderId_1";
+    private static final int DUPLICATE_KEY = 11000;
+
+    public enum UniqueIndexState {
+        PENDING, READY, FAILED
+    }
+
+    private final ReactiveMongoTemplate reactiveMongoTemplate;
+    private final boolean enabled;
+    private volatile UniqueIndexState uniqueIndexState;
+    private volatile String uniqueIndexError;
+    private volatile Disposable creation;
+
+    public OrderIndexInitializer(ReactiveMongoTemplate reactiveMongoTemplate,
+                                 @Value("${app.mongodb.indexes.auto-create:true}") boolean enabled) {
+        this.reactiveMongoTemplate = reactiveMongoTemplate;
+        this.enabled = enabled;
+        this.uniqueIndexState = enabled ? UniqueIndexState.PENDING : UniqueIndexState.READY;
+    }
+
+    static List<IndexDefinition> indexes() {
+        return List.of(
+                new Index().on("orderId", Sort.Direction.ASC).unique().named(UNIQUE_INDEX),
+                // Cubre findStatusByOrderId: filtro y proyección salen del índice
+                new Index().on("orderId", Sort.Direction.ASC)
+                        .on("status", Sort.Direction.ASC)
+                        .on("ts", Sort.Direction.ASC)
+                        .named("orderId_1_status_1_ts_1"),
+                // Rango de fechas de GET /api/orders/count y recorrido (ts, _id) de GET /api/orders/export
+                new Index().on("ts", Sort.Direction.ASC).on("_id", Sort.Direction.ASC).named("ts_1__id_1"),
+                // Páginas de GET /api/customers/{customerId}/orders, recorrido hacia atrás
+                new Index().on("customerId", Sort.Direction.ASC)
+                        .on("ts", Sort.Direction.ASC)
+                        .on("_id", Sort.Direction.ASC)
+                        .named("customerId_1_ts_1__id_1"));
+    }
+
+    public boolean isUniqueIndexReady() {
+        return uniqueIndexState == UniqueIndexState.READY;
+    }
+
+    public UniqueIndexState getUniqueIndexState() {
+        return uniqueIndexState;
+    }
+
+    /** Motivo del fallo del índice único; null si no ha fallado. */
+    public String getUniqueIndexError() {
+        return uniqueIndexError;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void createIndexes() {
+        if (!enabled) {
+            logger.info("Automatic index creation disabled");
+            return;
+        }
+        List<IndexDefinition> indexes = indexes();
+        Mono<String> uniqueIndex = ensureIndex(indexes.get(0))
+                // Sin Mongo se espera a que vuelva; con duplicados reintentar no sirve de nada
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1))
+                        .maxBackoff(Duration.ofSeconds(30))
+                        .filter(error -> !isDuplicateKey(error))
+                        .doBeforeRetry(signal -> logger.warn("Index {} not created yet, retrying: {}",
+                                UNIQUE_INDEX, signal.failure().getMessage())))
+                .doOnNext(name -> uniqueIndexState = UniqueIndexState.READY)
+                .onErrorResume(error -> {
+                    uniqueIndexError = error.getMessage();
+                    uniqueIndexState = UniqueIndexState.FAILED;
+                    logger.error("Index {} could not be created, order ingestion stays closed until the duplicate "
+                            + "orderIds are removed and the service restarted: {}", UNIQUE_INDEX, error.getMessage());
+                    return Mono.empty();
+                });
+        Flux<String> queryIndexes = Flux.fromIterable(indexes.subList(1, indexes.size()))
+                .concatMap(index -> ensureIndex(index)
+                        .onErrorResume(error -> {
+                            logger.error("Error creating index {} on orders: {}",
+                                    index.getIndexOptions().get("name"), error.getMessage());
+                            return Mono.empty();
+                        }));
+        creation = Flux.concat(uniqueIndex, queryIndexes)
+                .subscribe(name -> logger.info("Index {} ready on orders", name));
+    }
+
+    private Mono<String> ensureIndex(IndexDefinition index) {
+        return reactiveMongoTemplate.indexOps(OrderRequest.class).ensureIndex(index);
+    }
+
+    private static boolean isDuplicateKey(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof DuplicateKeyException
+                    || cause instanceof MongoException mongo && mongo.getCode() == DUPLICATE_KEY) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @PreDestroy
+    public void destroy() {
+        Disposable creation = this.creation;
+        if (creation != null) {
+            creation.dispose();
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.hacom.order_process_system.repository;
+
+import com.hacom.order_process_system.model.request.OrderRequest;
+import com.hacom.order_process_system.util.ContinuationToken;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Recorridos de {@code orders} por keyset sobre {@code (ts, _id)}: en lugar de saltar documentos,
+ * cada consulta empieza en el índice justo después del {@link ContinuationToken} recibido, así que
+ * continuar cuesta lo mismo esté donde esté el cursor.
+ */
+@Component
+public class OrderKeysetQueries {
+
+    private final OrderCollection orderCollection;
+
+    public OrderKeysetQueries(OrderCollection orderCollection) {
+        this.orderCollection = orderCollection;
+    }
+
+    /**
+     * Órdenes con ts en [start, end] posteriores a {@code after} (null = desde el principio), en orden
+     * ascendente por el índice {@code ts_1__id_1}. Mongo devuelve lotes de {@code batchSize} documentos
+     * a medida que el suscriptor los pide. No incluye el teléfono del cliente.
+     */
+    public Flux<OrderRequest> findByTsBetween(OffsetDateTime start, OffsetDateTime end, ContinuationToken after,
+                                              int batchSize) {
+        Criteria criteria = Criteria.where("ts").lte(end);
+        if (after == null) {
+            criteria.gte(start);
+        } else {
+            // ts >= último ts, y dentro del mismo ts sólo los _id mayores
+            criteria.gte(after.ts().isAfter(start) ? after.ts() : start)
+                    .orOperator(Criteria.where("ts").gt(after.ts()), Criteria.where("_id").gt(after.id()));
+        }
+        Query query = Query.query(criteria)
+                .with(Sort.by(Sort.Direction.ASC, "ts", "_id"))
+                .cursorBatchSize(batchSize);
+        query.fields().exclude("customerPhoneNumber");
+        return orderCollection.find(query);
+    }
+
+    /**
+     * Hasta {@code limit} órdenes del cliente, de la más reciente a la más antigua, anteriores a {@code after}
+     * (null = primera página). Recorre hacia atrás el índice {@code customerId_1_ts_1__id_1}, así que una
+     * página profunda lee los mismos documentos que la primera.
+     */
+    public Flux<OrderRequest> findByCustomerId(String customerId, ContinuationToken after, int limit) {
+        Criteria criteria = Criteria.where("customerId").is(customerId);
+        if (after != null) {
+            criteria.and("ts").lte(after.ts())
+                    .orOperator(Criteria.where("ts").lt(after.ts()), Criteria.where("_id").lt(after.id()));
+        }
+        Query query = Query.query(criteria)
+                .with(Sort.by(Sort.Direction.DESC, "ts", "_id"))
+                .limit(limit);
+        query.fields().exclude("customerPhoneNumber");
+        return orderCollection.find(query);
+    }
+}
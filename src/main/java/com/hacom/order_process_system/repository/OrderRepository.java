@@ -15,6 +15,17 @@ public interface OrderRepository extends ReactiveMongoRepository<OrderRequest, O
 
     Mono<OrderRequest> findByOrderId(String orderId);
 
+    /**
+     * Sólo orderId, status y ts: la consulta queda cubierta por el índice orderId_status_ts
+     * y Mongo no lee el documento ni devuelve items.
+     */
+    @Query(value = "{ 'orderId' : ?0 }", fields = "{ '_id' : 0, 'orderId' : 1, 'status' : 1, 'ts' : 1 }")
+    Mono<OrderRequest> findStatusByOrderId(String orderId);
+
     @Query("{ 'ts' : { $gte: ?0, $lte: ?1 } }")
     Flux<OrderRequest> findByTsBetween(OffsetDateTime startDate, OffsetDateTime endDate);
-}
\ No newline at end of file
+
+    // countDocuments en el servidor sobre el índice de ts, sin traer los documentos
+    @Query(value = "{ 'ts' : { $gte: ?0, $lte: ?1 } }", count = true)
+    Mono<Long> countByTsBetween(OffsetDateTime startDate, OffsetDateTime endDate);
+}
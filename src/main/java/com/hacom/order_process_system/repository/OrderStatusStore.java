@@ -0,0 +1,155 @@
+package com.hacom.order_process_system.repository;
+
+import com.hacom.order_process_system.model.OrderStatus;
+import com.hacom.order_process_system.model.request.OrderRequest;
+import com.mongodb.client.model.UpdateOneModel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Cambios de estado de las órdenes como updates condicionales: el filtro incluye el estado previo esperado
+ * (o, si no se indica, cualquiera desde el que {@link OrderStatus} permita la transición), así que dos
+ * cambios concurrentes no pueden pisarse y una transición inválida no llega a escribirse.
+ * <p>
+ * {@link #update} es un findOneAndUpdate por orden; {@link #updateAll} aplica un lote (p. ej. acuses de
+ * entrega del SMSC) con un único bulkWrite ordenado y una sola consulta cubierta por el índice
+ * {@code orderId_1_status_1_ts_1} para saber en qué estado quedó cada orden.
+ */
+@Component
+public class OrderStatusStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderStatusStore.class);
+
+    /** Pasar {@code orderId} a {@code status}; {@code expected} null acepta cualquier estado previo válido. */
+    public record Change(String orderId, OrderStatus status, OrderStatus expected) {
+    }
+
+    public enum Outcome {
+        /** La orden está en el estado pedido (también si ya lo estaba: reaplicar un cambio no falla). */
+        APPLIED,
+        /** La orden estaba en otro estado; {@link Result#status()} es el actual. */
+        CONFLICT,
+        NOT_FOUND,
+        /** La transición no está permitida por el ciclo de vida; no se consulta Mongo. */
+        INVALID
+    }
+
+    /** {@code status} es el estado de la orden tras el intento, null si no existe o no se consultó. */
+    public record Result(String orderId, Outcome outcome, OrderStatus status) {
+    }
+
+    private final OrderCollection orderCollection;
+
+    public OrderStatusStore(OrderCollection orderCollection) {
+        this.orderCollection = orderCollection;
+    }
+
+    public Mono<Result> update(Change change) {
+        Query query = conditionalQuery(change);
+        if (query == null) {
+            return Mono.just(invalid(change));
+        }
+        query.fields().include("orderId", "status").exclude("_id");
+        return orderCollection.findAndModify(query, statusUpdate(change))
+                .map(order -> new Result(change.orderId(), Outcome.APPLIED, order.getStatus()))
+                .switchIfEmpty(Mono.defer(() -> currentStatuses(List.of(change.orderId()))
+                        .map(current -> classify(change, current))));
+    }
+
+    /**
+     * Aplica los cambios en orden y devuelve un resultado por cambio, en el mismo orden. Si un lote trae
+     * varios cambios de la misma orden, cada resultado refleja el estado final: los intermedios ya
+     * superados salen como {@link Outcome#CONFLICT}.
+     */
+    public Mono<List<Result>> updateAll(List<Change> changes) {
+        List<UpdateOneModel<OrderRequest>> updates = new ArrayList<>(changes.size());
+        boolean[] valid = new boolean[changes.size()];
+        Set<String> orderIds = new LinkedHashSet<>();
+        for (int i = 0; i < changes.size(); i++) {
+            Change change = changes.get(i);
+            Query query = conditionalQuery(change);
+            if (query != null) {
+                updates.add(new UpdateOneModel<>(query.getQueryObject(), statusUpdate(change).getUpdateObject()));
+                orderIds.add(change.orderId());
+                valid[i] = true;
+            }
+        }
+        if (updates.isEmpty()) {
+            return Mono.just(changes.stream().map(OrderStatusStore::invalid).toList());
+        }
+        return orderCollection.updateEach(updates)
+                .doOnNext(written -> {
+                    if (logger.isDebugEnabled()) {
+                        logger.debug("Applied {} of {} order status changes", written.getModifiedCount(),
+                                changes.size());
+                    }
+                })
+                .then(currentStatuses(orderIds))
+                .map(current -> {
+                    List<Result> results = new ArrayList<>(changes.size());
+                    for (int i = 0; i < changes.size(); i++) {
+                        results.add(valid[i] ? classify(changes.get(i), current) : invalid(changes.get(i)));
+                    }
+                    return results;
+                });
+    }
+
+    /** Filtro por orderId y estado previo permitido; null si la transición es inválida. */
+    private static Query conditionalQuery(Change change) {
+        Set<OrderStatus> previous;
+        if (change.expected() != null) {
+            if (!change.expected().canTransitionTo(change.status())) {
+                return null;
+            }
+            previous = Set.of(change.expected());
+        } else {
+            previous = change.status().previous();
+            if (previous.isEmpty()) {
+                return null;
+            }
+        }
+        // Código y nombre: los documentos anteriores al código numérico también pueden avanzar
+        List<Object> values = new ArrayList<>(previous.size() * 2);
+        for (OrderStatus status : previous) {
+            values.add(status.code());
+            values.add(status.name());
+        }
+        return Query.query(Criteria.where("orderId").is(change.orderId()).and("status").in(values));
+    }
+
+    private static Update statusUpdate(Change change) {
+        return new Update().set("status", change.status().code());
+    }
+
+    private Mono<Map<String, OrderStatus>> currentStatuses(Collection<String> orderIds) {
+        Query query = Query.query(Criteria.where("orderId").in(orderIds));
+        query.fields().include("orderId", "status").exclude("_id");
+        return orderCollection.find(query)
+                .collect(HashMap::new, (statuses, order) -> statuses.put(order.getOrderId(), order.getStatus()));
+    }
+
+    private static Result classify(Change change, Map<String, OrderStatus> current) {
+        if (!current.containsKey(change.orderId())) {
+            return new Result(change.orderId(), Outcome.NOT_FOUND, null);
+        }
+        OrderStatus status = current.get(change.orderId());
+        return new Result(change.orderId(), status == change.status() ? Outcome.APPLIED : Outcome.CONFLICT, status);
+    }
+
+    private static Result invalid(Change change) {
+        return new Result(change.orderId(), Outcome.INVALID, null);
+    }
+}
@@ -0,0 +1,44 @@
+package com.hacom.order_process_system.repository.codec;
+
+import org.bson.BsonReader;
+import org.bson.BsonWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * {@link OffsetDateTime} como fecha BSON (milisegundos de época, UTC), igual que los converters de
+ * Spring Data. Permite pasar al driver filtros de {@code Query} con fechas sin convertirlos antes.
+ */
+public class OffsetDateTimeCodec implements Codec<OffsetDateTime> {
+
+    @Override
+    public void encode(BsonWriter writer, OffsetDateTime value, EncoderContext encoderContext) {
+        writer.writeDateTime(toEpochMillis(value));
+    }
+
+    @Override
+    public OffsetDateTime decode(BsonReader reader, DecoderContext decoderContext) {
+        return fromEpochMillis(reader.readDateTime());
+    }
+
+    @Override
+    public Class<OffsetDateTime> getEncoderClass() {
+        return OffsetDateTime.class;
+    }
+
+    /** Milisegundos de época sin pasar por {@code Instant}. */
+    static long toEpochMillis(OffsetDateTime value) {
+        return value.toEpochSecond() * 1000 + value.getNano() / 1_000_000;
+    }
+
+    static OffsetDateTime fromEpochMillis(long epochMillis) {
+        LocalDateTime utc = LocalDateTime.ofEpochSecond(Math.floorDiv(epochMillis, 1000),
+                (int) Math.floorMod(epochMillis, 1000) * 1_000_000, ZoneOffset.UTC);
+        return OffsetDateTime.of(utc, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,19 @@
+package com.hacom.order_process_system.repository.codec;
+
+import org.bson.codecs.configuration.CodecRegistries;
+import org.bson.codecs.configuration.CodecRegistry;
+
+/**
+ * Codecs propios de la colección {@code orders}, antepuestos a un registro existente.
+ */
+public final class OrderCodecs {
+
+    private OrderCodecs() {
+    }
+
+    public static CodecRegistry withOrderCodecs(CodecRegistry fallback) {
+        return CodecRegistries.fromRegistries(
+                CodecRegistries.fromCodecs(new OrderRequestCodec(), new OffsetDateTimeCodec()),
+                fallback);
+    }
+}
@@ -0,0 +1,137 @@
+package com.hacom.order_process_system.repository.codec;
+
+import com.hacom.order_process_system.model.OrderStatus;
+import com.hacom.order_process_system.model.request.OrderRequest;
+import org.bson.BsonObjectId;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonValue;
+import org.bson.BsonWriter;
+import org.bson.codecs.CollectibleCodec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.types.ObjectId;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Codec de {@link OrderRequest} escrito a mano: lee y escribe BSON directamente, sin pasar por un
+ * {@code Document} intermedio ni por el mapeo reflexivo y los converters de fechas de Spring Data.
+ * {@code ts} se escribe como fecha BSON a partir de los milisegundos de época, sin crear {@code Date}
+ * ni {@code Instant}; {@code status} como el int32 de {@link OrderStatus#code()}. Al decodificar sólo se construyen los campos presentes (los de la proyección);
+ * el resto de campos, como {@code _class}, se saltan sin materializarlos.
+ * <p>
+ * El formato es el mismo que escribe Spring Data, así que ambos caminos leen los documentos del otro. Un
+ * {@code status} string (documentos anteriores al código numérico) se lee por su nombre.
+ */
+public class OrderRequestCodec implements CollectibleCodec<OrderRequest> {
+
+    @Override
+    public void encode(BsonWriter writer, OrderRequest order, EncoderContext encoderContext) {
+        writer.writeStartDocument();
+        if (order.get_id() != null) {
+            writer.writeObjectId("_id", order.get_id());
+        }
+        writeString(writer, "orderId", order.getOrderId());
+        writeString(writer, "customerId", order.getCustomerId());
+        writeString(writer, "customerPhoneNumber", order.getCustomerPhoneNumber());
+        if (order.getStatus() != null) {
+            writer.writeInt32("status", order.getStatus().code());
+        }
+        if (order.getItems() != null) {
+            writer.writeStartArray("items");
+            for (String item : order.getItems()) {
+                if (item == null) {
+                    writer.writeNull();
+                } else {
+                    writer.writeString(item);
+                }
+            }
+            writer.writeEndArray();
+        }
+        if (order.getTs() != null) {
+            writer.writeDateTime("ts", OffsetDateTimeCodec.toEpochMillis(order.getTs()));
+        }
+        writer.writeEndDocument();
+    }
+
+    @Override
+    public OrderRequest decode(BsonReader reader, DecoderContext decoderContext) {
+        OrderRequest order = new OrderRequest();
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            String name = reader.readName();
+            if (reader.getCurrentBsonType() == BsonType.NULL) {
+                reader.readNull();
+                continue;
+            }
+            switch (name) {
+                case "_id" -> order.set_id(reader.readObjectId());
+                case "orderId" -> order.setOrderId(reader.readString());
+                case "customerId" -> order.setCustomerId(reader.readString());
+                case "customerPhoneNumber" -> order.setCustomerPhoneNumber(reader.readString());
+                case "status" -> order.setStatus(readStatus(reader));
+                case "items" -> order.setItems(readItems(reader));
+                case "ts" -> order.setTs(OffsetDateTimeCodec.fromEpochMillis(reader.readDateTime()));
+                default -> reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+        return order;
+    }
+
+    @Override
+    public Class<OrderRequest> getEncoderClass() {
+        return OrderRequest.class;
+    }
+
+    @Override
+    public OrderRequest generateIdIfAbsentFromDocument(OrderRequest order) {
+        if (order.get_id() == null) {
+            order.set_id(new ObjectId());
+        }
+        return order;
+    }
+
+    @Override
+    public boolean documentHasId(OrderRequest order) {
+        return order.get_id() != null;
+    }
+
+    @Override
+    public BsonValue getDocumentId(OrderRequest order) {
+        if (order.get_id() == null) {
+            throw new IllegalStateException("The order does not contain an _id");
+        }
+        return new BsonObjectId(order.get_id());
+    }
+
+    private static void writeString(BsonWriter writer, String name, String value) {
+        if (value != null) {
+            writer.writeString(name, value);
+        }
+    }
+
+    private static OrderStatus readStatus(BsonReader reader) {
+        if (reader.getCurrentBsonType() == BsonType.STRING) {
+            return OrderStatus.from(reader.readString());
+        }
+        return OrderStatus.fromCode(reader.readInt32());
+    }
+
+    private static List<String> readItems(BsonReader reader) {
+        List<String> items = new ArrayList<>();
+        reader.readStartArray();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            if (reader.getCurrentBsonType() == BsonType.NULL) {
+                reader.readNull();
+                items.add(null);
+            } else {
+                items.add(reader.readString());
+            }
+        }
+        reader.readEndArray();
+        return items;
+    }
+}
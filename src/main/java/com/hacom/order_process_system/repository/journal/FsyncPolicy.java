@@ -0,0 +1,26 @@
+package com.hacom.order_process_system.repository.journal;
+
+/**
+ * Cuándo se considera durable un registro del {@link OrderJournal} ({@code app.journal.fsync}).
+ */
+public enum FsyncPolicy {
+
+    /** fsync del registro antes de confirmarlo: sobrevive a un corte de luz, una escritura a disco por orden. */
+    ALWAYS,
+    /**
+     * Group commit: un hilo hace fsync de todo lo escrito desde el anterior y confirma a la vez todos los
+     * registros cubiertos. Misma durabilidad que {@link #ALWAYS} con un fsync por grupo de órdenes.
+     */
+    GROUP,
+    /** Confirmado al copiarlo al fichero mapeado: sobrevive a la caída del proceso, no a la del sistema. */
+    NONE;
+
+    public static FsyncPolicy from(String value) {
+        for (FsyncPolicy policy : values()) {
+            if (policy.name().equalsIgnoreCase(value)) {
+                return policy;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported journal fsync policy: " + value);
+    }
+}
@@ -0,0 +1,10 @@
+package com.hacom.order_process_system.repository.journal;
+
+import com.hacom.grpc.CreateOrderRequest;
+
+/**
+ * Orden aceptada tal como quedó en el journal: número de secuencia, instante de recepción
+ * (milisegundos de época, el {@code ts} de la orden) y la petición gRPC original.
+ */
+public record JournalRecord(long sequence, long receivedAtMillis, CreateOrderRequest request) {
+}
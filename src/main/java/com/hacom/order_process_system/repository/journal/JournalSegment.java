@@ -0,0 +1,213 @@
+package com.hacom.order_process_system.repository.journal;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+/**
+ * Fichero de segmento del journal, mapeado en memoria con su tamaño completo desde que se crea.
+ * Se llama {@code <primera secuencia con 20 dígitos>.journal} y contiene registros consecutivos:
+ * <pre>
+ *   int  longitud del payload
+ *   int  CRC32C de secuencia, instante y payload
+ *   long secuencia (consecutiva dentro del segmento y entre segmentos)
+ *   long instante de recepción (milisegundos de época)
+ *   byte[] payload ({@code CreateOrderRequest} en protobuf)
+ * </pre>
+ * El primer registro con longitud 0, CRC incorrecto o secuencia fuera de orden marca el final: tras una
+ * caída, un registro a medio escribir se descarta y se sobrescribe con el siguiente.
+ * <p>
+ * Sólo el hilo que tiene el lock de escritura del {@link OrderJournal} llama a {@link #append}; los lectores
+ * leen hasta {@link #writePosition()}, que se publica después de copiar el registro completo.
+ */
+final class JournalSegment {
+
+    static final String SUFFIX = ".journal";
+    static final int HEADER_BYTES = 24;
+
+    /** Recibe cada registro leído; {@code payload} sólo es válido durante la llamada. */
+    @FunctionalInterface
+    interface RecordVisitor {
+        /** @return false para dejar de leer */
+        boolean visit(long sequence, long receivedAtMillis, ByteBuffer payload);
+    }
+
+    private final Path path;
+    private final long firstSequence;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final CRC32C crc = new CRC32C();
+    private volatile int writePosition;
+    private volatile long lastSequence;
+    /** Hasta dónde se ha hecho fsync; protegido por el monitor del segmento. */
+    private int forcedPosition;
+
+    private JournalSegment(Path path, long firstSequence, FileChannel channel, MappedByteBuffer buffer) {
+        this.path = path;
+        this.firstSequence = firstSequence;
+        this.channel = channel;
+        this.buffer = buffer;
+        this.lastSequence = firstSequence - 1;
+    }
+
+    static JournalSegment create(Path directory, long firstSequence, int size) {
+        Path path = directory.resolve(String.format("%020d%s", firstSequence, SUFFIX));
+        return map(path, firstSequence, size);
+    }
+
+    /** Abre un segmento existente y recorre sus registros para situar el final. */
+    static JournalSegment open(Path path) {
+        String name = path.getFileName().toString();
+        long firstSequence = Long.parseLong(name.substring(0, name.length() - SUFFIX.length()));
+        try {
+            JournalSegment segment = map(path, firstSequence, (int) Files.size(path));
+            segment.recover();
+            return segment;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open journal segment " + path, e);
+        }
+    }
+
+    static boolean isSegment(Path path) {
+        return path.getFileName().toString().endsWith(SUFFIX);
+    }
+
+    private static JournalSegment map(Path path, long firstSequence, int size) {
+        try {
+            FileChannel channel = FileChannel.open(path,
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            return new JournalSegment(path, firstSequence, channel, buffer);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot map journal segment " + path, e);
+        }
+    }
+
+    private void recover() {
+        int position = 0;
+        long expected = firstSequence;
+        while (true) {
+            int length = validRecordLength(position, expected);
+            if (length < 0) {
+                break;
+            }
+            position += HEADER_BYTES + length;
+            expected++;
+        }
+        this.forcedPosition = position;
+        this.lastSequence = expected - 1;
+        this.writePosition = position;
+    }
+
+    /** Longitud del payload del registro en {@code position} con la secuencia esperada, o -1. */
+    private int validRecordLength(int position, long expectedSequence) {
+        if (position > buffer.capacity() - HEADER_BYTES) {
+            return -1;
+        }
+        int length = buffer.getInt(position);
+        if (length <= 0 || length > buffer.capacity() - HEADER_BYTES - position) {
+            return -1;
+        }
+        long sequence = buffer.getLong(position + 8);
+        if (sequence != expectedSequence) {
+            return -1;
+        }
+        return checksum(position, length) == buffer.getInt(position + 4) ? length : -1;
+    }
+
+    private int checksum(int position, int length) {
+        crc.reset();
+        crc.update(buffer.slice(position + 8, 16 + length));
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Copia el registro al final del segmento.
+     *
+     * @return posición del registro, o -1 si no cabe y hay que pasar al siguiente segmento
+     */
+    int append(long sequence, long receivedAtMillis, byte[] payload) {
+        int position = writePosition;
+        if (payload.length > buffer.capacity() - HEADER_BYTES - position) {
+            return -1;
+        }
+        buffer.putLong(position + 8, sequence);
+        buffer.putLong(position + 16, receivedAtMillis);
+        buffer.put(position + HEADER_BYTES, payload);
+        buffer.putInt(position + 4, checksum(position, payload.length));
+        buffer.putInt(position, payload.length);
+        lastSequence = sequence;
+        writePosition = position + HEADER_BYTES + payload.length;
+        return position;
+    }
+
+    /** fsync de lo escrito desde el anterior hasta {@code end}. */
+    synchronized void force(int end) {
+        if (end > forcedPosition) {
+            buffer.force(forcedPosition, end - forcedPosition);
+            forcedPosition = end;
+        }
+    }
+
+    /** Recorre los registros con secuencia desde {@code fromSequence} hasta el final escrito. */
+    void read(long fromSequence, RecordVisitor visitor) {
+        int end = writePosition;
+        int position = 0;
+        long sequence = firstSequence;
+        while (position < end) {
+            int length = buffer.getInt(position);
+            if (sequence >= fromSequence) {
+                long receivedAtMillis = buffer.getLong(position + 16);
+                if (!visitor.visit(sequence, receivedAtMillis, buffer.slice(position + HEADER_BYTES, length))) {
+                    return;
+                }
+            }
+            position += HEADER_BYTES + length;
+            sequence++;
+        }
+    }
+
+    long firstSequence() {
+        return firstSequence;
+    }
+
+    long lastSequence() {
+        return lastSequence;
+    }
+
+    int writePosition() {
+        return writePosition;
+    }
+
+    int capacity() {
+        return buffer.capacity();
+    }
+
+    void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot close journal segment " + path, e);
+        }
+    }
+
+    void delete() {
+        close();
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot delete journal segment " + path, e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return path.getFileName().toString();
+    }
+}
@@ -0,0 +1,483 @@
+package com.hacom.order_process_system.repository.journal;
+
+import com.hacom.grpc.CreateOrderRequest;
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.mongodb.MongoSocketException;
+import com.mongodb.MongoTimeoutException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+
+/**
+ * Journal local de órdenes aceptadas ({@code app.journal}): cada {@code CreateOrderRequest} se añade a un
+ * segmento mapeado en memoria ({@link JournalSegment}) antes de escribirla en Mongo, y se confirma según
+ * {@link FsyncPolicy}. Si Mongo no responde por una caída ({@link #isOutage(Throwable)}), la orden queda
+ * diferida: el cliente recibe su respuesta igualmente y {@link OrderJournalReplayer} la escribe cuando
+ * Mongo vuelve. Mientras tanto las órdenes nuevas no esperan a Mongo ({@link #isMongoUnavailable()}), así
+ * que la ingesta sigue al ritmo del disco.
+ * <p>
+ * El checkpoint es la secuencia hasta la que todas las órdenes están en Mongo. Se guarda en el fichero
+ * {@code checkpoint} y los segmentos que quedan por debajo se borran. Al arrancar, las órdenes posteriores
+ * al checkpoint se tratan como diferidas; las que ya estaban en Mongo se descartan por el índice único
+ * de {@code orderId}.
+ * <p>
+ * Con {@code app.journal.enabled=false} no crea ficheros: {@link #append} devuelve {@link #NO_SEQUENCE}
+ * y el resto de operaciones no hacen nada.
+ */
+@Component
+public class OrderJournal {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderJournal.class);
+
+    public static final long NO_SEQUENCE = -1;
+
+    private static final String CHECKPOINT_FILE = "checkpoint";
+    private static final long IDLE_FLUSH_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private record Waiter(long sequence, CompletableFuture<Long> durable) {
+    }
+
+    private final boolean enabled;
+    private final Path directory;
+    private final int segmentSize;
+    private final FsyncPolicy fsyncPolicy;
+    private final long groupCommitNanos;
+
+    private final ConcurrentSkipListMap<Long, JournalSegment> segments = new ConcurrentSkipListMap<>();
+    private final Object appendLock = new Object();
+    private volatile JournalSegment active;
+    private volatile long lastSequence;
+    private volatile boolean closed;
+
+    /** Añadidas y aún no confirmadas en Mongo. */
+    private final ConcurrentSkipListSet<Long> pending = new ConcurrentSkipListSet<>();
+    /** Subconjunto de {@link #pending} que espera al replayer. */
+    private final ConcurrentSkipListSet<Long> deferred = new ConcurrentSkipListSet<>();
+    private final AtomicLong pendingCount = new AtomicLong();
+    private final AtomicLong deferredCount = new AtomicLong();
+    private volatile long checkpoint;
+    private volatile boolean mongoUnavailable;
+
+    private final Queue<Waiter> waiters = new ConcurrentLinkedQueue<>();
+    private final Thread flusher;
+    private volatile boolean flusherIdle;
+    private long durableSequence;
+
+    private Counter appendCounter;
+    private Timer fsyncTimer;
+
+    public OrderJournal(MeterRegistry meterRegistry,
+                        @Value("${app.journal.enabled:false}") boolean enabled,
+                        @Value("${app.journal.dir:data/journal}") String directory,
+                        @Value("${app.journal.segment-size-mb:64}") int segmentSizeMb,
+                        @Value("${app.journal.fsync:group}") String fsyncPolicy,
+                        @Value("${app.journal.group-commit-ms:0}") long groupCommitMs) {
+        this.enabled = enabled;
+        this.directory = Paths.get(directory);
+        this.segmentSize = segmentSizeMb * 1024 * 1024;
+        this.fsyncPolicy = FsyncPolicy.from(fsyncPolicy);
+        this.groupCommitNanos = TimeUnit.MILLISECONDS.toNanos(groupCommitMs);
+
+        if (!enabled) {
+            this.flusher = null;
+            logger.info("Order journal disabled");
+            return;
+        }
+        recover();
+
+        this.appendCounter = Counter.builder("orders.journal.appends")
+                .description("Number of orders written to the local journal")
+                .register(meterRegistry);
+        this.fsyncTimer = Timer.builder("orders.journal.fsync")
+                .description("Latency of each fsync of the local journal")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        Gauge.builder("orders.journal.pending", pendingCount, AtomicLong::get)
+                .description("Number of journaled orders not yet confirmed in Mongo")
+                .register(meterRegistry);
+        Gauge.builder("orders.journal.deferred", deferredCount, AtomicLong::get)
+                .description("Number of acknowledged orders waiting to be replayed into Mongo")
+                .register(meterRegistry);
+        Gauge.builder("orders.journal.segments", segments, Map::size)
+                .description("Number of journal segment files on disk")
+                .register(meterRegistry);
+
+        if (this.fsyncPolicy == FsyncPolicy.GROUP) {
+            this.flusher = new Thread(this::runFlusher, "order-journal-flusher");
+            this.flusher.setDaemon(true);
+            this.flusher.start();
+        } else {
+            this.flusher = null;
+        }
+        logger.info("Order journal in {} (segments of {} MB, fsync {}), checkpoint {}, {} orders to replay",
+                this.directory.toAbsolutePath(), segmentSizeMb, this.fsyncPolicy.name().toLowerCase(),
+                checkpoint, deferredCount.get());
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Añade la orden al journal al suscribirse y emite su secuencia cuando es durable según la política de
+     * fsync. Sin journal emite {@link #NO_SEQUENCE}.
+     */
+    public Mono<Long> append(CreateOrderRequest request, long receivedAtMillis) {
+        if (!enabled) {
+            return Mono.just(NO_SEQUENCE);
+        }
+        return Mono.defer(() -> {
+            if (closed) {
+                return Mono.error(new IllegalStateException("Order journal closed"));
+            }
+            byte[] payload = request.toByteArray();
+            long sequence;
+            JournalSegment segment;
+            int end;
+            CompletableFuture<Long> durable = null;
+            synchronized (appendLock) {
+                sequence = lastSequence + 1;
+                segment = active;
+                if (segment.append(sequence, receivedAtMillis, payload) < 0) {
+                    segment = roll(sequence, payload.length);
+                    segment.append(sequence, receivedAtMillis, payload);
+                }
+                end = segment.writePosition();
+                pending.add(sequence);
+                pendingCount.incrementAndGet();
+                if (fsyncPolicy == FsyncPolicy.GROUP) {
+                    durable = new CompletableFuture<>();
+                    waiters.add(new Waiter(sequence, durable));
+                }
+                lastSequence = sequence;
+            }
+            appendCounter.increment();
+
+            return switch (fsyncPolicy) {
+                case ALWAYS -> {
+                    try {
+                        force(segment, end);
+                    } catch (RuntimeException e) {
+                        abandon(sequence);
+                        yield Mono.error(e);
+                    }
+                    yield Mono.just(sequence);
+                }
+                case GROUP -> {
+                    if (flusherIdle) {
+                        LockSupport.unpark(flusher);
+                    }
+                    // El llamador sigue (emitNext al lote de Mongo incluido) fuera del hilo del flusher
+                    yield Mono.fromFuture(durable).publishOn(Schedulers.parallel());
+                }
+                case NONE -> Mono.just(sequence);
+            };
+        });
+    }
+
+    /** La orden ya está en Mongo (insertada o duplicada). */
+    public void committed(long sequence) {
+        if (sequence == NO_SEQUENCE) {
+            return;
+        }
+        if (deferred.remove(sequence)) {
+            deferredCount.decrementAndGet();
+        }
+        if (pending.remove(sequence)) {
+            pendingCount.decrementAndGet();
+        }
+    }
+
+    /**
+     * La orden no llegó a ser durable y se rechazó al cliente: deja de retener el checkpoint. Si el proceso
+     * se reinicia antes de que el checkpoint la supere se reescribe igualmente, y el índice único de
+     * {@code orderId} descarta el reintento del cliente.
+     */
+    private void abandon(long sequence) {
+        if (pending.remove(sequence)) {
+            pendingCount.decrementAndGet();
+        }
+    }
+
+    /** La orden se confirmó al cliente sin llegar a Mongo: la escribirá el replayer. */
+    public void deferred(long sequence) {
+        if (sequence == NO_SEQUENCE) {
+            return;
+        }
+        if (deferred.add(sequence)) {
+            deferredCount.incrementAndGet();
+        }
+        if (!mongoUnavailable) {
+            mongoUnavailable = true;
+            logger.warn("Mongo unavailable, acknowledging orders from the journal until it recovers");
+        }
+    }
+
+    /** Tras una caída, las órdenes nuevas van directas al replayer sin esperar a que Mongo falle. */
+    public boolean isMongoUnavailable() {
+        return mongoUnavailable;
+    }
+
+    void mongoRecovered() {
+        if (mongoUnavailable) {
+            mongoUnavailable = false;
+            logger.info("Mongo available again, resuming direct writes ({} orders left to replay)",
+                    deferredCount.get());
+        }
+    }
+
+    /** Error de Mongo por el que merece la pena esperar y reintentar, no uno propio de la orden. */
+    public static boolean isOutage(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof DataAccessResourceFailureException
+                    || cause instanceof TransientDataAccessException
+                    || cause instanceof MongoSocketException
+                    || cause instanceof MongoTimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Hasta {@code max} órdenes diferidas, en orden de secuencia. */
+    List<JournalRecord> deferredRecords(int max) {
+        List<JournalRecord> records = new ArrayList<>(Math.min(max, 1024));
+        Long first = deferred.ceiling(Long.MIN_VALUE);
+        if (first == null) {
+            return records;
+        }
+        Long from = segments.floorKey(first);
+        for (JournalSegment segment : segments.tailMap(from == null ? first : from).values()) {
+            segment.read(first, (sequence, receivedAtMillis, payload) -> {
+                if (deferred.contains(sequence)) {
+                    CreateOrderRequest request = parse(sequence, payload);
+                    if (request != null) {
+                        records.add(new JournalRecord(sequence, receivedAtMillis, request));
+                    } else {
+                        committed(sequence);
+                    }
+                }
+                return records.size() < max;
+            });
+            if (records.size() >= max) {
+                break;
+            }
+        }
+        return records;
+    }
+
+    /** null si el payload no es una orden válida; el CRC lo hace improbable, pero no debe bloquear el checkpoint. */
+    private static CreateOrderRequest parse(long sequence, ByteBuffer payload) {
+        try {
+            return CreateOrderRequest.parseFrom(payload);
+        } catch (InvalidProtocolBufferException e) {
+            logger.error("Discarding corrupt order in journal record {}: {}", sequence, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Avanza el checkpoint hasta la última secuencia con todas las anteriores en Mongo, lo guarda y borra los
+     * segmentos que quedan por debajo.
+     *
+     * @return el checkpoint
+     */
+    synchronized long checkpoint() {
+        if (!enabled) {
+            return NO_SEQUENCE;
+        }
+        // lastSequence antes que pending: toda secuencia hasta last ya está en pending si no se ha confirmado
+        long last = lastSequence;
+        Long firstPending = pending.ceiling(Long.MIN_VALUE);
+        long watermark = firstPending == null ? last : firstPending - 1;
+        if (watermark > checkpoint) {
+            writeCheckpoint(watermark);
+            checkpoint = watermark;
+            deleteSegmentsUpTo(watermark);
+        }
+        return checkpoint;
+    }
+
+    private void deleteSegmentsUpTo(long sequence) {
+        for (Map.Entry<Long, JournalSegment> entry : segments.entrySet()) {
+            JournalSegment segment = entry.getValue();
+            Long next = segments.higherKey(entry.getKey());
+            if (segment == active || next == null || next - 1 > sequence) {
+                return;
+            }
+            segments.remove(entry.getKey());
+            segment.delete();
+            if (logger.isDebugEnabled()) {
+                logger.debug("Deleted journal segment {}", segment);
+            }
+        }
+    }
+
+    private void writeCheckpoint(long sequence) {
+        try {
+            Path temporary = directory.resolve(CHECKPOINT_FILE + ".tmp");
+            Files.writeString(temporary, Long.toString(sequence));
+            Files.move(temporary, directory.resolve(CHECKPOINT_FILE),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write journal checkpoint", e);
+        }
+    }
+
+    /** Abre los segmentos existentes y marca como diferidas las órdenes posteriores al checkpoint. */
+    private void recover() {
+        try {
+            Files.createDirectories(directory);
+            Path checkpointFile = directory.resolve(CHECKPOINT_FILE);
+            checkpoint = Files.exists(checkpointFile) ? Long.parseLong(Files.readString(checkpointFile).trim()) : 0;
+            List<Path> files;
+            try (Stream<Path> list = Files.list(directory)) {
+                files = list.filter(JournalSegment::isSegment).sorted().toList();
+            }
+            long last = checkpoint;
+            for (Path file : files) {
+                JournalSegment segment = JournalSegment.open(file);
+                segments.put(segment.firstSequence(), segment);
+                segment.read(checkpoint + 1, (sequence, receivedAtMillis, payload) -> {
+                    pending.add(sequence);
+                    deferred.add(sequence);
+                    return true;
+                });
+                last = Math.max(last, segment.lastSequence());
+            }
+            pendingCount.set(pending.size());
+            deferredCount.set(deferred.size());
+            lastSequence = last;
+            durableSequence = last;
+
+            Map.Entry<Long, JournalSegment> newest = segments.lastEntry();
+            active = newest != null && newest.getValue().lastSequence() == last
+                    ? newest.getValue()
+                    : newSegment(last + 1);
+            deleteSegmentsUpTo(checkpoint);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open order journal in " + directory, e);
+        }
+    }
+
+    /** Cierra el segmento activo (con fsync salvo {@link FsyncPolicy#NONE}) y abre el siguiente. */
+    private JournalSegment roll(long firstSequence, int payloadLength) {
+        if (payloadLength > segmentSize - JournalSegment.HEADER_BYTES) {
+            throw new IllegalArgumentException("Order of " + payloadLength + " bytes does not fit a journal segment");
+        }
+        JournalSegment previous = active;
+        if (fsyncPolicy != FsyncPolicy.NONE) {
+            // El flusher sólo hace fsync del segmento activo
+            force(previous, previous.writePosition());
+        }
+        JournalSegment segment = newSegment(firstSequence);
+        active = segment;
+        return segment;
+    }
+
+    private JournalSegment newSegment(long firstSequence) {
+        JournalSegment segment = JournalSegment.create(directory, firstSequence, segmentSize);
+        segments.put(firstSequence, segment);
+        return segment;
+    }
+
+    /** Sobrescribible en los tests para simular un fallo de disco. */
+    void force(JournalSegment segment, int end) {
+        long start = System.nanoTime();
+        segment.force(end);
+        fsyncTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Group commit: hace fsync de todo lo añadido desde la anterior y confirma los registros cubiertos.
+     * Mientras dura un fsync se acumulan los siguientes, así que el tamaño del grupo se adapta a la carga;
+     * {@code group-commit-ms} añade una espera para agrupar más. Si el fsync falla, las órdenes del grupo se
+     * rechazan y se abandonan.
+     */
+    private void runFlusher() {
+        while (!closed || !waiters.isEmpty()) {
+            long target = lastSequence;
+            if (target == durableSequence) {
+                flusherIdle = true;
+                if (lastSequence == durableSequence && !closed) {
+                    LockSupport.parkNanos(this, IDLE_FLUSH_PARK_NANOS);
+                }
+                flusherIdle = false;
+                continue;
+            }
+            if (groupCommitNanos > 0) {
+                LockSupport.parkNanos(this, groupCommitNanos);
+                target = lastSequence;
+            }
+            try {
+                // Los registros hasta target están en el segmento activo o en uno anterior con fsync al rotar
+                JournalSegment segment = active;
+                force(segment, segment.writePosition());
+                durableSequence = target;
+                Waiter waiter;
+                while ((waiter = waiters.peek()) != null && waiter.sequence() <= target) {
+                    waiters.poll();
+                    waiter.durable().complete(waiter.sequence());
+                }
+            } catch (RuntimeException e) {
+                logger.error("Journal fsync failed: {}", e.getMessage());
+                Waiter waiter;
+                while ((waiter = waiters.peek()) != null && waiter.sequence() <= target) {
+                    waiters.poll();
+                    abandon(waiter.sequence());
+                    waiter.durable().completeExceptionally(e);
+                }
+                durableSequence = target;
+            }
+        }
+    }
+
+    @PreDestroy
+    public void destroy() throws InterruptedException {
+        if (!enabled) {
+            return;
+        }
+        closed = true;
+        if (flusher != null) {
+            LockSupport.unpark(flusher);
+            flusher.join(TimeUnit.SECONDS.toMillis(5));
+        }
+        synchronized (appendLock) {
+            JournalSegment segment = active;
+            segment.force(segment.writePosition());
+            checkpoint();
+            segments.values().forEach(JournalSegment::close);
+        }
+        logger.info("Order journal closed at sequence {} ({} orders left to replay)", lastSequence, deferredCount.get());
+    }
+}
@@ -0,0 +1,160 @@
+package com.hacom.order_process_system.repository.journal;
+
+import com.hacom.order_process_system.model.OrderStatus;
+import com.hacom.order_process_system.repository.OrderBatchWriter;
+import com.hacom.order_process_system.repository.OrderIndexInitializer;
+import com.hacom.order_process_system.util.OderAdapter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+
+/**
+ * Vacía en Mongo las órdenes diferidas del {@link OrderJournal}: cada {@code app.journal.replay-interval-ms}
+ * intenta escribirlas por {@link OrderBatchWriter} (los mismos lotes y contadores que la ingesta) y después
+ * avanza el checkpoint. Una orden que ya estaba en Mongo (clave duplicada) cuenta como escrita. Si Mongo
+ * sigue caído, la ronda se corta y se reintenta en la siguiente; cuando un lote entra completo, las órdenes
+ * nuevas vuelven a escribirse directamente. Hasta que existe el índice único de {@code orderId}
+ * ({@link OrderIndexInitializer}) no se reproduce nada, porque es lo que descarta las ya escritas.
+ * <p>
+ * Cada ronda espera a Mongo con {@code block}, así que corre en el {@code blockingScheduler}: un hilo virtual con
+ * {@code app.blocking.mode=virtual}, y si no uno de boundedElastic.
+ */
+@Component
+public class OrderJournalReplayer {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderJournalReplayer.class);
+
+    private enum Outcome {
+        WRITTEN, DUPLICATE, OUTAGE, FAILED
+    }
+
+    private record Replayed(long sequence, Outcome outcome) {
+    }
+
+    private final OrderJournal orderJournal;
+    private final OrderBatchWriter orderBatchWriter;
+    private final OrderIndexInitializer orderIndexInitializer;
+    private final int batchSize;
+    private final Duration batchTimeout;
+    /** Rondas programadas; null sin journal. */
+    private final Disposable rounds;
+    private final Counter replayedCounter;
+    private final Counter failedCounter;
+
+    public OrderJournalReplayer(OrderJournal orderJournal,
+                                OrderBatchWriter orderBatchWriter,
+                                OrderIndexInitializer orderIndexInitializer,
+                                MeterRegistry meterRegistry,
+                                @Qualifier("blockingScheduler") Scheduler blockingScheduler,
+                                @Value("${app.journal.replay-interval-ms:1000}") long replayIntervalMs,
+                                @Value("${app.journal.replay-batch-size:500}") int batchSize) {
+        this.orderJournal = orderJournal;
+        this.orderBatchWriter = orderBatchWriter;
+        this.orderIndexInitializer = orderIndexInitializer;
+        this.batchSize = batchSize;
+        this.batchTimeout = Duration.ofSeconds(30);
+        this.replayedCounter = Counter.builder("orders.journal.replayed")
+                .description("Number of journaled orders written to Mongo by the replayer")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("orders.journal.replay.failed")
+                .description("Number of journaled orders discarded because Mongo rejected them")
+                .register(meterRegistry);
+
+        if (!orderJournal.isEnabled()) {
+            this.rounds = null;
+            return;
+        }
+        // Retardo fijo entre el final de una ronda y el comienzo de la siguiente
+        this.rounds = Mono.delay(Duration.ofMillis(replayIntervalMs))
+                .then(Mono.fromRunnable(this::replay).subscribeOn(blockingScheduler))
+                .repeat()
+                .subscribe();
+    }
+
+    /** Una ronda: lotes de órdenes diferidas hasta vaciarlas o encontrar Mongo caído, y checkpoint. */
+    void replay() {
+        if (!orderIndexInitializer.isUniqueIndexReady()) {
+            return;
+        }
+        try {
+            List<JournalRecord> records;
+            while (!(records = orderJournal.deferredRecords(batchSize)).isEmpty()) {
+                if (!replayBatch(records)) {
+                    break;
+                }
+            }
+            orderJournal.checkpoint();
+        } catch (RuntimeException e) {
+            logger.error("Journal replay failed: {}", e.getMessage());
+        }
+    }
+
+    /** @return false si Mongo sigue caído */
+    private boolean replayBatch(List<JournalRecord> records) {
+        List<Replayed> results = Flux.fromIterable(records)
+                .flatMap(record -> orderBatchWriter.save(OderAdapter.toOrderRequest(record.request(), OrderStatus.PROCESSED,
+                                Instant.ofEpochMilli(record.receivedAtMillis()).atOffset(ZoneOffset.UTC)))
+                        .thenReturn(new Replayed(record.sequence(), Outcome.WRITTEN))
+                        .onErrorResume(error -> Mono.just(new Replayed(record.sequence(), outcome(record, error)))),
+                        records.size())
+                .collectList()
+                .block(batchTimeout);
+
+        boolean outage = false;
+        int written = 0;
+        for (Replayed result : results) {
+            switch (result.outcome()) {
+                case WRITTEN -> written++;
+                case DUPLICATE -> {
+                }
+                case OUTAGE -> outage = true;
+                case FAILED -> failedCounter.increment();
+            }
+            if (result.outcome() != Outcome.OUTAGE) {
+                orderJournal.committed(result.sequence());
+            }
+        }
+        replayedCounter.increment(written);
+        if (logger.isDebugEnabled()) {
+            logger.debug("Replayed {} of {} journaled orders into Mongo", written, records.size());
+        }
+        if (!outage) {
+            orderJournal.mongoRecovered();
+        }
+        return !outage;
+    }
+
+    private static Outcome outcome(JournalRecord record, Throwable error) {
+        if (error instanceof DuplicateKeyException) {
+            return Outcome.DUPLICATE;
+        }
+        if (OrderJournal.isOutage(error)) {
+            return Outcome.OUTAGE;
+        }
+        logger.error("Discarding journaled order {}: {}", record.request().getOrderId(), error.getMessage());
+        return Outcome.FAILED;
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (rounds != null) {
+            // Una ronda a medias no confirma sus órdenes: se repiten al arrancar y el índice único las descarta
+            rounds.dispose();
+        }
+    }
+}
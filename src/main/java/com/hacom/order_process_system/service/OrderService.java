@@ -1,16 +1,48 @@
 package com.hacom.order_process_system.service;
 
 import com.hacom.order_process_system.model.request.OrderRequest;
+import com.hacom.order_process_system.model.response.OrderCounterCheckResponse;
+import com.hacom.order_process_system.model.response.OrderCounterRebuildResponse;
+import com.hacom.order_process_system.model.response.OrderPageResponse;
+import com.hacom.order_process_system.repository.OrderStatusStore;
+import com.hacom.order_process_system.util.ContinuationToken;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.time.OffsetDateTime;
+import java.util.List;
 
 public interface OrderService {
 
+    /** Devuelve sólo orderId, status y ts de la orden. */
     Mono<OrderRequest> findByOrderId(String orderId);
 
     Mono<Long> countOrdersByDateRange(OffsetDateTime startDate, OffsetDateTime endDate);
 
+    /** Recalcula los contadores pre-agregados de [startDate, endDate) desde la colección de órdenes. */
+    Mono<OrderCounterRebuildResponse> rebuildOrderCounters(OffsetDateTime startDate, OffsetDateTime endDate);
+
+    /** Compara los contadores diarios de [startDate, endDate) con el conteo real de órdenes. */
+    Mono<OrderCounterCheckResponse> checkOrderCounters(OffsetDateTime startDate, OffsetDateTime endDate);
+
+    /**
+     * Órdenes con ts en [startDate, endDate] en orden (ts, _id), a partir de la posterior a {@code after}
+     * (null = desde el principio). Se leen de Mongo según las pide el suscriptor.
+     */
+    Flux<OrderRequest> exportOrders(OffsetDateTime startDate, OffsetDateTime endDate, ContinuationToken after);
+
+    /**
+     * Página de hasta {@code limit} órdenes del cliente, de la más reciente a la más antigua, a partir
+     * de la anterior a {@code after} (null = primera página).
+     */
+    Mono<OrderPageResponse> findCustomerOrders(String customerId, ContinuationToken after, int limit);
+
+    /** Cambio de estado condicional de una orden (findAndModify sobre el estado previo). */
+    Mono<OrderStatusStore.Result> updateOrderStatus(OrderStatusStore.Change change);
+
+    /** Lote de cambios de estado en un solo bulkWrite; un resultado por cambio, en el mismo orden. */
+    Mono<List<OrderStatusStore.Result>> updateOrderStatuses(List<OrderStatusStore.Change> changes);
+
     void receiveOrder(OrderRequest orderRequest);
 
 }
@@ -0,0 +1,144 @@
+package com.hacom.order_process_system.service.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.hacom.order_process_system.model.OrderStatus;
+import com.hacom.order_process_system.model.request.OrderRequest;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.OffsetDateTime;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Caché en proceso de {@code orderId -> (status, ts)} para el endpoint de estado.
+ * <p>
+ * El actor la alimenta al persistir cada orden (write-through), así que los sondeos que siguen a un
+ * {@code CreateOrder} no llegan a Mongo. Las consultas sin resultado también se guardan, con un TTL
+ * corto, para que un orderId inexistente no genere una consulta por sondeo. Está acotada por tamaño y
+ * TTL, y con {@code app.cache.order-status.enabled=false} todas las consultas van directas al loader.
+ */
+@Component
+public class OrderStatusCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderStatusCache.class);
+
+    private static final StatusEntry NOT_FOUND = new StatusEntry(null, null);
+
+    private final Cache<String, StatusEntry> cache;
+
+    private record StatusEntry(OrderStatus status, OffsetDateTime ts) {
+        boolean found() {
+            return this != NOT_FOUND;
+        }
+    }
+
+    @Autowired
+    public OrderStatusCache(MeterRegistry meterRegistry,
+                            @Value("${app.cache.order-status.enabled:true}") boolean enabled,
+                            @Value("${app.cache.order-status.max-size:100000}") long maxSize,
+                            @Value("${app.cache.order-status.ttl-ms:300000}") long ttlMs,
+                            @Value("${app.cache.order-status.negative-ttl-ms:2000}") long negativeTtlMs) {
+        this(meterRegistry, enabled, maxSize, ttlMs, negativeTtlMs, Ticker.systemTicker());
+    }
+
+    OrderStatusCache(MeterRegistry meterRegistry, boolean enabled, long maxSize, long ttlMs, long negativeTtlMs,
+                     Ticker ticker) {
+        if (!enabled) {
+            this.cache = null;
+            logger.info("Order status cache disabled");
+            return;
+        }
+
+        long ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMs);
+        long negativeTtlNanos = TimeUnit.MILLISECONDS.toNanos(negativeTtlMs);
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<String, StatusEntry>() {
+                    @Override
+                    public long expireAfterCreate(String key, StatusEntry value, long currentTime) {
+                        return value.found() ? ttlNanos : negativeTtlNanos;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, StatusEntry value, long currentTime,
+                                                  long currentDuration) {
+                        return expireAfterCreate(key, value, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, StatusEntry value, long currentTime,
+                                                long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .ticker(ticker)
+                .recordStats()
+                .build();
+
+        Gauge.builder("orders.status.cache.size", cache, Cache::estimatedSize)
+                .description("Approximate number of cached order statuses, negative entries included")
+                .register(meterRegistry);
+        Gauge.builder("orders.status.cache.hit.ratio", cache, c -> c.stats().hitRate())
+                .description("Fraction of status lookups answered from the cache")
+                .register(meterRegistry);
+        FunctionCounter.builder("orders.status.cache.evictions", cache, c -> c.stats().evictionCount())
+                .description("Number of cached order statuses evicted by size or expiration")
+                .register(meterRegistry);
+        logger.info("Order status cache enabled (maxSize={}, ttl={}ms, negativeTtl={}ms)",
+                maxSize, ttlMs, negativeTtlMs);
+    }
+
+    /**
+     * Devuelve el estado cacheado o lo carga con {@code loader}. El resultado del loader, vacío incluido,
+     * sólo se guarda si entretanto no llegó una escritura del actor, que siempre es más reciente.
+     */
+    public Mono<OrderRequest> get(String orderId, Function<String, Mono<OrderRequest>> loader) {
+        if (cache == null) {
+            return loader.apply(orderId);
+        }
+        StatusEntry cached = cache.getIfPresent(orderId);
+        if (cached != null) {
+            return cached.found() ? Mono.just(toOrder(orderId, cached)) : Mono.empty();
+        }
+        return loader.apply(orderId)
+                .doOnNext(order -> cache.asMap().putIfAbsent(orderId, new StatusEntry(order.getStatus(), order.getTs())))
+                .switchIfEmpty(Mono.fromRunnable(() -> cache.asMap().putIfAbsent(orderId, NOT_FOUND)));
+    }
+
+    /** Write-through: registra el estado de una orden recién persistida, sustituyendo un negativo previo. */
+    public void put(OrderRequest order) {
+        if (cache != null) {
+            cache.put(order.getOrderId(), new StatusEntry(order.getStatus(), order.getTs()));
+        }
+    }
+
+    /**
+     * Refleja un cambio de estado ya aplicado en Mongo. Sólo toca entradas existentes: una orden que no está
+     * cacheada se leerá de Mongo en la siguiente consulta, y un negativo se descarta porque la orden existe.
+     */
+    public void updateStatus(String orderId, OrderStatus status) {
+        if (cache != null) {
+            cache.asMap().computeIfPresent(orderId,
+                    (id, entry) -> entry.found() ? new StatusEntry(status, entry.ts()) : null);
+        }
+    }
+
+    private static OrderRequest toOrder(String orderId, StatusEntry entry) {
+        OrderRequest order = new OrderRequest();
+        order.setOrderId(orderId);
+        order.setStatus(entry.status());
+        order.setTs(entry.ts());
+        return order;
+    }
+}
@@ -0,0 +1,202 @@
+package com.hacom.order_process_system.service.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.hacom.order_process_system.model.OrderStatus;
+import com.hacom.order_process_system.model.request.OrderRequest;
+import com.hacom.order_process_system.repository.OrderRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Filtro de orderId ya ingeridos para que los reintentos de {@code CreateOrder} no creen órdenes ni SMS duplicados.
+ * <p>
+ * Tres niveles: un LRU exacto con el estado de las órdenes recientes contesta los reintentos sin ir a Mongo;
+ * un filtro bloom con muchos más orderId indica si una orden nueva puede ser repetida, y sólo entonces se
+ * consulta Mongo antes de insertarla; y el índice único de {@code orderId} garantiza la corrección cuando el
+ * filtro no sabe nada (reinicio, otra instancia, reintento con la orden original aún en el lote). El bloom
+ * rota en dos generaciones de {@code app.idempotency.expected-ids} orderId para mantener acotados memoria
+ * y falsos positivos.
+ */
+@Component
+public class RecentOrderIds {
+
+    private static final Logger logger = LoggerFactory.getLogger(RecentOrderIds.class);
+
+    private final OrderRepository orderRepository;
+    private final boolean enabled;
+    private final long expectedIds;
+    private final double falsePositiveRate;
+    private final Cache<String, OrderStatus> recent;
+    private final Counter recentDuplicates;
+    private final Counter storedDuplicates;
+    private final Counter bloomLookups;
+
+    private volatile BloomFilter current;
+    private volatile BloomFilter previous;
+
+    public RecentOrderIds(MeterRegistry meterRegistry,
+                          OrderRepository orderRepository,
+                          @Value("${app.idempotency.enabled:true}") boolean enabled,
+                          @Value("${app.idempotency.expected-ids:1000000}") long expectedIds,
+                          @Value("${app.idempotency.false-positive-rate:0.01}") double falsePositiveRate,
+                          @Value("${app.idempotency.recent-max-size:100000}") long recentMaxSize) {
+        this.orderRepository = orderRepository;
+        this.enabled = enabled;
+        this.expectedIds = expectedIds;
+        this.falsePositiveRate = falsePositiveRate;
+        // Mantenimiento en el hilo que escribe: el desalojo no depende del ForkJoinPool común
+        this.recent = Caffeine.newBuilder().maximumSize(recentMaxSize).executor(Runnable::run).build();
+        this.current = new BloomFilter(expectedIds, falsePositiveRate);
+        this.previous = new BloomFilter(1, falsePositiveRate);
+
+        this.recentDuplicates = Counter.builder("orders.duplicates")
+                .tag("source", "recent")
+                .description("Number of retried orders answered from the in-memory recent orderId set")
+                .register(meterRegistry);
+        this.storedDuplicates = Counter.builder("orders.duplicates")
+                .tag("source", "mongo")
+                .description("Number of retried orders answered from the order already stored in Mongo")
+                .register(meterRegistry);
+        this.bloomLookups = Counter.builder("orders.idempotency.lookups")
+                .description("Number of new orders checked in Mongo because the bloom filter may have seen them")
+                .register(meterRegistry);
+        logger.info("Order idempotency {} (expectedIds={}, fpp={}, recent={}, bloom={} KB per generation)",
+                enabled ? "enabled" : "disabled", expectedIds, falsePositiveRate, recentMaxSize,
+                current.sizeInBytes() >> 10);
+    }
+
+    /**
+     * Orden ya ingerida con este orderId, o vacío si es nueva. Sólo consulta Mongo cuando el orderId
+     * no está en el LRU pero el bloom dice que puede haberse visto.
+     */
+    public Mono<OrderRequest> findOriginal(String orderId) {
+        if (!enabled) {
+            return Mono.empty();
+        }
+        OrderStatus status = recent.getIfPresent(orderId);
+        if (status != null) {
+            recentDuplicates.increment();
+            return Mono.just(toOrder(orderId, status));
+        }
+        if (!current.mightContain(orderId) && !previous.mightContain(orderId)) {
+            return Mono.empty();
+        }
+        bloomLookups.increment();
+        return loadOriginal(orderId);
+    }
+
+    /**
+     * Orden guardada en Mongo con este orderId. Es la resolución cuando el índice único rechaza un insert.
+     */
+    public Mono<OrderRequest> loadOriginal(String orderId) {
+        return orderRepository.findStatusByOrderId(orderId)
+                .doOnNext(original -> {
+                    storedDuplicates.increment();
+                    record(original);
+                });
+    }
+
+    /** Registra una orden recién persistida. */
+    public void record(OrderRequest order) {
+        if (!enabled) {
+            return;
+        }
+        recent.put(order.getOrderId(), order.getStatus());
+        BloomFilter filter = current;
+        if (filter.put(order.getOrderId()) >= expectedIds) {
+            rotate(filter);
+        }
+    }
+
+    private synchronized void rotate(BloomFilter full) {
+        if (current == full) {
+            previous = full;
+            current = new BloomFilter(expectedIds, falsePositiveRate);
+            logger.info("Rotated order idempotency bloom filter after {} orderIds", expectedIds);
+        }
+    }
+
+    private static OrderRequest toOrder(String orderId, OrderStatus status) {
+        OrderRequest order = new OrderRequest();
+        order.setOrderId(orderId);
+        order.setStatus(status);
+        return order;
+    }
+
+    /**
+     * Bloom filter concurrente sobre un {@link AtomicLongArray}, con k posiciones derivadas de un hash
+     * de 64 bits (h1 + i * h2).
+     */
+    static final class BloomFilter {
+        private final AtomicLongArray words;
+        private final long bits;
+        private final int hashes;
+        private final AtomicLong count = new AtomicLong();
+
+        BloomFilter(long expectedIds, double falsePositiveRate) {
+            long n = Math.max(1, expectedIds);
+            long optimalBits = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+            this.words = new AtomicLongArray((int) Math.max(1, (optimalBits + 63) >>> 6));
+            this.bits = (long) words.length() << 6;
+            this.hashes = Math.max(1, (int) Math.round((double) bits / n * Math.log(2)));
+        }
+
+        boolean mightContain(String value) {
+            long hash = hash(value);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 1; i <= hashes; i++) {
+                long bit = Math.floorMod(h1 + (long) i * h2, bits);
+                if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /** Marca el valor y devuelve cuántos valores se han añadido a este filtro. */
+        long put(String value) {
+            long hash = hash(value);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 1; i <= hashes; i++) {
+                long bit = Math.floorMod(h1 + (long) i * h2, bits);
+                int index = (int) (bit >>> 6);
+                long mask = 1L << bit;
+                long word;
+                while (((word = words.get(index)) & mask) == 0 && !words.compareAndSet(index, word, word | mask)) {
+                    Thread.onSpinWait();
+                }
+            }
+            return count.incrementAndGet();
+        }
+
+        long sizeInBytes() {
+            return (long) words.length() * Long.BYTES;
+        }
+
+        /** FNV-1a de 64 bits con el mezclado final de MurmurHash3. */
+        private static long hash(String value) {
+            long hash = 0xcbf29ce484222325L;
+            for (int i = 0; i < value.length(); i++) {
+                hash ^= value.charAt(i);
+                hash *= 0x100000001b3L;
+            }
+            hash ^= hash >>> 33;
+            hash *= 0xff51afd7ed558ccdL;
+            hash ^= hash >>> 33;
+            hash *= 0xc4ceb93e87aa0d53L;
+            hash ^= hash >>> 33;
+            return hash;
+        }
+    }
+}
@@ -1,16 +1,37 @@
 package com.hacom.order_process_system.service.impl;
 
 import com.hacom.order_process_system.model.request.OrderRequest;
+import com.hacom.order_process_system.model.response.OrderCounterCheckResponse;
+import com.hacom.order_process_system.model.response.OrderCounterRebuildResponse;
+import com.hacom.order_process_system.model.response.OrderExportResponse;
+import com.hacom.order_process_system.model.response.OrderPageResponse;
+import com.hacom.order_process_system.repository.OrderCountBuckets;
+import com.hacom.order_process_system.repository.OrderCountBuckets.Granularity;
+import com.hacom.order_process_system.repository.OrderKeysetQueries;
 import com.hacom.order_process_system.repository.OrderRepository;
+import com.hacom.order_process_system.repository.OrderStatusStore;
 import com.hacom.order_process_system.service.OrderService;
+import com.hacom.order_process_system.service.cache.OrderStatusCache;
+import com.hacom.order_process_system.util.ContinuationToken;
+import com.hacom.order_process_system.util.OderAdapter;
 import io.micrometer.core.instrument.Counter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
 
+import java.time.Duration;
 import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicReference;
 
 @Service
 public class OrderServiceImpl implements OrderService {
@@ -19,6 +40,22 @@ public class OrderServiceImpl implements OrderService {
     private final Counter orderProcessedCounter;
     @Autowired
     private OrderRepository orderRepository;
+    @Autowired
+    private OrderStatusCache orderStatusCache;
+    @Autowired
+    private OrderCountBuckets orderCountBuckets;
+    @Autowired
+    private OrderKeysetQueries orderKeysetQueries;
+    @Autowired
+    private OrderStatusStore orderStatusStore;
+    @Value("${app.export.batch-size:500}")
+    private int exportBatchSize;
+    @Value("${app.export.max-retries:3}")
+    private int exportMaxRetries;
+    @Value("${app.customers.orders.max-page-size:200}")
+    private int customerOrdersMaxPageSize;
+    @Value("${app.orders.status.max-batch-size:1000}")
+    private int statusMaxBatchSize;
 
     public OrderServiceImpl(Counter orderReceivedCounter, Counter orderProcessedCounter) {
         this.orderReceivedCounter = orderReceivedCounter;
@@ -28,14 +65,122 @@ public class OrderServiceImpl implements OrderService {
     @Override
     public Mono<OrderRequest> findByOrderId(String orderId) {
         logger.debug("Finding order by ID: {}", orderId);
-        return orderRepository.findByOrderId(orderId);
+        return orderStatusCache.get(orderId, orderRepository::findStatusByOrderId);
     }
 
     @Override
     public Mono<Long> countOrdersByDateRange(OffsetDateTime startDate, OffsetDateTime endDate) {
         logger.debug("Counting orders between {} and {}", startDate, endDate);
-        return orderRepository.findByTsBetween(startDate, endDate).count();
+        // Rangos de días (u horas) completos: suma de buckets en lugar de contar órdenes
+        Granularity granularity = orderCountBuckets.granularityFor(startDate, endDate);
+        if (granularity != null) {
+            return orderCountBuckets.sum(granularity, startDate, endDate);
+        }
+        return orderRepository.countByTsBetween(startDate, endDate);
+    }
+
+    @Override
+    public Mono<OrderCounterRebuildResponse> rebuildOrderCounters(OffsetDateTime startDate, OffsetDateTime endDate) {
+        logger.info("Rebuilding order counters between {} and {}", startDate, endDate);
+        return Flux.fromIterable(orderCountBuckets.granularities())
+                .concatMap(granularity -> orderCountBuckets.rebuild(granularity, startDate, endDate))
+                .reduce(0, Integer::sum)
+                .map(written -> new OrderCounterRebuildResponse(startDate, endDate, written));
+    }
+
+    @Override
+    public Mono<OrderCounterCheckResponse> checkOrderCounters(OffsetDateTime startDate, OffsetDateTime endDate) {
+        logger.info("Checking order counters between {} and {}", startDate, endDate);
+        return Mono.zip(
+                        orderCountBuckets.storedCounts(Granularity.DAY, startDate, endDate),
+                        orderCountBuckets.orderCounts(Granularity.DAY, startDate, endDate))
+                .map(counts -> {
+                    Map<String, Long> stored = counts.getT1();
+                    Map<String, Long> actual = counts.getT2();
+
+                    List<OrderCounterCheckResponse.Mismatch> mismatches = new ArrayList<>();
+                    Set<String> buckets = new TreeSet<>(stored.keySet());
+                    buckets.addAll(actual.keySet());
+                    for (String bucket : buckets) {
+                        long bucketCount = stored.getOrDefault(bucket, 0L);
+                        long orderCount = actual.getOrDefault(bucket, 0L);
+                        if (bucketCount != orderCount) {
+                            mismatches.add(new OrderCounterCheckResponse.Mismatch(bucket, bucketCount, orderCount));
+                        }
+                    }
+                    if (!mismatches.isEmpty()) {
+                        logger.warn("{} order count buckets out of sync between {} and {}",
+                                mismatches.size(), startDate, endDate);
+                    }
+                    return OrderCounterCheckResponse.builder()
+                            .startDate(startDate)
+                            .endDate(endDate)
+                            .consistent(mismatches.isEmpty())
+                            .bucketTotal(stored.values().stream().mapToLong(Long::longValue).sum())
+                            .orderTotal(actual.values().stream().mapToLong(Long::longValue).sum())
+                            .mismatches(mismatches)
+                            .build();
+                });
+    }
+    @Override
+    public Flux<OrderRequest> exportOrders(OffsetDateTime startDate, OffsetDateTime endDate, ContinuationToken after) {
+        logger.info("Exporting orders between {} and {} after {}", startDate, endDate, after);
+        // Si el cursor de Mongo falla a mitad, se reabre tras la última orden ya emitida
+        AtomicReference<ContinuationToken> last = new AtomicReference<>(after);
+        return Flux.defer(() -> orderKeysetQueries.findByTsBetween(startDate, endDate, last.get(), exportBatchSize))
+                .doOnNext(order -> last.set(ContinuationToken.of(order)))
+                .retryWhen(Retry.backoff(exportMaxRetries, Duration.ofMillis(200))
+                        .doBeforeRetry(signal -> logger.warn("Resuming order export after {}: {}",
+                                last.get(), signal.failure().getMessage())));
     }
+
+    @Override
+    public Mono<OrderPageResponse> findCustomerOrders(String customerId, ContinuationToken after, int limit) {
+        logger.debug("Listing orders of customer {} after {}", customerId, after);
+        int pageSize = Math.max(1, Math.min(limit, customerOrdersMaxPageSize));
+        // Un documento de más indica si hay página siguiente sin contar el total
+        return orderKeysetQueries.findByCustomerId(customerId, after, pageSize + 1)
+                .map(OderAdapter::toOrderExportResponse)
+                .collectList()
+                .map(orders -> {
+                    boolean hasMore = orders.size() > pageSize;
+                    List<OrderExportResponse> page = hasMore ? orders.subList(0, pageSize) : orders;
+                    return OrderPageResponse.builder()
+                            .customerId(customerId)
+                            .orders(page)
+                            .nextCursor(hasMore ? page.get(pageSize - 1).getCursor() : null)
+                            .build();
+                });
+    }
+
+    @Override
+    public Mono<OrderStatusStore.Result> updateOrderStatus(OrderStatusStore.Change change) {
+        logger.debug("Updating order {} to status {}", change.orderId(), change.status());
+        return orderStatusStore.update(change)
+                .doOnNext(this::cacheStatus);
+    }
+
+    @Override
+    public Mono<List<OrderStatusStore.Result>> updateOrderStatuses(List<OrderStatusStore.Change> changes) {
+        if (changes.size() > statusMaxBatchSize) {
+            return Mono.error(new IllegalArgumentException("Too many status changes in one request: "
+                    + changes.size() + " (max " + statusMaxBatchSize + ")"));
+        }
+        if (changes.isEmpty()) {
+            return Mono.just(List.of());
+        }
+        logger.debug("Updating the status of {} orders", changes.size());
+        return orderStatusStore.updateAll(changes)
+                .doOnNext(results -> results.forEach(this::cacheStatus));
+    }
+
+    // El estado leído de Mongo tras el cambio, aplicado o no, sustituye al cacheado
+    private void cacheStatus(OrderStatusStore.Result result) {
+        if (result.status() != null) {
+            orderStatusCache.updateStatus(result.orderId(), result.status());
+        }
+    }
+
     @Override
     public void receiveOrder(OrderRequest orderRequest) {
         orderReceivedCounter.increment();
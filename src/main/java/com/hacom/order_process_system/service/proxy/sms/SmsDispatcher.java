@@ -0,0 +1,282 @@
+package com.hacom.order_process_system.service.proxy.sms;
+
+import com.hacom.order_process_system.config.BlockingMode;
+import com.hacom.order_process_system.config.SmppProperties;
+import com.hacom.order_process_system.metrics.OrderStageTimers;
+import com.hacom.order_process_system.metrics.OrderTrace;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.scheduler.Scheduler;
+
+import javax.annotation.PreDestroy;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Etapa de envío de SMS desacoplada del procesamiento de órdenes: los mensajes se encolan
+ * y un executor dedicado los entrega al {@link SmsService}. Como mucho {@code queue-capacity} SMS esperan;
+ * si no hay plaza el SMS se descarta y se contabiliza en {@code sms.dropped}.
+ * <p>
+ * Con {@link BlockingMode#PLATFORM} entregan los hilos del dispatcher de Akka {@code sms-io-dispatcher}
+ * ({@code app.akka.dispatchers.sms-io}); con {@link BlockingMode#VIRTUAL} cada SMS tiene su hilo virtual del
+ * {@code blockingScheduler}, de modo que esperar a una sesión o a hueco en la ventana SMPP no bloquea a los demás.
+ * <p>
+ * Hay una cola por {@link SmsPriority} y cada tarea del executor saca el primer SMS de la cola más
+ * prioritaria en el momento de ejecutarse, no el que la creó: una confirmación de orden adelanta a todos los SMS
+ * masivos en espera. Con {@code app.smpp.tps} ese SMS pasa después por un {@link TokenBucket} de la cuenta
+ * SMPP, un permiso por segmento ({@link SmsEncoder#segmentCount}), y los segmentos rechazados con
+ * ESME_RTHROTTLED (sólo ésos) vuelven a la cola tras un backoff exponencial con jitter, hasta
+ * {@code app.smpp.throttle-max-retries} veces.
+ */
+@Component
+public class SmsDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(SmsDispatcher.class);
+
+    private final SmsService smsService;
+    private final Executor executor;
+    /** Plazas para SMS pendientes (en cola o enviándose). */
+    private final Semaphore pending;
+    private final int queueCapacity;
+    private final Counter droppedCounter;
+    private final OrderStageTimers stageTimers;
+    private final Map<SmsPriority, Queue<QueuedSms>> queues = new EnumMap<>(SmsPriority.class);
+    private final Map<SmsPriority, Timer> queueWaitTimers = new EnumMap<>(SmsPriority.class);
+    private final Map<SmsPriority, Counter> submittedCounters = new EnumMap<>(SmsPriority.class);
+    /** Null sin límite de TPS. */
+    private final TokenBucket rateLimiter;
+    private final ScheduledExecutorService retryScheduler;
+    private final Counter retryCounter;
+    private final int throttleMaxRetries;
+    private final long throttleInitialBackoffMs;
+    private final long throttleMaxBackoffMs;
+
+    /**
+     * SMS en cola; {@code attempt} cuenta los reintentos por ESME_RTHROTTLED y en un reintento
+     * {@code throttled} son los segmentos que hay que reenviar.
+     */
+    private record QueuedSms(String orderId, String phoneNumber, String message, SmsPriority priority,
+                             OrderTrace trace, int attempt, long queuedNanos,
+                             SmsService.ThrottledSegments throttled) {
+
+        /** Permisos de TPS: uno por submit_sm. */
+        int permits() {
+            return throttled != null
+                    ? throttled.count()
+                    : Math.min(SmsEncoder.segmentCount(message), SmsEncoder.MAX_SEGMENTS);
+        }
+    }
+
+    public SmsDispatcher(SmsService smsService,
+                         MeterRegistry meterRegistry,
+                         OrderStageTimers stageTimers,
+                         BlockingMode blockingMode,
+                         @Qualifier("smsIoExecutor") Executor platformExecutor,
+                         @Qualifier("blockingScheduler") Scheduler blockingScheduler,
+                         SmppProperties smppProperties,
+                         @Value("${app.sms.dispatch.queue-capacity:10000}") int queueCapacity) {
+        this.smsService = smsService;
+        this.stageTimers = stageTimers;
+        this.queueCapacity = queueCapacity;
+        this.pending = new Semaphore(queueCapacity);
+        this.throttleMaxRetries = smppProperties.getThrottleMaxRetries();
+        this.throttleInitialBackoffMs = smppProperties.getThrottleInitialBackoffMs();
+        this.throttleMaxBackoffMs = smppProperties.getThrottleMaxBackoffMs();
+        this.rateLimiter = smppProperties.getTps() > 0
+                ? new TokenBucket(smppProperties.getTps(), smppProperties.getBurst())
+                : null;
+
+        // El scheduler y el dispatcher de Akka los cierran Spring y el ActorSystem
+        this.executor = blockingMode == BlockingMode.VIRTUAL ? blockingScheduler::schedule : platformExecutor;
+        this.retryScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "sms-throttle-retry");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        for (SmsPriority priority : SmsPriority.values()) {
+            String tag = priority.name().toLowerCase();
+            queues.put(priority, new ConcurrentLinkedQueue<>());
+            queueWaitTimers.put(priority, Timer.builder("sms.queue.wait")
+                    .tag("priority", tag)
+                    .description("Time an SMS waits in the dispatch queue, including the TPS shaper")
+                    .register(meterRegistry));
+            submittedCounters.put(priority, Counter.builder("sms.submitted")
+                    .tag("priority", tag)
+                    .description("Number of SMS submitted to the SMSC, retries included")
+                    .register(meterRegistry));
+        }
+        this.droppedCounter = Counter.builder("sms.dropped")
+                .description("Number of SMS discarded because the dispatch queue was full")
+                .register(meterRegistry);
+        this.retryCounter = Counter.builder("sms.throttle.retries")
+                .description("Number of SMS requeued after the SMSC answered ESME_RTHROTTLED")
+                .register(meterRegistry);
+        Gauge.builder("sms.queue.size", this, SmsDispatcher::queueSize)
+                .description("Number of SMS waiting to be submitted")
+                .register(meterRegistry);
+        Gauge.builder("sms.rate.limit", smppProperties, SmppProperties::getTps)
+                .description("Configured submit_sm per second for the SMPP account (0 = unlimited)")
+                .register(meterRegistry);
+        logger.info("SMS dispatcher on {} threads ({})", blockingMode.name().toLowerCase(),
+                rateLimiter != null ? smppProperties.getTps() + " tps, burst " + smppProperties.getBurst()
+                        : "no tps limit");
+    }
+
+    /** SMS sin orden asociada (avisos, campañas): prioridad {@link SmsPriority#BULK}. */
+    public boolean dispatch(String phoneNumber, String message) {
+        return dispatch(null, phoneNumber, message, SmsPriority.BULK, null);
+    }
+
+    /**
+     * SMS de la orden {@code orderId}, cuyo estado sigue al envío y al acuse de entrega. Con {@code trace}
+     * no nulo registra la espera en cola y la entrega como etapas de la orden.
+     */
+    public boolean dispatch(String orderId, String phoneNumber, String message, OrderTrace trace) {
+        return dispatch(orderId, phoneNumber, message, SmsPriority.TRANSACTIONAL, trace);
+    }
+
+    public boolean dispatch(String orderId, String phoneNumber, String message, SmsPriority priority,
+                            OrderTrace trace) {
+        return enqueue(new QueuedSms(orderId, phoneNumber, message, priority, trace, 0, System.nanoTime(), null));
+    }
+
+    private boolean enqueue(QueuedSms sms) {
+        if (!pending.tryAcquire()) {
+            droppedCounter.increment();
+            logger.warn("SMS dispatch queue full, SMS to {} dropped", sms.phoneNumber());
+            return false;
+        }
+        return submit(sms);
+    }
+
+    /** Encola {@code sms}, que ya tiene su plaza en {@link #pending}. */
+    private boolean submit(QueuedSms sms) {
+        if (sms.trace() != null) {
+            stageTimers.smsQueued(sms.trace());
+        }
+        Queue<QueuedSms> queue = queues.get(sms.priority());
+        queue.offer(sms);
+        try {
+            executor.execute(this::sendNext);
+            return true;
+        } catch (RejectedExecutionException e) {
+            queue.remove(sms);
+            pending.release();
+            droppedCounter.increment();
+            logger.warn("SMS dispatcher shut down, SMS to {} dropped", sms.phoneNumber());
+            return false;
+        }
+    }
+
+    /** Hay una tarea por SMS encolado, así que siempre queda alguno que sacar. */
+    private void sendNext() {
+        try {
+            QueuedSms sms = poll();
+            if (sms == null) {
+                return;
+            }
+            if (rateLimiter != null) {
+                // Los permisos son los del SMS que se envía, aunque otro más prioritario llegue mientras espera
+                rateLimiter.acquire(sms.permits());
+            }
+            OrderTrace trace = sms.trace();
+            queueWaitTimers.get(sms.priority()).record(System.nanoTime() - sms.queuedNanos(), TimeUnit.NANOSECONDS);
+            submittedCounters.get(sms.priority()).increment();
+            if (trace != null) {
+                stageTimers.smsStarted(trace);
+            }
+            if (sms.throttled() != null) {
+                sms.throttled().resend(throttled -> retry(sms, throttled));
+            } else {
+                smsService.sendSms(sms.orderId(), sms.phoneNumber(), sms.message(),
+                        throttled -> retry(sms, throttled));
+            }
+            if (trace != null) {
+                stageTimers.smsSubmitted(trace);
+            }
+        } finally {
+            pending.release();
+        }
+    }
+
+    private QueuedSms poll() {
+        for (Queue<QueuedSms> queue : queues.values()) {
+            QueuedSms sms = queue.poll();
+            if (sms != null) {
+                return sms;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Llamado desde el hilo de E/S de la sesión SMPP: sólo programa el reintento. La plaza en la cola se
+     * reserva ya, de modo que un reintento que no cabe se rechaza aquí y el SMS cuenta como fallido en vez de
+     * perderse al vencer el backoff.
+     */
+    private boolean retry(QueuedSms sms, SmsService.ThrottledSegments throttled) {
+        if (rateLimiter != null) {
+            rateLimiter.drain();
+        }
+        if (sms.attempt() >= throttleMaxRetries) {
+            logger.warn("SMS to {} still throttled after {} retries", sms.phoneNumber(), sms.attempt());
+            return false;
+        }
+        if (!pending.tryAcquire()) {
+            droppedCounter.increment();
+            logger.warn("SMS dispatch queue full, throttled SMS to {} not retried", sms.phoneNumber());
+            return false;
+        }
+        long delayMs = backoffMs(sms.attempt());
+        try {
+            // Las etapas de la orden ya se registraron en el primer intento
+            retryScheduler.schedule(() -> submit(new QueuedSms(sms.orderId(), sms.phoneNumber(), sms.message(),
+                    sms.priority(), null, sms.attempt() + 1, System.nanoTime(), throttled)),
+                    delayMs, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            pending.release();
+            return false;
+        }
+        retryCounter.increment();
+        if (logger.isDebugEnabled()) {
+            logger.debug("SMS to {} throttled, retry {} of {} segments in {}ms", sms.phoneNumber(),
+                    sms.attempt() + 1, throttled.count(), delayMs);
+        }
+        return true;
+    }
+
+    /** Backoff exponencial con jitter: entre la mitad y el total del tope de este intento. */
+    private long backoffMs(int attempt) {
+        long ceiling = Math.min(throttleMaxBackoffMs, throttleInitialBackoffMs << Math.min(attempt, 20));
+        return ceiling / 2 + ThreadLocalRandom.current().nextLong(ceiling / 2 + 1);
+    }
+
+    private int queueSize() {
+        return queueCapacity - pending.availablePermits();
+    }
+
+    @PreDestroy
+    public void destroy() throws InterruptedException {
+        retryScheduler.shutdownNow();
+        if (!pending.tryAcquire(queueCapacity, 5, TimeUnit.SECONDS)) {
+            logger.warn("SMS dispatcher terminated with {} pending messages", queueSize());
+        }
+    }
+}
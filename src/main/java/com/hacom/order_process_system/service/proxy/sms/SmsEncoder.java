@@ -0,0 +1,296 @@
+package com.hacom.order_process_system.service.proxy.sms;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+
+/**
+ * Codifica el texto de un SMS para el short_message de los submit_sm: GSM-7 (alfabeto por defecto de
+ * GSM 03.38 más su tabla de extensión, data_coding 0x00) si todos los caracteres caben, y si no UCS-2
+ * (UTF-16BE, data_coding 0x08). Un texto de más de 160 septetos (70 en UCS-2) se parte en segmentos de
+ * 153 (67) con la cabecera UDH de concatenación de 8 bits; una secuencia de escape o un par sustituto nunca
+ * quedan partidos entre dos segmentos.
+ * <p>
+ * Con {@code app.sms.encoding.gsm7-packed} el GSM-7 se empaqueta a 7 bits (con el relleno que alinea el
+ * primer septeto tras la UDH); si no, va un septeto por octeto, que es lo que esperan la mayoría de SMSC
+ * por SMPP. El resultado se escribe en un {@link Encoded} por hilo que se reutiliza en la siguiente llamada,
+ * así que codificar no asigna memoria salvo la copia de cada segmento que pide el submit_sm.
+ */
+@Component
+public class SmsEncoder {
+
+    public static final byte DATA_CODING_GSM7 = 0x00;
+    public static final byte DATA_CODING_UCS2 = 0x08;
+    /** La referencia y el total de segmentos de la UDH son de un octeto. */
+    public static final int MAX_SEGMENTS = 255;
+
+    private static final int GSM7_SINGLE = 160;
+    private static final int GSM7_SEGMENT = 153;
+    private static final int UCS2_SINGLE = 70;
+    private static final int UCS2_SEGMENT = 67;
+    private static final int UDH_LENGTH = 6;
+    /** short_message máximo de un segmento en UCS-2 o GSM-7 empaquetado, con la UDH incluida. */
+    private static final int MAX_OCTETS = 140;
+    /** Sin empaquetar un septeto ocupa un octeto: 160 de un mensaje simple, o la UDH y 153. */
+    private static final int MAX_UNPACKED_BYTES = UDH_LENGTH + GSM7_SINGLE;
+    private static final byte ESCAPE = 0x1B;
+
+    /** Septeto de cada char: -1 si no existe en GSM-7, {@code 0x100 | código} si va tras ESC. */
+    private static final short[] GSM7 = new short['€' + 1];
+
+    static {
+        String basic = "@£$¥èéùìòÇ\nØø\rÅåΔ_ΦΓΛΩΠΨΣΘΞ\u001BÆæßÉ !\"#¤%&'()*+,-./0123456789:;<=>?"
+                + "¡ABCDEFGHIJKLMNOPQRSTUVWXYZÄÖÑÜ§¿abcdefghijklmnopqrstuvwxyzäöñüà";
+        if (basic.length() != 128) {
+            throw new IllegalStateException("GSM 03.38 basic table has " + basic.length() + " characters");
+        }
+        Arrays.fill(GSM7, (short) -1);
+        for (int code = 0; code < basic.length(); code++) {
+            if (code != ESCAPE) {
+                GSM7[basic.charAt(code)] = (short) code;
+            }
+        }
+        String extension = "\f^{}\\[~]|€";
+        byte[] extensionCodes = {0x0A, 0x14, 0x28, 0x29, 0x2F, 0x3C, 0x3D, 0x3E, 0x40, 0x65};
+        for (int i = 0; i < extension.length(); i++) {
+            GSM7[extension.charAt(i)] = (short) (0x100 | extensionCodes[i]);
+        }
+    }
+
+    private final boolean gsm7Packed;
+    private final ThreadLocal<Encoded> encodedPerThread = ThreadLocal.withInitial(Encoded::new);
+
+    public SmsEncoder(@Value("${app.sms.encoding.gsm7-packed:false}") boolean gsm7Packed) {
+        this.gsm7Packed = gsm7Packed;
+    }
+
+    /**
+     * Codifica {@code text}; {@code reference} identifica los segmentos de este mensaje en la UDH. El
+     * resultado es válido hasta la siguiente llamada en el mismo hilo.
+     */
+    public Encoded encode(CharSequence text, int reference) {
+        Encoded encoded = encodedPerThread.get();
+        boolean gsm7 = isGsm7(text);
+        int segments = split(text, gsm7, encoded);
+        if (segments > MAX_SEGMENTS) {
+            throw new IllegalArgumentException("Unsupported SMS length: " + segments + " segments (max "
+                    + MAX_SEGMENTS + ")");
+        }
+        encoded.reset(gsm7 ? DATA_CODING_GSM7 : DATA_CODING_UCS2, segments);
+        int maxSegmentBytes = gsm7 && !gsm7Packed ? MAX_UNPACKED_BYTES : MAX_OCTETS;
+
+        for (int segment = 0; segment < segments; segment++) {
+            int offset = encoded.offsets[segment];
+            encoded.ensureCapacity(offset + maxSegmentBytes);
+            byte[] buffer = encoded.buffer;
+            int headerLength = 0;
+            if (segments > 1) {
+                buffer[offset] = UDH_LENGTH - 1;
+                buffer[offset + 1] = 0x00; // concatenación, referencia de 8 bits
+                buffer[offset + 2] = 0x03;
+                buffer[offset + 3] = (byte) reference;
+                buffer[offset + 4] = (byte) segments;
+                buffer[offset + 5] = (byte) (segment + 1);
+                headerLength = UDH_LENGTH;
+            }
+            int start = encoded.charStarts[segment];
+            int end = encoded.charStarts[segment + 1];
+            int length;
+            if (!gsm7) {
+                length = writeUcs2(text, start, end, buffer, offset + headerLength) - offset;
+            } else if (gsm7Packed) {
+                length = writeGsm7Packed(text, start, end, buffer, offset, headerLength);
+            } else {
+                length = writeGsm7(text, start, end, buffer, offset + headerLength) - offset;
+            }
+            encoded.offsets[segment + 1] = offset + length;
+        }
+        return encoded;
+    }
+
+    /** submit_sm que ocupará {@code text}, sin codificarlo. */
+    public static int segmentCount(CharSequence text) {
+        boolean gsm7 = isGsm7(text);
+        int single = gsm7 ? GSM7_SINGLE : UCS2_SINGLE;
+        int perSegment = gsm7 ? GSM7_SEGMENT : UCS2_SEGMENT;
+        if (units(text, gsm7) <= single) {
+            return 1;
+        }
+        int segments = 1;
+        int used = 0;
+        for (int i = 0; i < text.length(); ) {
+            int width = width(text, i, gsm7);
+            if (used + width > perSegment) {
+                segments++;
+                used = 0;
+            }
+            used += width;
+            i += gsm7 ? 1 : width;
+        }
+        return segments;
+    }
+
+    public static boolean isGsm7(CharSequence text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c >= GSM7.length || GSM7[c] < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Límites de segmento en {@code encoded.charStarts}; devuelve el número de segmentos. */
+    private static int split(CharSequence text, boolean gsm7, Encoded encoded) {
+        int length = text.length();
+        if (units(text, gsm7) <= (gsm7 ? GSM7_SINGLE : UCS2_SINGLE)) {
+            encoded.ensureSegments(1);
+            encoded.charStarts[0] = 0;
+            encoded.charStarts[1] = length;
+            return 1;
+        }
+        int perSegment = gsm7 ? GSM7_SEGMENT : UCS2_SEGMENT;
+        int segments = 0;
+        int used = perSegment;
+        for (int i = 0; i < length; ) {
+            int width = width(text, i, gsm7);
+            if (used + width > perSegment) {
+                encoded.ensureSegments(segments + 1);
+                encoded.charStarts[segments++] = i;
+                used = 0;
+            }
+            used += width;
+            i += gsm7 ? 1 : width;
+        }
+        encoded.charStarts[segments] = length;
+        return segments;
+    }
+
+    private static int units(CharSequence text, boolean gsm7) {
+        if (!gsm7) {
+            return text.length();
+        }
+        int septets = 0;
+        for (int i = 0; i < text.length(); i++) {
+            septets += GSM7[text.charAt(i)] > 0xFF ? 2 : 1;
+        }
+        return septets;
+    }
+
+    /** Septetos del char en GSM-7; en UCS-2, 2 para un par sustituto completo y 1 para el resto. */
+    private static int width(CharSequence text, int index, boolean gsm7) {
+        char c = text.charAt(index);
+        if (gsm7) {
+            return GSM7[c] > 0xFF ? 2 : 1;
+        }
+        return Character.isHighSurrogate(c) && index + 1 < text.length()
+                && Character.isLowSurrogate(text.charAt(index + 1)) ? 2 : 1;
+    }
+
+    private static int writeGsm7(CharSequence text, int start, int end, byte[] buffer, int position) {
+        for (int i = start; i < end; i++) {
+            short code = GSM7[text.charAt(i)];
+            if (code > 0xFF) {
+                buffer[position++] = ESCAPE;
+            }
+            buffer[position++] = (byte) code;
+        }
+        return position;
+    }
+
+    /** Septetos empaquetados tras la UDH, empezando en el primer límite de septeto; devuelve los octetos. */
+    private static int writeGsm7Packed(CharSequence text, int start, int end, byte[] buffer, int offset,
+                                       int headerLength) {
+        Arrays.fill(buffer, offset + headerLength, offset + MAX_OCTETS, (byte) 0);
+        int bit = (headerLength * 8 + 6) / 7 * 7;
+        for (int i = start; i < end; i++) {
+            short code = GSM7[text.charAt(i)];
+            if (code > 0xFF) {
+                putSeptet(buffer, offset, bit, ESCAPE);
+                bit += 7;
+            }
+            putSeptet(buffer, offset, bit, code & 0x7F);
+            bit += 7;
+        }
+        return (bit + 7) / 8;
+    }
+
+    private static void putSeptet(byte[] buffer, int offset, int bit, int septet) {
+        int index = offset + bit / 8;
+        int shift = bit % 8;
+        buffer[index] |= (byte) (septet << shift);
+        if (shift > 1) {
+            buffer[index + 1] |= (byte) (septet >> (8 - shift));
+        }
+    }
+
+    private static int writeUcs2(CharSequence text, int start, int end, byte[] buffer, int position) {
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            buffer[position++] = (byte) (c >> 8);
+            buffer[position++] = (byte) c;
+        }
+        return position;
+    }
+
+    /** Segmentos codificados, uno tras otro en {@link #buffer()}; se reutiliza en cada llamada del hilo. */
+    public static final class Encoded {
+
+        private byte[] buffer = new byte[2 * MAX_UNPACKED_BYTES];
+        private int[] offsets = new int[3];
+        private int[] charStarts = new int[3];
+        private byte dataCoding;
+        private int segments;
+
+        private void reset(byte dataCoding, int segments) {
+            this.dataCoding = dataCoding;
+            this.segments = segments;
+            offsets[0] = 0;
+        }
+
+        private void ensureSegments(int segments) {
+            if (charStarts.length < segments + 1) {
+                int capacity = Math.max(segments + 1, charStarts.length * 2);
+                charStarts = Arrays.copyOf(charStarts, capacity);
+                offsets = Arrays.copyOf(offsets, capacity);
+            }
+        }
+
+        private void ensureCapacity(int bytes) {
+            if (buffer.length < bytes) {
+                buffer = Arrays.copyOf(buffer, Math.max(bytes, buffer.length * 2));
+            }
+        }
+
+        public byte dataCoding() {
+            return dataCoding;
+        }
+
+        public int segments() {
+            return segments;
+        }
+
+        /** Con más de un segmento cada short_message empieza por la UDH (esm_class con UDHI). */
+        public boolean isConcatenated() {
+            return segments > 1;
+        }
+
+        public byte[] buffer() {
+            return buffer;
+        }
+
+        public int offset(int segment) {
+            return offsets[segment];
+        }
+
+        public int length(int segment) {
+            return offsets[segment + 1] - offsets[segment];
+        }
+
+        /** Copia del segmento para el submit_sm, que se queda con el array. */
+        public byte[] segment(int segment) {
+            return Arrays.copyOfRange(buffer, offsets[segment], offsets[segment + 1]);
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.hacom.order_process_system.service.proxy.sms;
+
+/**
+ * Prioridad de un SMS en la cola de {@link SmsDispatcher}: los transaccionales (confirmación de una orden)
+ * salen antes que cualquier SMS masivo en espera.
+ */
+public enum SmsPriority {
+
+    TRANSACTIONAL,
+    BULK
+}
@@ -1,5 +1,41 @@
 package com.hacom.order_process_system.service.proxy.sms;
 
 public interface SmsService {
+     /**
+      * Envía el submit_sm sin esperar el submit_sm_resp; el resultado se procesa de forma asíncrona.
+      */
      void sendSms(String phoneNumber, String message);
+
+     /**
+      * Igual que {@link #sendSms(String, String)}, pero asociando el SMS a la orden para reflejar en su
+      * estado el envío y el acuse de entrega.
+      */
+     default void sendSms(String orderId, String phoneNumber, String message) {
+          sendSms(phoneNumber, message);
+     }
+
+     /**
+      * Igual que {@link #sendSms(String, String, String)}; si el SMSC contesta ESME_RTHROTTLED a algún
+      * segmento se llama a {@code onThrottled} con los segmentos frenados, una vez por intento.
+      */
+     default void sendSms(String orderId, String phoneNumber, String message, ThrottleHandler onThrottled) {
+          sendSms(orderId, phoneNumber, message);
+     }
+
+     /** Segmentos de un SMS que el SMSC ha frenado con ESME_RTHROTTLED; los ya aceptados no se repiten. */
+     interface ThrottledSegments {
+
+          /** submit_sm que hay que reenviar. */
+          int count();
+
+          /** Reenvía sólo estos segmentos; los que vuelvan a frenarse llegan a {@code onThrottled}. */
+          void resend(ThrottleHandler onThrottled);
+     }
+
+     @FunctionalInterface
+     interface ThrottleHandler {
+
+          /** Devuelve true si {@code segments} se reenviarán más tarde; si no, cuentan como rechazados. */
+          boolean throttled(ThrottledSegments segments);
+     }
 }
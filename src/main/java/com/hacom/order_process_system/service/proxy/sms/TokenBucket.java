@@ -0,0 +1,71 @@
+package com.hacom.order_process_system.service.proxy.sms;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket de {@code tps} permisos por segundo con hasta {@code burst} acumulados. Cada
+ * {@link #acquire} reserva los siguientes permisos aunque aún no existan (el saldo puede quedar negativo) y
+ * espera hasta su hora, de modo que varios hilos esperando salen repartidos a {@code tps} y no todos a la vez.
+ */
+public class TokenBucket {
+
+    private final double nanosPerToken;
+    private final double burst;
+    private final LongSupplier nanoTime;
+
+    private double tokens;
+    private long lastRefillNanos;
+
+    public TokenBucket(double tps, int burst) {
+        this(tps, burst, System::nanoTime);
+    }
+
+    TokenBucket(double tps, int burst, LongSupplier nanoTime) {
+        if (tps <= 0) {
+            throw new IllegalArgumentException("Unsupported token bucket rate: " + tps);
+        }
+        this.nanosPerToken = TimeUnit.SECONDS.toNanos(1) / tps;
+        this.burst = Math.max(1, burst);
+        this.nanoTime = nanoTime;
+        this.tokens = this.burst;
+        this.lastRefillNanos = nanoTime.getAsLong();
+    }
+
+    /** Bloquea hasta obtener {@code permits} permisos, p. ej. uno por segmento de un SMS largo. */
+    public void acquire(int permits) {
+        long waitNanos = reserve(permits);
+        if (waitNanos > 0) {
+            long deadline = nanoTime.getAsLong() + waitNanos;
+            // parkNanos puede volver antes de tiempo; con hilos virtuales no ocupa el carrier
+            for (long remaining = waitNanos; remaining > 0; remaining = deadline - nanoTime.getAsLong()) {
+                LockSupport.parkNanos(remaining);
+            }
+        }
+    }
+
+    /** Reserva permisos y devuelve cuánto hay que esperar para usarlos (0 si ya están disponibles). */
+    synchronized long reserve(int permits) {
+        refill();
+        tokens -= permits;
+        return tokens >= 0 ? 0 : (long) (-tokens * nanosPerToken);
+    }
+
+    /** El SMSC ha rechazado por exceso de ritmo: se pierde la ráfaga acumulada. */
+    public synchronized void drain() {
+        refill();
+        tokens = Math.min(tokens, 0);
+    }
+
+    public synchronized double available() {
+        refill();
+        return tokens;
+    }
+
+    private void refill() {
+        long now = nanoTime.getAsLong();
+        tokens = Math.min(burst, tokens + (now - lastRefillNanos) / nanosPerToken);
+        lastRefillNanos = now;
+    }
+}
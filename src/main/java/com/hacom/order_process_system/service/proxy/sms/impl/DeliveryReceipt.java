@@ -0,0 +1,100 @@
+package com.hacom.order_process_system.service.proxy.sms.impl;
+
+import com.cloudhopper.smpp.SmppConstants;
+import com.cloudhopper.smpp.pdu.DeliverSm;
+import com.cloudhopper.smpp.tlv.Tlv;
+import com.hacom.order_process_system.model.OrderStatus;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Acuse de entrega del SMSC: el message_id del submit_sm_resp original y su estado final o intermedio.
+ * <p>
+ * Se leen primero los TLV {@code receipted_message_id} y {@code message_state} (SMPP 3.4 §5.3.2.12 y
+ * §5.3.2.35); si faltan, el texto del short_message con el formato habitual
+ * {@code id:IIIIIIIIII sub:SSS dlvrd:DDD submit date:YYMMDDhhmm done date:YYMMDDhhmm stat:DDDDDDD err:E}.
+ * El texto se recorre a mano, sin expresiones regulares, porque llega un acuse por SMS enviado.
+ */
+public record DeliveryReceipt(String messageId, String state) {
+
+    /** Acuse contenido en el deliver_sm, o null si no es un acuse o no trae message_id y estado. */
+    public static DeliveryReceipt parse(DeliverSm deliverSm) {
+        int messageType = deliverSm.getEsmClass() & SmppConstants.ESM_CLASS_MT_MASK;
+        if (messageType != SmppConstants.ESM_CLASS_MT_SMSC_DELIVERY_RECEIPT) {
+            return null;
+        }
+        String messageId = cString(deliverSm.getOptionalParameter(SmppConstants.TAG_RECEIPTED_MSG_ID));
+        String state = messageState(deliverSm.getOptionalParameter(SmppConstants.TAG_MSG_STATE));
+
+        byte[] shortMessage = deliverSm.getShortMessage();
+        if ((messageId == null || state == null) && shortMessage != null && shortMessage.length > 0) {
+            // El texto del acuse es siempre ASCII, sea cual sea el data_coding
+            String text = new String(shortMessage, StandardCharsets.ISO_8859_1);
+            if (messageId == null) {
+                messageId = field(text, "id:");
+            }
+            if (state == null) {
+                state = field(text, "stat:");
+            }
+        }
+        if (messageId == null || messageId.isEmpty() || state == null || state.isEmpty()) {
+            return null;
+        }
+        return new DeliveryReceipt(messageId, state.toUpperCase());
+    }
+
+    /** Estado de la orden que implica el acuse; null para los intermedios (ENROUTE, ACCEPTD, UNKNOWN). */
+    public OrderStatus orderStatus() {
+        return switch (state) {
+            case "DELIVRD" -> OrderStatus.DELIVERED;
+            case "EXPIRED", "DELETED", "UNDELIV", "REJECTD" -> OrderStatus.FAILED;
+            default -> null;
+        };
+    }
+
+    /** Valor de {@code key} hasta el siguiente espacio; null si no aparece. */
+    static String field(String text, String key) {
+        int from = 0;
+        while (true) {
+            int index = text.indexOf(key, from);
+            if (index < 0) {
+                return null;
+            }
+            // "id:" no debe casar dentro de otra clave ni del texto libre posterior
+            if (index == 0 || text.charAt(index - 1) == ' ') {
+                int start = index + key.length();
+                int end = text.indexOf(' ', start);
+                return text.substring(start, end < 0 ? text.length() : end);
+            }
+            from = index + key.length();
+        }
+    }
+
+    private static String cString(Tlv tlv) {
+        if (tlv == null || tlv.getValue() == null) {
+            return null;
+        }
+        byte[] value = tlv.getValue();
+        int length = 0;
+        while (length < value.length && value[length] != 0) {
+            length++;
+        }
+        return new String(value, 0, length, StandardCharsets.ISO_8859_1);
+    }
+
+    private static String messageState(Tlv tlv) {
+        if (tlv == null || tlv.getValue() == null || tlv.getValue().length != 1) {
+            return null;
+        }
+        return switch (tlv.getValue()[0]) {
+            case SmppConstants.STATE_ENROUTE -> "ENROUTE";
+            case SmppConstants.STATE_DELIVERED -> "DELIVRD";
+            case SmppConstants.STATE_EXPIRED -> "EXPIRED";
+            case SmppConstants.STATE_DELETED -> "DELETED";
+            case SmppConstants.STATE_UNDELIVERABLE -> "UNDELIV";
+            case SmppConstants.STATE_ACCEPTED -> "ACCEPTD";
+            case SmppConstants.STATE_REJECTED -> "REJECTD";
+            default -> "UNKNOWN";
+        };
+    }
+}
@@ -0,0 +1,36 @@
+package com.hacom.order_process_system.service.proxy.sms.impl;
+
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Expone el estado del pool SMPP en /actuator/health como componente {@code smpp}.
+ * Está UP mientras quede al menos una sesión enlazada.
+ */
+@Component("smpp")
+public class SmppHealthIndicator implements HealthIndicator {
+
+    private final SmsServiceImpl smsServiceImpl;
+
+    public SmppHealthIndicator(SmsServiceImpl smsServiceImpl) {
+        this.smsServiceImpl = smsServiceImpl;
+    }
+
+    @Override
+    public Health health() {
+        SmppSessionPool pool = smsServiceImpl.getSessionPool();
+        if (pool == null) {
+            return Health.unknown().build();
+        }
+        int bound = pool.boundCount();
+        Health.Builder builder = bound > 0 ? Health.up() : Health.down();
+        return builder
+                .withDetail("boundSessions", bound)
+                .withDetail("configuredSessions", pool.size())
+                .withDetail("inFlight", pool.inFlight())
+                .withDetail("windowCapacity", pool.windowCapacity())
+                .withDetail("rebinds", pool.rebindCount())
+                .build();
+    }
+}
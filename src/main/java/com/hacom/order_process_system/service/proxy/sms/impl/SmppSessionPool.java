@@ -0,0 +1,359 @@
+package com.hacom.order_process_system.service.proxy.sms.impl;
+
+import com.cloudhopper.smpp.PduAsyncResponse;
+import com.cloudhopper.smpp.SmppBindType;
+import com.cloudhopper.smpp.SmppSession;
+import com.cloudhopper.smpp.SmppSessionConfiguration;
+import com.cloudhopper.smpp.SmppSessionHandler;
+import com.cloudhopper.smpp.impl.DefaultSmppClient;
+import com.cloudhopper.smpp.impl.DefaultSmppSessionHandler;
+import com.cloudhopper.smpp.pdu.EnquireLink;
+import com.cloudhopper.smpp.pdu.EnquireLinkResp;
+import com.cloudhopper.smpp.pdu.PduRequest;
+import com.cloudhopper.smpp.pdu.PduResponse;
+import com.cloudhopper.smpp.type.SmppTimeoutException;
+import com.hacom.order_process_system.config.SmppProperties;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Pool de sesiones SMPP TRANSCEIVER, cada una con su propia ventana de submit_sm en vuelo.
+ * Las sesiones se enlazan en segundo plano, se mantienen vivas con enquire_link y se
+ * re-enlazan con backoff exponencial cuando el canal se cae o el bind falla.
+ * <p>
+ * El bind (bloqueante) y el keepalive corren en {@code smpp-pool-*}, con un hilo por sesión más uno, y la
+ * expiración de las ventanas en su propio hilo {@code smpp-monitor}, de modo que un SMSC lento en el bind
+ * no retrasa la expiración de los submit_sm. El enquire_link es asíncrono y sólo se envía tras
+ * {@code enquire-link-interval-ms} sin tráfico en la sesión: bajo carga las respuestas ya prueban el enlace,
+ * y un enquire_link que expira no tira la sesión si entretanto ha llegado otra respuesta.
+ */
+public class SmppSessionPool implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(SmppSessionPool.class);
+
+    private final SmppProperties properties;
+    private final long requestTimeoutMs;
+    private final SmppSessionHandler delegate;
+    private final ScheduledExecutorService scheduler;
+    private final ScheduledExecutorService monitor;
+    private final DefaultSmppClient client;
+    private final long enquireLinkIntervalNanos;
+    private final List<Slot> slots = new ArrayList<>();
+    private final AtomicInteger nextSlot = new AtomicInteger();
+    private final AtomicLong rebinds = new AtomicLong();
+    private volatile boolean running;
+
+    /**
+     * @param delegate recibe las respuestas asíncronas, expiraciones y PDUs entrantes de todas las sesiones
+     */
+    public SmppSessionPool(SmppProperties properties, long requestTimeoutMs, SmppSessionHandler delegate) {
+        this.properties = properties;
+        this.requestTimeoutMs = requestTimeoutMs;
+        this.delegate = delegate;
+        this.enquireLinkIntervalNanos = TimeUnit.MILLISECONDS.toNanos(properties.getEnquireLinkIntervalMs());
+
+        AtomicInteger threadIndex = new AtomicInteger();
+        // Un bind puede bloquear hasta bind-timeout-ms: con un hilo por sesión el keepalive siempre tiene otro
+        this.scheduler = Executors.newScheduledThreadPool(properties.getSessions() + 1, runnable -> {
+            Thread thread = new Thread(runnable, "smpp-pool-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.monitor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "smpp-monitor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.client = new DefaultSmppClient(Executors.newCachedThreadPool(), properties.getSessions(), monitor);
+        for (int i = 0; i < properties.getSessions(); i++) {
+            slots.add(new Slot(i, properties.getRebindInitialBackoffMs()));
+        }
+    }
+
+    public void start() {
+        running = true;
+        logger.info("Starting SMPP session pool with {} sessions against {}:{}",
+                slots.size(), properties.getHost(), properties.getPort());
+        slots.forEach(slot -> scheduler.execute(() -> bind(slot)));
+    }
+
+    /**
+     * Devuelve una sesión enlazada según la estrategia configurada, o {@code null} si no hay ninguna.
+     */
+    public SmppSession acquire() {
+        return properties.getSelection() == SmppProperties.Selection.ROUND_ROBIN
+                ? roundRobin()
+                : leastLoaded();
+    }
+
+    private SmppSession roundRobin() {
+        int size = slots.size();
+        int start = Math.floorMod(nextSlot.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            SmppSession session = slots.get((start + i) % size).session.get();
+            if (session != null && session.isBound()) {
+                return session;
+            }
+        }
+        return null;
+    }
+
+    private SmppSession leastLoaded() {
+        SmppSession best = null;
+        int bestInFlight = Integer.MAX_VALUE;
+        for (Slot slot : slots) {
+            SmppSession session = slot.session.get();
+            if (session != null && session.isBound()) {
+                int inFlight = session.getSendWindow().getSize();
+                if (inFlight < bestInFlight) {
+                    best = session;
+                    bestInFlight = inFlight;
+                }
+            }
+        }
+        return best;
+    }
+
+    public int size() {
+        return slots.size();
+    }
+
+    public int boundCount() {
+        int bound = 0;
+        for (Slot slot : slots) {
+            SmppSession session = slot.session.get();
+            if (session != null && session.isBound()) {
+                bound++;
+            }
+        }
+        return bound;
+    }
+
+    public int inFlight() {
+        int inFlight = 0;
+        for (Slot slot : slots) {
+            SmppSession session = slot.session.get();
+            if (session != null) {
+                inFlight += session.getSendWindow().getSize();
+            }
+        }
+        return inFlight;
+    }
+
+    public int windowCapacity() {
+        return boundCount() * properties.getWindowSize();
+    }
+
+    public long rebindCount() {
+        return rebinds.get();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("smpp.sessions.bound", this, SmppSessionPool::boundCount)
+                .description("Number of SMPP sessions currently bound")
+                .register(registry);
+        Gauge.builder("smpp.sessions.configured", this, SmppSessionPool::size)
+                .description("Number of SMPP sessions configured in the pool")
+                .register(registry);
+        Gauge.builder("smpp.window.inflight", this, SmppSessionPool::inFlight)
+                .description("submit_sm requests awaiting a response across all sessions")
+                .register(registry);
+        Gauge.builder("smpp.window.capacity", this, SmppSessionPool::windowCapacity)
+                .description("Total window slots available on bound sessions")
+                .register(registry);
+        FunctionCounter.builder("smpp.rebinds", this, SmppSessionPool::rebindCount)
+                .description("Number of times a session was lost and scheduled for rebind")
+                .register(registry);
+    }
+
+    public void stop() {
+        running = false;
+        for (Slot slot : slots) {
+            SmppSession session = slot.session.getAndSet(null);
+            slot.cancelKeepAlive();
+            if (session != null) {
+                try {
+                    session.unbind(properties.getBindTimeoutMs());
+                } catch (Exception e) {
+                    logger.warn("Error unbinding SMPP session {}: {}", slot.index, e.getMessage());
+                }
+                session.destroy();
+            }
+        }
+        client.destroy();
+        scheduler.shutdownNow();
+        monitor.shutdownNow();
+        logger.info("SMPP session pool stopped");
+    }
+
+    private void bind(Slot slot) {
+        if (!running) {
+            return;
+        }
+        try {
+            SmppSession session = client.bind(configuration(slot.index), new SlotHandler(slot));
+            slot.lastActivityNanos = System.nanoTime();
+            slot.keepAliveSession = null;
+            slot.session.set(session);
+            slot.backoffMs = properties.getRebindInitialBackoffMs();
+            long interval = properties.getEnquireLinkIntervalMs();
+            slot.keepAlive = scheduler.scheduleWithFixedDelay(() -> enquireLink(slot, session),
+                    interval, interval, TimeUnit.MILLISECONDS);
+            logger.info("SMPP session {} bound", slot.index);
+        } catch (Exception e) {
+            logger.warn("Failed to bind SMPP session {}: {}", slot.index, e.getMessage());
+            scheduleRebind(slot);
+        }
+    }
+
+    /** La respuesta o la expiración llegan a {@link SlotHandler}; aquí no se espera a ninguna de las dos. */
+    private void enquireLink(Slot slot, SmppSession session) {
+        long now = System.nanoTime();
+        if (now - slot.lastActivityNanos < enquireLinkIntervalNanos || slot.keepAliveSession != null) {
+            return;
+        }
+        slot.keepAliveSentNanos = now;
+        slot.keepAliveSession = session;
+        try {
+            // Sin espera por hueco: una ventana llena es tráfico en vuelo, que ya vigila su propia expiración
+            session.sendRequestPdu(new EnquireLink(), 0, false);
+        } catch (SmppTimeoutException e) {
+            slot.keepAliveSession = null;
+        } catch (Exception e) {
+            slot.keepAliveSession = null;
+            logger.warn("enquire_link failed on SMPP session {}: {}", slot.index, e.getMessage());
+            release(slot, session);
+        }
+    }
+
+    /** enquire_link sin respuesta: la sesión sólo se da por muerta si tampoco ha llegado nada más desde entonces. */
+    private void keepAliveExpired(Slot slot) {
+        SmppSession session = slot.keepAliveSession;
+        slot.keepAliveSession = null;
+        if (session == null || slot.lastActivityNanos - slot.keepAliveSentNanos > 0) {
+            return;
+        }
+        logger.warn("enquire_link timed out on SMPP session {}", slot.index);
+        // Llega en el hilo del monitor de ventanas: destruir la sesión no debe retrasar otras expiraciones
+        scheduler.execute(() -> release(slot, session));
+    }
+
+    private void release(Slot slot, SmppSession session) {
+        if (session == null || !slot.session.compareAndSet(session, null)) {
+            return;
+        }
+        slot.cancelKeepAlive();
+        session.destroy();
+        rebinds.incrementAndGet();
+        scheduleRebind(slot);
+    }
+
+    private void scheduleRebind(Slot slot) {
+        if (!running) {
+            return;
+        }
+        long backoff = slot.backoffMs;
+        long delay = backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+        slot.backoffMs = Math.min(backoff * 2, properties.getRebindMaxBackoffMs());
+        logger.info("Rebinding SMPP session {} in {} ms", slot.index, delay);
+        scheduler.schedule(() -> bind(slot), delay, TimeUnit.MILLISECONDS);
+    }
+
+    private SmppSessionConfiguration configuration(int index) {
+        SmppSessionConfiguration config = new SmppSessionConfiguration();
+        config.setName("HacomApp-" + index);
+        config.setType(SmppBindType.TRANSCEIVER);
+        config.setHost(properties.getHost());
+        config.setPort(properties.getPort());
+        config.setSystemId(properties.getSystemId());
+        config.setPassword(properties.getPassword());
+        config.setWindowSize(properties.getWindowSize());
+        config.setBindTimeout(properties.getBindTimeoutMs());
+        config.setConnectTimeout(properties.getBindTimeoutMs());
+        // Necesario para que expiren los submit asíncronos sin respuesta
+        config.setWindowWaitTimeout(requestTimeoutMs);
+        config.setRequestExpiryTimeout(requestTimeoutMs);
+        config.setWindowMonitorInterval(Math.max(requestTimeoutMs / 4, 1000));
+        config.getLoggingOptions().setLogBytes(true);
+        return config;
+    }
+
+    private static final class Slot {
+        private final int index;
+        private final AtomicReference<SmppSession> session = new AtomicReference<>();
+        private volatile long backoffMs;
+        private volatile ScheduledFuture<?> keepAlive;
+        /** Última PDU recibida por la sesión, respuesta o petición del SMSC. */
+        private volatile long lastActivityNanos;
+        /** Sesión con un enquire_link sin respuesta; null si no hay ninguno. */
+        private volatile SmppSession keepAliveSession;
+        private volatile long keepAliveSentNanos;
+
+        private Slot(int index, long backoffMs) {
+            this.index = index;
+            this.backoffMs = backoffMs;
+        }
+
+        private void cancelKeepAlive() {
+            ScheduledFuture<?> future = keepAlive;
+            if (future != null) {
+                future.cancel(false);
+            }
+        }
+    }
+
+    private class SlotHandler extends DefaultSmppSessionHandler {
+        private final Slot slot;
+
+        private SlotHandler(Slot slot) {
+            this.slot = slot;
+        }
+
+        @Override
+        public PduResponse firePduRequestReceived(PduRequest pduRequest) {
+            slot.lastActivityNanos = System.nanoTime();
+            return delegate.firePduRequestReceived(pduRequest);
+        }
+
+        @Override
+        public void fireExpectedPduResponseReceived(PduAsyncResponse pduAsyncResponse) {
+            slot.lastActivityNanos = System.nanoTime();
+            if (pduAsyncResponse.getResponse() instanceof EnquireLinkResp) {
+                slot.keepAliveSession = null;
+                return;
+            }
+            delegate.fireExpectedPduResponseReceived(pduAsyncResponse);
+        }
+
+        @Override
+        public void firePduRequestExpired(PduRequest pduRequest) {
+            if (pduRequest instanceof EnquireLink) {
+                keepAliveExpired(slot);
+                return;
+            }
+            delegate.firePduRequestExpired(pduRequest);
+        }
+
+        @Override
+        public void fireChannelUnexpectedlyClosed() {
+            logger.warn("SMPP session {} channel closed unexpectedly", slot.index);
+            release(slot, slot.session.get());
+        }
+    }
+}
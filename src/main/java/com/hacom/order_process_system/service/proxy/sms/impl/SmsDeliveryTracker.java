@@ -0,0 +1,213 @@
+package com.hacom.order_process_system.service.proxy.sms.impl;
+
+import com.cloudhopper.smpp.pdu.DeliverSm;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.hacom.order_process_system.model.OrderStatus;
+import com.hacom.order_process_system.repository.OrderStatusStore;
+import com.hacom.order_process_system.service.OrderService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.util.retry.Retry;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Sigue la entrega de los SMS de cada orden y la refleja en su estado: SMS_SENT con el submit_sm_resp,
+ * DELIVERED o FAILED con el acuse de entrega ({@link DeliveryReceipt}), o FAILED si el SMSC rechaza el envío.
+ * <p>
+ * El message_id que asigna el SMSC se asocia al orderId en una tabla en memoria acotada por tamaño y TTL
+ * ({@code app.sms.receipts.correlation}); un acuse cuyo message_id ya no está (reinicio, desalojo, otro
+ * nodo) se contabiliza en {@code sms.receipts.correlation.misses} y se descarta. Los cambios de estado se
+ * agrupan como en {@code OrderBatchWriter} y se aplican en orden con
+ * {@link OrderService#updateOrderStatuses}, un bulkWrite por lote en lugar de un update por acuse.
+ */
+@Component
+public class SmsDeliveryTracker {
+
+    private static final Logger logger = LoggerFactory.getLogger(SmsDeliveryTracker.class);
+
+    private final OrderService orderService;
+    private final boolean enabled;
+    private final int queueCapacity;
+    private final int maxRetries;
+    private final Cache<String, String> orderIdsByMessageId;
+    /** Plazas para cambios de estado pendientes de escribir. */
+    private final Semaphore pending;
+    private final Sinks.Many<OrderStatusStore.Change> changes = Sinks.many().unicast().onBackpressureBuffer();
+    private final Counter deliveredReceipts;
+    private final Counter failedReceipts;
+    private final Counter intermediateReceipts;
+    private final Counter correlationMisses;
+    private final Counter droppedChanges;
+    private final DistributionSummary batchSizeSummary;
+
+    public SmsDeliveryTracker(OrderService orderService,
+                              MeterRegistry meterRegistry,
+                              @Value("${app.sms.receipts.enabled:true}") boolean enabled,
+                              @Value("${app.sms.receipts.correlation.max-size:1000000}") long correlationMaxSize,
+                              @Value("${app.sms.receipts.correlation.ttl-ms:259200000}") long correlationTtlMs,
+                              @Value("${app.sms.receipts.batch.size:500}") int batchSize,
+                              @Value("${app.sms.receipts.batch.linger-ms:20}") long lingerMs,
+                              @Value("${app.sms.receipts.batch.queue-capacity:100000}") int queueCapacity,
+                              @Value("${app.sms.receipts.batch.max-retries:3}") int maxRetries) {
+        this.orderService = orderService;
+        this.enabled = enabled;
+        this.queueCapacity = queueCapacity;
+        this.maxRetries = maxRetries;
+        this.pending = new Semaphore(queueCapacity);
+        // Mantenimiento en el hilo que escribe: el desalojo no depende del ForkJoinPool común
+        this.orderIdsByMessageId = Caffeine.newBuilder()
+                .maximumSize(correlationMaxSize)
+                .expireAfterWrite(Duration.ofMillis(correlationTtlMs))
+                .executor(Runnable::run)
+                .build();
+
+        this.deliveredReceipts = receiptCounter(meterRegistry, "delivered");
+        this.failedReceipts = receiptCounter(meterRegistry, "failed");
+        this.intermediateReceipts = receiptCounter(meterRegistry, "intermediate");
+        this.correlationMisses = Counter.builder("sms.receipts.correlation.misses")
+                .description("Number of delivery receipts whose message_id is not in the correlation table")
+                .register(meterRegistry);
+        this.droppedChanges = Counter.builder("sms.status.dropped")
+                .description("Number of order status changes from SMPP discarded because the queue was full")
+                .register(meterRegistry);
+        this.batchSizeSummary = DistributionSummary.builder("sms.status.batch.size")
+                .description("Number of order status changes from SMPP written per batch")
+                .register(meterRegistry);
+        Gauge.builder("sms.receipts.correlation.size", orderIdsByMessageId, Cache::estimatedSize)
+                .description("Number of submitted SMS awaiting their delivery receipt")
+                .register(meterRegistry);
+        Gauge.builder("sms.status.queue.size", this, SmsDeliveryTracker::queueSize)
+                .description("Number of order status changes from SMPP waiting to be written")
+                .register(meterRegistry);
+
+        // Un lote cada vez: los cambios de una misma orden (SMS_SENT y luego DELIVERED) no se adelantan
+        changes.asFlux()
+                .bufferTimeout(batchSize, Duration.ofMillis(lingerMs), true)
+                .concatMap(this::flush)
+                .subscribe();
+        logger.info("SMS delivery tracking {} (correlation={}, ttl={}ms, batch={}, linger={}ms)",
+                enabled ? "enabled" : "disabled", correlationMaxSize, correlationTtlMs, batchSize, lingerMs);
+    }
+
+    private static Counter receiptCounter(MeterRegistry meterRegistry, String state) {
+        return Counter.builder("sms.receipts")
+                .tag("state", state)
+                .description("Number of delivery receipts received from the SMSC")
+                .register(meterRegistry);
+    }
+
+    /** Con el seguimiento activo los submit_sm piden acuse de entrega al SMSC. */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /** submit_sm aceptado por el SMSC con {@code messageId}. */
+    public void submitted(String orderId, String messageId) {
+        if (!enabled || orderId == null) {
+            return;
+        }
+        // SMS_SENT entra en la cola antes de publicar la correlación: un acuse muy rápido en otra sesión
+        // encola su estado final detrás y no lo adelanta
+        enqueue(orderId, OrderStatus.SMS_SENT);
+        if (messageId != null && !messageId.isEmpty()) {
+            orderIdsByMessageId.put(messageId, orderId);
+        }
+    }
+
+    /**
+     * SMS de la orden rechazado por el SMSC. Sin sesión enlazada o sin submit_sm_resp el estado no cambia:
+     * la orden sigue procesada y un caducado puede haber llegado al SMSC igualmente.
+     */
+    public void failed(String orderId) {
+        if (!enabled || orderId == null) {
+            return;
+        }
+        enqueue(orderId, OrderStatus.FAILED);
+    }
+
+    /** deliver_sm recibido del SMSC; lo que no es un acuse (p. ej. un SMS entrante) se ignora. */
+    public void receiptReceived(DeliverSm deliverSm) {
+        DeliveryReceipt receipt = DeliveryReceipt.parse(deliverSm);
+        if (receipt == null) {
+            logger.debug("Ignoring deliver_sm that is not a delivery receipt: {}", deliverSm);
+            return;
+        }
+        OrderStatus status = receipt.orderStatus();
+        if (status == null) {
+            intermediateReceipts.increment();
+        } else if (status == OrderStatus.DELIVERED) {
+            deliveredReceipts.increment();
+        } else {
+            failedReceipts.increment();
+        }
+        if (!enabled) {
+            return;
+        }
+
+        String orderId = orderIdsByMessageId.getIfPresent(receipt.messageId());
+        if (orderId == null) {
+            correlationMisses.increment();
+            logger.debug("No order for delivery receipt of message {} ({})", receipt.messageId(), receipt.state());
+            return;
+        }
+        if (status != null) {
+            // Estado final: no llegarán más acuses de este mensaje
+            orderIdsByMessageId.invalidate(receipt.messageId());
+            enqueue(orderId, status);
+        }
+    }
+
+    private void enqueue(String orderId, OrderStatus status) {
+        if (!pending.tryAcquire()) {
+            droppedChanges.increment();
+            logger.warn("SMS status queue full, status {} of order {} dropped", status, orderId);
+            return;
+        }
+        changes.emitNext(new OrderStatusStore.Change(orderId, status, null),
+                Sinks.EmitFailureHandler.busyLooping(Duration.ofMillis(100)));
+    }
+
+    private Mono<Void> flush(List<OrderStatusStore.Change> batch) {
+        batchSizeSummary.record(batch.size());
+        return orderService.updateOrderStatuses(batch)
+                .retryWhen(Retry.backoff(maxRetries, Duration.ofMillis(200)))
+                .doOnNext(results -> {
+                    if (logger.isDebugEnabled()) {
+                        long applied = results.stream()
+                                .filter(result -> result.outcome() == OrderStatusStore.Outcome.APPLIED)
+                                .count();
+                        logger.debug("Applied {} of {} order status changes from SMPP", applied, batch.size());
+                    }
+                })
+                .onErrorResume(error -> {
+                    logger.error("Error writing {} order status changes from SMPP: {}", batch.size(),
+                            error.getMessage());
+                    return Mono.empty();
+                })
+                .doFinally(signal -> pending.release(batch.size()))
+                .then();
+    }
+
+    private int queueSize() {
+        return queueCapacity - pending.availablePermits();
+    }
+
+    @PreDestroy
+    public void destroy() {
+        // Completar el flujo escribe el último lote pendiente antes de cerrar el cliente
+        changes.tryEmitComplete();
+    }
+}
@@ -1,106 +1,348 @@
 package com.hacom.order_process_system.service.proxy.sms.impl;
 
-import com.cloudhopper.smpp.SmppBindType;
+import com.cloudhopper.smpp.PduAsyncResponse;
+import com.cloudhopper.smpp.SmppConstants;
 import com.cloudhopper.smpp.SmppSession;
 
-import com.cloudhopper.smpp.SmppSessionConfiguration;
-import com.cloudhopper.smpp.impl.DefaultSmppClient;
 import com.cloudhopper.smpp.impl.DefaultSmppSessionHandler;
+import com.cloudhopper.smpp.pdu.DeliverSm;
 import com.cloudhopper.smpp.pdu.PduRequest;
 import com.cloudhopper.smpp.pdu.PduResponse;
 import com.cloudhopper.smpp.pdu.SubmitSm;
+import com.cloudhopper.smpp.pdu.SubmitSmResp;
 import com.cloudhopper.smpp.type.Address;
+import com.hacom.order_process_system.config.SmppProperties;
+import com.hacom.order_process_system.service.proxy.sms.SmsEncoder;
 import com.hacom.order_process_system.service.proxy.sms.SmsService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Service
 public class SmsServiceImpl implements SmsService {
 
     private static final Logger logger = LoggerFactory.getLogger(SmsServiceImpl.class);
 
-    private DefaultSmppClient client;
-    private SmppSession session;
+    private final SmppProperties smppProperties;
+    private final MeterRegistry meterRegistry;
+    private final SmsDeliveryTracker deliveryTracker;
+    private final SmsEncoder smsEncoder;
+    private final long submitTimeoutMs;
+    private final Timer submitLatency;
+    private final Counter failedCounter;
+    private final Counter throttledCounter;
+    private final DistributionSummary gsm7Segments;
+    private final DistributionSummary ucs2Segments;
+    /** Referencia de la UDH de concatenación: 8 bits, distinta para cada SMS hasta dar la vuelta. */
+    private final AtomicInteger concatReference = new AtomicInteger();
+
+    private SmppSessionPool sessionPool;
+
+    public SmsServiceImpl(SmppProperties smppProperties,
+                          MeterRegistry meterRegistry,
+                          SmsDeliveryTracker deliveryTracker,
+                          SmsEncoder smsEncoder,
+                          @Value("${app.sms.submit-timeout-ms:10000}") long submitTimeoutMs) {
+        this.smppProperties = smppProperties;
+        this.meterRegistry = meterRegistry;
+        this.deliveryTracker = deliveryTracker;
+        this.smsEncoder = smsEncoder;
+        this.submitTimeoutMs = submitTimeoutMs;
+        this.submitLatency = Timer.builder("sms.submit.latency")
+                .description("Time from submit_sm to its submit_sm_resp")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("sms.failed")
+                .description("Number of SMS rejected by the SMSC, expired or without a bound session")
+                .register(meterRegistry);
+        this.throttledCounter = Counter.builder("sms.throttled")
+                .description("Number of submit_sm rejected by the SMSC with ESME_RTHROTTLED")
+                .register(meterRegistry);
+        this.gsm7Segments = segmentsSummary(meterRegistry, "gsm7");
+        this.ucs2Segments = segmentsSummary(meterRegistry, "ucs2");
+    }
+
+    private static DistributionSummary segmentsSummary(MeterRegistry meterRegistry, String encoding) {
+        return DistributionSummary.builder("sms.segments")
+                .tag("encoding", encoding)
+                .description("Number of submit_sm segments per SMS")
+                .register(meterRegistry);
+    }
+
+    private enum SegmentResult {
+        ACCEPTED,
+        THROTTLED,
+        REJECTED,
+        /** Caducado o sin enviar: no se sabe si llegó al SMSC. */
+        NO_RESPONSE
+    }
+
+    /** Datos de correlación que viajan como referenceObject de cada submit_sm: el SMS, el intento y el segmento. */
+    private record PendingSubmit(OutgoingSms sms, int attempt, int segment, long startNanos) {
+
+        void completed(SegmentResult result, String detail) {
+            sms.completed(attempt, segment, result, detail);
+        }
+    }
+
+    /** Segmentos frenados en un intento, que el dispatcher reenvía tras el backoff. */
+    private record ThrottledRetry(OutgoingSms sms, int[] segments) implements ThrottledSegments {
+
+        @Override
+        public int count() {
+            return segments.length;
+        }
+
+        @Override
+        public void resend(ThrottleHandler onThrottled) {
+            sms.send(segments, onThrottled);
+        }
+    }
 
     @PostConstruct
     public void init() {
-        try {
-            logger.info("Initializing SMPP client");
-            client = new DefaultSmppClient();
-
-            // Configuración SMPP (ejemplo - ajustar según el proveedor)
-            SmppSessionConfiguration config = new SmppSessionConfiguration();
-            config.setWindowSize(1);
-            config.setName("HacomApp");
-            config.setType(SmppBindType.TRANSCEIVER);
-
-            config.setHost("localhost"); // Cambiar por la IP del servidor SMPP
-            config.setPort(2775); // Puerto SMPP
-            config.setSystemId("test"); // Sistema ID
-            config.setPassword("test"); // Password
-            config.getLoggingOptions().setLogBytes(true);
-
-            // Crear sesión
-            session = client.bind(config, new DefaultSmppSessionHandler() {
-                @Override
-                public void firePduRequestExpired(PduRequest pduRequest) {
-                    logger.warn("PDU request expired: {}", pduRequest);
+        logger.info("Initializing SMPP session pool");
+        // Las sesiones se enlazan en segundo plano y se re-enlazan solas si el SMSC no está disponible
+        sessionPool = new SmppSessionPool(smppProperties, submitTimeoutMs, new DefaultSmppSessionHandler() {
+            @Override
+            public void fireExpectedPduResponseReceived(PduAsyncResponse pduAsyncResponse) {
+                onSubmitResponse(pduAsyncResponse.getRequest(), pduAsyncResponse.getResponse());
+            }
+
+            @Override
+            public PduResponse firePduRequestReceived(PduRequest pduRequest) {
+                if (pduRequest instanceof DeliverSm deliverSm) {
+                    deliveryTracker.receiptReceived(deliverSm);
                 }
-            });
+                // El SMSC reenvía los deliver_sm sin respuesta: se confirman todos, también los que no se reconocen
+                return pduRequest.createResponse();
+            }
+
+            @Override
+            public void firePduRequestExpired(PduRequest pduRequest) {
+                logger.warn("PDU request expired: {}", pduRequest);
+                if (pduRequest.getReferenceObject() instanceof PendingSubmit pending) {
+                    pending.completed(SegmentResult.NO_RESPONSE, "submit_sm expired");
+                }
+            }
+        });
+        sessionPool.bindTo(meterRegistry);
+        sessionPool.start();
+    }
+
+    public SmppSessionPool getSessionPool() {
+        return sessionPool;
+    }
 
-            logger.info("SMPP session established successfully");
+    @Override
+    public void sendSms(String phoneNumber, String message) {
+        sendSms(null, phoneNumber, message);
+    }
 
+    @Override
+    public void sendSms(String orderId, String phoneNumber, String message) {
+        sendSms(orderId, phoneNumber, message, null);
+    }
+
+    @Override
+    public void sendSms(String orderId, String phoneNumber, String message, ThrottleHandler onThrottled) {
+        if (logger.isTraceEnabled()) {
+            logger.trace("Sending SMS to {}: {}", phoneNumber, message);
+        }
+        OutgoingSms sms;
+        try {
+            // OutgoingSms guarda los segmentos y los reenvíos tras ESME_RTHROTTLED los reutilizan con esta referencia
+            SmsEncoder.Encoded encoded = smsEncoder.encode(message, concatReference.getAndIncrement() & 0xFF);
+            (encoded.dataCoding() == SmsEncoder.DATA_CODING_GSM7 ? gsm7Segments : ucs2Segments)
+                    .record(encoded.segments());
+            sms = new OutgoingSms(orderId, phoneNumber, encoded);
         } catch (Exception e) {
-            logger.error("Failed to initialize SMPP client: {}", e.getMessage());
-            // En un entorno real, podrías querer que la aplicación no falle por esto
-            // o implementar reconexión automática
+            failedCounter.increment();
+            logger.error("Error sending SMS to {}: {}", phoneNumber, e.getMessage());
+            return;
         }
+        sms.send(sms.allSegments(), onThrottled);
     }
-   @Override
-    public void sendSms(String phoneNumber, String message) {
-        if (session == null || !session.isBound()) {
-            logger.warn("SMPP session not available. SMS not sent to {}: {}", phoneNumber, message);
+
+    private void onSubmitResponse(PduRequest request, PduResponse response) {
+        if (!(request.getReferenceObject() instanceof PendingSubmit pending)) {
             return;
         }
+        submitLatency.record(System.nanoTime() - pending.startNanos(), TimeUnit.NANOSECONDS);
 
-        try {
-            logger.info("Sending SMS to {}: {}", phoneNumber, message);
+        int status = response.getCommandStatus();
+        if (status == 0) {
+            if (logger.isDebugEnabled()) {
+                logger.debug("SMS sent successfully to {}", pending.sms().phoneNumber);
+            }
+            pending.completed(SegmentResult.ACCEPTED, ((SubmitSmResp) response).getMessageId());
+        } else if (status == SmppConstants.STATUS_THROTTLED) {
+            throttledCounter.increment();
+            pending.completed(SegmentResult.THROTTLED, null);
+        } else {
+            pending.completed(SegmentResult.REJECTED, "Status: " + status);
+        }
+    }
+
+    /**
+     * SMS en curso. Cada intento envía algunos de sus segmentos; cuando han respondido todos, los frenados con
+     * ESME_RTHROTTLED se pasan juntos al {@link ThrottleHandler} y sólo ésos se reenvían. El SMS cuenta una
+     * vez en {@code sms.failed} aunque fallen varios segmentos, y la orden sólo pasa a FAILED si el SMSC
+     * rechaza el último, el que pide el acuse de entrega.
+     */
+    private final class OutgoingSms {
+
+        private final String orderId;
+        private final String phoneNumber;
+        private final byte dataCoding;
+        private final byte[][] segments;
+        private final boolean[] awaiting;
+        private final int[] throttled;
+        private int throttledCount;
+        private int outstanding;
+        private int attempt;
+        private ThrottleHandler onThrottled;
+        private boolean failed;
+
+        OutgoingSms(String orderId, String phoneNumber, SmsEncoder.Encoded encoded) {
+            this.orderId = orderId;
+            this.phoneNumber = phoneNumber;
+            this.dataCoding = encoded.dataCoding();
+            this.segments = new byte[encoded.segments()][];
+            for (int segment = 0; segment < segments.length; segment++) {
+                segments[segment] = encoded.segment(segment);
+            }
+            this.awaiting = new boolean[segments.length];
+            this.throttled = new int[segments.length];
+        }
+
+        int[] allSegments() {
+            int[] all = new int[segments.length];
+            Arrays.setAll(all, segment -> segment);
+            return all;
+        }
+
+        private boolean isLast(int segment) {
+            return segment == segments.length - 1;
+        }
+
+        void send(int[] indexes, ThrottleHandler handler) {
+            SmppSession session = sessionPool.acquire();
+            if (session == null) {
+                fail("SMPP session not available", false);
+                return;
+            }
+            int current;
+            synchronized (this) {
+                current = ++attempt;
+                onThrottled = handler;
+                outstanding = indexes.length;
+                throttledCount = 0;
+                for (int segment : indexes) {
+                    awaiting[segment] = true;
+                }
+            }
+            for (int i = 0; i < indexes.length; i++) {
+                try {
+                    // Envío asíncrono: la respuesta llega por fireExpectedPduResponseReceived
+                    session.sendRequestPdu(submitSm(current, indexes[i]), submitTimeoutMs, false);
+                } catch (Exception e) {
+                    // Ni éste ni los siguientes tendrán submit_sm_resp
+                    for (int unsent = i; unsent < indexes.length; unsent++) {
+                        completed(current, indexes[unsent], SegmentResult.NO_RESPONSE, e.getMessage());
+                    }
+                    return;
+                }
+            }
+        }
 
+        private SubmitSm submitSm(int attempt, int segment) throws Exception {
             SubmitSm submit = new SubmitSm();
-            submit.setSourceAddress(new Address((byte) 0x00, (byte) 0x00, "12345"));
+            submit.setSourceAddress(new Address((byte) 0x00, (byte) 0x00, smppProperties.getSourceAddress()));
             submit.setDestAddress(new Address((byte) 0x01, (byte) 0x01, phoneNumber));
-            submit.setShortMessage(message.getBytes());
-
-            PduResponse response = session.submit(submit, 10000);
+            submit.setDataCoding(dataCoding);
+            if (segments.length > 1) {
+                submit.setEsmClass(SmppConstants.ESM_CLASS_UDHI_MASK);
+            }
+            submit.setShortMessage(segments[segment]);
+            if (isLast(segment) && orderId != null && deliveryTracker.isEnabled()) {
+                submit.setRegisteredDelivery(SmppConstants.REGISTERED_DELIVERY_SMSC_RECEIPT_REQUESTED);
+            }
+            submit.setReferenceObject(new PendingSubmit(this, attempt, segment, System.nanoTime()));
+            return submit;
+        }
 
-            if (response.getCommandStatus() == 0) {
-                logger.info("SMS sent successfully to {}", phoneNumber);
-            } else {
-                logger.error("Failed to send SMS to {}. Status: {}", phoneNumber, response.getCommandStatus());
+        /** Resultado de un segmento; los de intentos anteriores o repetidos (caducado y además sin enviar) se ignoran. */
+        void completed(int attempt, int segment, SegmentResult result, String detail) {
+            int[] retry = null;
+            ThrottleHandler handler = null;
+            synchronized (this) {
+                if (attempt != this.attempt || !awaiting[segment]) {
+                    return;
+                }
+                awaiting[segment] = false;
+                if (result == SegmentResult.THROTTLED) {
+                    throttled[throttledCount++] = segment;
+                }
+                if (--outstanding == 0 && throttledCount > 0) {
+                    retry = Arrays.copyOf(throttled, throttledCount);
+                    handler = onThrottled;
+                }
+            }
+            switch (result) {
+                case ACCEPTED -> {
+                    if (isLast(segment)) {
+                        deliveryTracker.submitted(orderId, detail);
+                    }
+                }
+                case REJECTED -> fail(detail, isLast(segment));
+                case NO_RESPONSE -> fail(detail, false);
+                case THROTTLED -> {
+                }
             }
+            if (retry != null) {
+                Arrays.sort(retry);
+                if (handler == null || !handler.throttled(new ThrottledRetry(this, retry))) {
+                    fail("Status: " + SmppConstants.STATUS_THROTTLED, isLast(retry[retry.length - 1]));
+                }
+            }
+        }
 
-        } catch (Exception e) {
-            logger.error("Error sending SMS to {}: {}", phoneNumber, e.getMessage());
+        /** {@code rejectedLast}: el SMSC ha rechazado el segmento que sigue la orden. */
+        private void fail(String reason, boolean rejectedLast) {
+            boolean first;
+            synchronized (this) {
+                first = !failed;
+                failed = true;
+            }
+            if (first) {
+                failedCounter.increment();
+                logger.error("Failed to send SMS to {}. {}", phoneNumber, reason);
+            }
+            if (rejectedLast) {
+                deliveryTracker.failed(orderId);
+            }
         }
     }
 
     @PreDestroy
     public void destroy() {
         try {
-            if (session != null) {
-                session.close();
-                logger.info("SMPP session closed");
-            }
-            if (client != null) {
-                client.destroy();
-                logger.info("SMPP client destroyed");
+            if (sessionPool != null) {
+                sessionPool.stop();
             }
         } catch (Exception e) {
             logger.error("Error closing SMPP resources: {}", e.getMessage());
         }
     }
-}
\ No newline at end of file
+}
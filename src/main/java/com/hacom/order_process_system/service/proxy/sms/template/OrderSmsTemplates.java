@@ -0,0 +1,39 @@
+package com.hacom.order_process_system.service.proxy.sms.template;
+
+import com.hacom.grpc.CreateOrderRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Plantillas de las notificaciones SMS de órdenes ({@code app.sms.templates}). Campos disponibles:
+ * {@code {orderId}}, {@code {customerId}} y {@code {itemCount}}.
+ */
+@Component
+public class OrderSmsTemplates {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderSmsTemplates.class);
+
+    public static final String DEFAULT_ORDER_PROCESSED = "Your order {orderId} has been processed";
+
+    private static final Map<String, BiConsumer<CreateOrderRequest, StringBuilder>> FIELDS = Map.of(
+            "orderId", (request, builder) -> builder.append(request.getOrderId()),
+            "customerId", (request, builder) -> builder.append(request.getCustomerId()),
+            "itemCount", (request, builder) -> builder.append(request.getItemsCount()));
+
+    private final SmsTemplate<CreateOrderRequest> orderProcessed;
+
+    public OrderSmsTemplates(@Value("${app.sms.templates.order-processed:}") String orderProcessed) {
+        this.orderProcessed = SmsTemplate.compile(
+                orderProcessed.isEmpty() ? DEFAULT_ORDER_PROCESSED : orderProcessed, FIELDS);
+        logger.info("Order processed SMS template: {}", this.orderProcessed.source());
+    }
+
+    public String orderProcessed(CreateOrderRequest request) {
+        return orderProcessed.render(request);
+    }
+}
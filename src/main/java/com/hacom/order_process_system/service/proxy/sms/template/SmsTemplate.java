@@ -0,0 +1,70 @@
+package com.hacom.order_process_system.service.proxy.sms.template;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Plantilla de SMS con campos {@code {nombre}}, compilada una vez al arrancar: el texto se parte en literales
+ * y campos ya resueltos, y {@link #render} sólo recorre las partes sobre un StringBuilder reutilizado por
+ * hilo, sin volver a analizar el texto ni buscar los campos por nombre. Un campo desconocido o una llave
+ * sin cerrar falla al compilar, no al enviar.
+ */
+public final class SmsTemplate<T> {
+
+    private final String source;
+    private final List<BiConsumer<T, StringBuilder>> parts;
+    private final ThreadLocal<StringBuilder> builders;
+
+    private SmsTemplate(String source, List<BiConsumer<T, StringBuilder>> parts) {
+        this.source = source;
+        this.parts = parts;
+        this.builders = ThreadLocal.withInitial(() -> new StringBuilder(source.length() + 64));
+    }
+
+    /** {@code fields}: qué escribe cada campo de la plantilla a partir del objeto a renderizar. */
+    public static <T> SmsTemplate<T> compile(String source, Map<String, BiConsumer<T, StringBuilder>> fields) {
+        List<BiConsumer<T, StringBuilder>> parts = new ArrayList<>();
+        int position = 0;
+        while (position < source.length()) {
+            int open = source.indexOf('{', position);
+            if (open < 0) {
+                parts.add(literal(source.substring(position)));
+                break;
+            }
+            int close = source.indexOf('}', open);
+            if (close < 0) {
+                throw new IllegalArgumentException("Unsupported SMS template: unclosed field in '" + source + "'");
+            }
+            if (open > position) {
+                parts.add(literal(source.substring(position, open)));
+            }
+            String name = source.substring(open + 1, close).trim();
+            BiConsumer<T, StringBuilder> field = fields.get(name);
+            if (field == null) {
+                throw new IllegalArgumentException("Unsupported SMS template field: " + name);
+            }
+            parts.add(field);
+            position = close + 1;
+        }
+        return new SmsTemplate<>(source, List.copyOf(parts));
+    }
+
+    private static <T> BiConsumer<T, StringBuilder> literal(String text) {
+        return (value, builder) -> builder.append(text);
+    }
+
+    public String render(T value) {
+        StringBuilder builder = builders.get();
+        builder.setLength(0);
+        for (BiConsumer<T, StringBuilder> part : parts) {
+            part.accept(value, builder);
+        }
+        return builder.toString();
+    }
+
+    public String source() {
+        return source;
+    }
+}
@@ -0,0 +1,15 @@
+package com.hacom.order_process_system.util;
+
+import com.hacom.order_process_system.model.OrderStatus;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.convert.ReadingConverter;
+import org.springframework.stereotype.Component;
+
+@Component
+@ReadingConverter
+public class CodeToOrderStatusConverter implements Converter<Integer, OrderStatus> {
+    @Override
+    public OrderStatus convert(Integer source) {
+        return OrderStatus.fromCode(source);
+    }
+}
@@ -16,4 +16,7 @@ public class Constants {
 
     public static final String HTTP_400 = "400";
     public static final String messageProcessBadRequest = "Bad Request";
+
+    public static final String HTTP_409 = "409";
+    public static final String messageProcessConflict = "Conflict";
 }
@@ -0,0 +1,45 @@
+package com.hacom.order_process_system.util;
+
+import com.hacom.order_process_system.exception.OrderException;
+import com.hacom.order_process_system.model.request.OrderRequest;
+import org.bson.types.ObjectId;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Base64;
+
+/**
+ * Posición opaca en un recorrido de órdenes ordenado por {@code (ts, _id)}: la última orden entregada.
+ * Se codifica en base64url como {@code <ts en ms>:<_id en hex>} y el cliente la devuelve tal cual para
+ * continuar justo después, sin skip. Con el _id como desempate dos órdenes con el mismo ts no se pierden
+ * ni se repiten.
+ */
+public record ContinuationToken(OffsetDateTime ts, ObjectId id) {
+
+    public static ContinuationToken of(OrderRequest order) {
+        return new ContinuationToken(order.getTs(), order.get_id());
+    }
+
+    public String encode() {
+        String raw = ts.toInstant().toEpochMilli() + ":" + id.toHexString();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /** Decodifica un token recibido del cliente; null o vacío significa empezar desde el principio. */
+    public static ContinuationToken decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.US_ASCII);
+            int separator = raw.indexOf(':');
+            OffsetDateTime ts = Instant.ofEpochMilli(Long.parseLong(raw.substring(0, separator)))
+                    .atOffset(ZoneOffset.UTC);
+            return new ContinuationToken(ts, new ObjectId(raw.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new OrderException("Invalid continuation token: " + token);
+        }
+    }
+}
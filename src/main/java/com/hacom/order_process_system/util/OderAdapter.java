@@ -1,7 +1,17 @@
 package com.hacom.order_process_system.util;
 
 
+import com.hacom.grpc.CreateOrderRequest;
+import com.hacom.grpc.UpdateOrderStatusResponse;
+import com.hacom.order_process_system.model.OrderStatus;
+import com.hacom.order_process_system.model.request.OrderRequest;
+import com.hacom.order_process_system.model.response.OrderExportResponse;
+import com.hacom.order_process_system.model.response.OrderStatusUpdateResponse;
 import com.hacom.order_process_system.model.response.ResponseGeneralDto;
+import com.hacom.order_process_system.repository.OrderStatusStore;
+
+import java.time.OffsetDateTime;
+import java.util.List;
 
 public class OderAdapter {
     public static ResponseGeneralDto responseGeneral(String code, Integer status, String message, Object data) {
@@ -14,4 +24,67 @@ public class OderAdapter {
 
 
 
-    }}
+    }
+
+    /** Línea de exportación con el cursor para reanudar tras esta orden. */
+    public static OrderExportResponse toOrderExportResponse(OrderRequest order) {
+        return OrderExportResponse.builder()
+                .orderId(order.getOrderId())
+                .customerId(order.getCustomerId())
+                .status(statusName(order.getStatus()))
+                .items(order.getItems())
+                .timestamp(order.getTs())
+                .cursor(ContinuationToken.of(order).encode())
+                .build();
+    }
+
+    /** Documento a persistir a partir de la petición gRPC, con marca de tiempo actual. */
+    public static OrderRequest toOrderRequest(CreateOrderRequest request, OrderStatus status) {
+        return toOrderRequest(request, status, OffsetDateTime.now());
+    }
+
+    /** Documento a persistir a partir de la petición gRPC recibida en {@code ts} (p. ej. al reproducir el journal). */
+    public static OrderRequest toOrderRequest(CreateOrderRequest request, OrderStatus status, OffsetDateTime ts) {
+        return new OrderRequest(
+                request.getOrderId(),
+                request.getCustomerId(),
+                request.getCustomerPhoneNumber(),
+                status,
+                List.copyOf(request.getItemsList()),
+                ts
+        );
+    }
+
+    /** Nombre del estado para las respuestas (REST y gRPC); null si la orden no lo tiene. */
+    public static String statusName(OrderStatus status) {
+        return status != null ? status.name() : null;
+    }
+
+    /**
+     * Cambio de estado pedido por REST o gRPC; {@code expectedStatus} vacío o null no exige estado previo.
+     * Lanza IllegalArgumentException si falta el orderId o algún estado no existe.
+     */
+    public static OrderStatusStore.Change toStatusChange(String orderId, String status, String expectedStatus) {
+        if (orderId == null || orderId.isBlank()) {
+            throw new IllegalArgumentException("orderId is required");
+        }
+        OrderStatus expected = expectedStatus == null || expectedStatus.isEmpty() ? null : OrderStatus.from(expectedStatus);
+        return new OrderStatusStore.Change(orderId, OrderStatus.from(status), expected);
+    }
+
+    public static OrderStatusUpdateResponse toOrderStatusUpdateResponse(OrderStatusStore.Result result) {
+        return OrderStatusUpdateResponse.builder()
+                .orderId(result.orderId())
+                .result(result.outcome().name())
+                .status(statusName(result.status()))
+                .build();
+    }
+
+    public static UpdateOrderStatusResponse toUpdateOrderStatusResponse(OrderStatusStore.Result result) {
+        return UpdateOrderStatusResponse.newBuilder()
+                .setOrderId(result.orderId())
+                .setResult(result.outcome().name())
+                .setStatus(result.status() != null ? result.status().name() : "")
+                .build();
+    }
+}
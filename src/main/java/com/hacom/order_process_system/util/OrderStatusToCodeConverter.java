@@ -0,0 +1,15 @@
+package com.hacom.order_process_system.util;
+
+import com.hacom.order_process_system.model.OrderStatus;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.convert.WritingConverter;
+import org.springframework.stereotype.Component;
+
+@Component
+@WritingConverter
+public class OrderStatusToCodeConverter implements Converter<OrderStatus, Integer> {
+    @Override
+    public Integer convert(OrderStatus source) {
+        return source.code();
+    }
+}
@@ -0,0 +1,193 @@
+package com.hacom.order_process_system.actor.mailbox;
+
+import akka.actor.AbstractActor;
+import akka.actor.ActorRef;
+import akka.actor.ActorSystem;
+import akka.actor.DeadLetter;
+import akka.actor.Props;
+import akka.dispatch.BoundedMessageQueueSemantics;
+import akka.dispatch.RequiresMessageQueue;
+import com.hacom.grpc.CreateOrderRequest;
+import com.hacom.grpc.CreateOrderResponse;
+import com.hacom.order_process_system.actor.ActorMetrics;
+import com.hacom.order_process_system.actor.OrderProcessingActor.ProcessOrderMessage;
+import com.hacom.order_process_system.metrics.OrderStageTimers;
+import com.hacom.order_process_system.metrics.OrderTrace;
+import com.typesafe.config.ConfigFactory;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.stub.StreamObserver;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("Metered mailboxes in an actor system")
+class MeteredMailboxTest {
+
+    private static final long HOLD_MS = 50;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final OrderStageTimers stageTimers = new OrderStageTimers(registry, new long[]{1, 50, 1000}, 0);
+    private final List<String> received = new CopyOnWriteArrayList<>();
+    private final List<Object> deadLetters = new CopyOnWriteArrayList<>();
+    private final CountDownLatch entered = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private ActorSystem system;
+
+    @BeforeEach
+    void setUp() {
+        system = ActorSystem.create("MeteredMailboxTest", ConfigFactory.parseString("""
+                bounded-mailbox {
+                  mailbox-type = "%s"
+                  mailbox-capacity = 2
+                }
+                priority-mailbox {
+                  mailbox-type = "%s"
+                  queue = priority
+                }
+                """.formatted(BoundedMeteredMailbox.class.getName(), MeteredMailbox.class.getName())));
+        ActorMetrics.get(system).bindTo(registry);
+        ActorRef deadLetterListener = system.actorOf(Props.create(DeadLetterListener.class,
+                () -> new DeadLetterListener(deadLetters)));
+        system.eventStream().subscribe(deadLetterListener, DeadLetter.class);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        release.countDown();
+        system.terminate();
+        system.getWhenTerminated().toCompletableFuture().get(5, TimeUnit.SECONDS);
+    }
+
+    private static ProcessOrderMessage order(String orderId, StreamObserver<CreateOrderResponse> observer,
+                                             int priority) {
+        return new ProcessOrderMessage(CreateOrderRequest.newBuilder().setOrderId(orderId).build(), observer,
+                OrderTrace.start(), priority);
+    }
+
+    private static ProcessOrderMessage order(String orderId) {
+        return order(orderId, null, ProcessOrderMessage.UNARY_PRIORITY);
+    }
+
+    /** Deja al actor ocupado con una primera orden para que las siguientes esperen en el mailbox. */
+    private void hold(ActorRef gate) throws InterruptedException {
+        gate.tell(order("ORDER-0"), ActorRef.noSender());
+        assertTrue(entered.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    @DisplayName("Should reject what does not fit a full bounded mailbox and publish its depth and wait")
+    @SuppressWarnings("unchecked")
+    void rejectsWhenFull() throws InterruptedException {
+        ActorRef gate = system.actorOf(Props.create(BoundedGate.class,
+                () -> new BoundedGate(received, stageTimers, entered, release))
+                .withMailbox("bounded-mailbox"), "gate");
+        hold(gate);
+        gate.tell(order("ORDER-1"), ActorRef.noSender());
+        gate.tell(order("ORDER-2"), ActorRef.noSender());
+
+        StreamObserver<CreateOrderResponse> rejected = mock(StreamObserver.class);
+        gate.tell(order("ORDER-3", rejected, ProcessOrderMessage.UNARY_PRIORITY), ActorRef.noSender());
+        gate.tell("not rejectable", ActorRef.noSender());
+
+        // Una orden sabe avisar a su cliente; el resto acaba en dead letters
+        ArgumentCaptor<Throwable> error = ArgumentCaptor.forClass(Throwable.class);
+        verify(rejected).onError(error.capture());
+        assertEquals(Status.Code.RESOURCE_EXHAUSTED, ((StatusRuntimeException) error.getValue()).getStatus().getCode());
+        await().atMost(Duration.ofSeconds(5)).until(() -> deadLetters.contains("not rejectable"));
+        assertEquals(2.0, registry.get("akka.mailbox.dropped").tag("actor", "/user/gate").counter().count());
+        assertEquals(2.0, registry.get("akka.mailbox.size").tag("actor", "/user/gate").gauge().value());
+
+        Thread.sleep(HOLD_MS);
+        release.countDown();
+        await().atMost(Duration.ofSeconds(5)).until(() -> received.size() == 3);
+        assertEquals(List.of("ORDER-0", "ORDER-1", "ORDER-2"), received);
+        assertEquals(0.0, registry.get("akka.mailbox.size").tag("actor", "/user/gate").gauge().value());
+        assertEquals(3, registry.get("orders.queue.wait").timer().count());
+        assertTrue(registry.get("orders.queue.wait").timer().max(TimeUnit.MILLISECONDS) >= HOLD_MS);
+    }
+
+    @Test
+    @DisplayName("Should serve CreateOrder orders before CreateOrders ones with the priority mailbox")
+    void servesUnaryFirst() throws InterruptedException {
+        ActorRef gate = system.actorOf(Props.create(Gate.class,
+                () -> new Gate(received, stageTimers, entered, release))
+                .withMailbox("priority-mailbox"), "gate");
+        hold(gate);
+        gate.tell(order("STREAM-1", null, ProcessOrderMessage.STREAM_PRIORITY), ActorRef.noSender());
+        gate.tell(order("STREAM-2", null, ProcessOrderMessage.STREAM_PRIORITY), ActorRef.noSender());
+        gate.tell(order("UNARY-1", null, ProcessOrderMessage.UNARY_PRIORITY), ActorRef.noSender());
+        await().atMost(Duration.ofSeconds(5))
+                .until(() -> registry.get("akka.mailbox.size").tag("actor", "/user/gate").gauge().value() == 3);
+
+        release.countDown();
+        await().atMost(Duration.ofSeconds(5)).until(() -> received.size() == 4);
+        assertEquals(List.of("ORDER-0", "UNARY-1", "STREAM-1", "STREAM-2"), received);
+    }
+
+    /** Registra las órdenes como {@code OrderProcessingActor}; la primera espera a {@code release}. */
+    static class Gate extends AbstractActor {
+
+        private final List<String> received;
+        private final OrderStageTimers stageTimers;
+        private final CountDownLatch entered;
+        private final CountDownLatch release;
+
+        Gate(List<String> received, OrderStageTimers stageTimers, CountDownLatch entered, CountDownLatch release) {
+            this.received = received;
+            this.stageTimers = stageTimers;
+            this.entered = entered;
+            this.release = release;
+        }
+
+        @Override
+        public Receive createReceive() {
+            return receiveBuilder()
+                    .match(ProcessOrderMessage.class, message -> {
+                        stageTimers.dequeued(message.getTrace());
+                        entered.countDown();
+                        release.await(5, TimeUnit.SECONDS);
+                        received.add(message.getRequest().getOrderId());
+                    })
+                    .build();
+        }
+    }
+
+    /** Akka rechaza crearlo si su mailbox no declara semántica acotada. */
+    static class BoundedGate extends Gate implements RequiresMessageQueue<BoundedMessageQueueSemantics> {
+
+        BoundedGate(List<String> received, OrderStageTimers stageTimers, CountDownLatch entered,
+                    CountDownLatch release) {
+            super(received, stageTimers, entered, release);
+        }
+    }
+
+    static class DeadLetterListener extends AbstractActor {
+
+        private final List<Object> deadLetters;
+
+        DeadLetterListener(List<Object> deadLetters) {
+            this.deadLetters = deadLetters;
+        }
+
+        @Override
+        public Receive createReceive() {
+            return receiveBuilder()
+                    .match(DeadLetter.class, deadLetter -> deadLetters.add(deadLetter.message()))
+                    .build();
+        }
+    }
+}
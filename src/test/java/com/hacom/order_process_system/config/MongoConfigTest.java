@@ -0,0 +1,62 @@
+package com.hacom.order_process_system.config;
+
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.ReadConcern;
+import com.mongodb.WriteConcern;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("MongoConfig client settings")
+class MongoConfigTest {
+
+    private static final ConnectionString URI = new ConnectionString("mongodb://127.0.0.1:27017/?w=majority"
+            + "&maxPoolSize=20&waitQueueTimeoutMS=500&readConcernLevel=majority&compressors=zlib");
+
+    @Test
+    @DisplayName("Should keep the options of the URI when app.mongodb does not set them")
+    void keepsUriOptions() {
+        MongoClientSettings settings = MongoConfig.clientSettings(URI, new MongoClientProperties()).build();
+
+        assertEquals(20, settings.getConnectionPoolSettings().getMaxSize());
+        assertEquals(500, settings.getConnectionPoolSettings().getMaxWaitTime(TimeUnit.MILLISECONDS));
+        assertEquals(ReadConcern.MAJORITY, settings.getReadConcern());
+        assertEquals(WriteConcern.MAJORITY, settings.getWriteConcern());
+        assertEquals(1, settings.getCompressorList().size());
+        assertEquals("zlib", settings.getCompressorList().get(0).getName());
+    }
+
+    @Test
+    @DisplayName("Should override the URI with the settings defined in app.mongodb")
+    void appliesDefinedSettings() {
+        MongoClientProperties properties = new MongoClientProperties();
+        properties.getPool().setMaxSize(50);
+        properties.setReadConcern("local");
+        properties.setWriteConcern(new MongoClientProperties.WriteConcernSettings("1", null, 0));
+        properties.setCompressors(List.of());
+
+        MongoClientSettings settings = MongoConfig.clientSettings(URI, properties).build();
+
+        assertEquals(50, settings.getConnectionPoolSettings().getMaxSize());
+        assertEquals(500, settings.getConnectionPoolSettings().getMaxWaitTime(TimeUnit.MILLISECONDS));
+        assertEquals(ReadConcern.LOCAL, settings.getReadConcern());
+        assertEquals(WriteConcern.W1, settings.getWriteConcern());
+        assertTrue(settings.getCompressorList().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should wait 2 seconds for a connection when neither the URI nor app.mongodb set it")
+    void defaultsMaxWait() {
+        MongoClientSettings settings = MongoConfig.clientSettings(new ConnectionString("mongodb://127.0.0.1:27017"),
+                new MongoClientProperties()).build();
+
+        assertEquals(MongoClientProperties.Pool.DEFAULT_MAX_WAIT_MS,
+                settings.getConnectionPoolSettings().getMaxWaitTime(TimeUnit.MILLISECONDS));
+        assertEquals(100, settings.getConnectionPoolSettings().getMaxSize());
+    }
+}
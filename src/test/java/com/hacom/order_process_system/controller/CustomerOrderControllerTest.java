@@ -0,0 +1,74 @@
+package com.hacom.order_process_system.controller;
+
+import com.hacom.order_process_system.model.response.OrderExportResponse;
+import com.hacom.order_process_system.model.response.OrderPageResponse;
+import com.hacom.order_process_system.repository.OrderRepository;
+import com.hacom.order_process_system.service.impl.OrderServiceImpl;
+import com.hacom.order_process_system.util.ContinuationToken;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@WebFluxTest(CustomerOrderController.class)
+@DisplayName("CustomerOrderController WebFlux Tests")
+class CustomerOrderControllerTest {
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @MockBean
+    private OrderRepository orderRepository;
+
+    @MockBean
+    private OrderServiceImpl orderServiceImpl;
+
+    @Test
+    @DisplayName("GET /api/customers/{customerId}/orders - Should return a page with the next cursor")
+    void findCustomerOrders_Page() {
+        // Given
+        ContinuationToken after = new ContinuationToken(OffsetDateTime.parse("2025-01-10T10:00:00Z"), new ObjectId());
+        OrderPageResponse page = OrderPageResponse.builder()
+                .customerId("CUSTOMER-456")
+                .orders(List.of(OrderExportResponse.builder().orderId("ORDER-123").cursor("next").build()))
+                .nextCursor("next")
+                .build();
+        when(orderServiceImpl.findCustomerOrders("CUSTOMER-456", after, 1)).thenReturn(Mono.just(page));
+
+        // When & Then
+        webTestClient.get()
+                .uri("/api/customers/CUSTOMER-456/orders?limit=1&after=" + after.encode())
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.code").isEqualTo("200")
+                .jsonPath("$.data.orders[0].orderId").isEqualTo("ORDER-123")
+                .jsonPath("$.data.nextCursor").isEqualTo("next");
+
+        verify(orderServiceImpl, times(1)).findCustomerOrders("CUSTOMER-456", after, 1);
+    }
+
+    @Test
+    @DisplayName("GET /api/customers/{customerId}/orders - Should return 400 for an invalid cursor")
+    void findCustomerOrders_InvalidCursor() {
+        // When & Then
+        webTestClient.get()
+                .uri("/api/customers/CUSTOMER-456/orders?after=not-a-cursor")
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isBadRequest();
+
+        verify(orderServiceImpl, never()).findCustomerOrders(anyString(), any(), anyInt());
+    }
+}
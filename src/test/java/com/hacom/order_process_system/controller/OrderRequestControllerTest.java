@@ -1,12 +1,15 @@
 package com.hacom.order_process_system.controller;
 import com.hacom.order_process_system.exception.OrderException;
+import com.hacom.order_process_system.model.OrderStatus;
 import com.hacom.order_process_system.model.request.OrderRequest;
 import com.hacom.order_process_system.model.response.OrderCountResponse;
+import com.hacom.order_process_system.model.response.OrderExportResponse;
 import com.hacom.order_process_system.model.response.OrderResponse;
 import com.hacom.order_process_system.model.response.ResponseGeneralDto;
 import com.hacom.order_process_system.repository.OrderRepository;
 import com.hacom.order_process_system.service.impl.OrderServiceImpl;
 import com.hacom.order_process_system.util.Constants;
+import com.hacom.order_process_system.util.ContinuationToken;
 import com.hacom.order_process_system.util.OderAdapter;
 import org.bson.types.ObjectId;
 import org.junit.jupiter.api.BeforeEach;
@@ -24,6 +27,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
@@ -60,7 +64,7 @@ class OrderRequestControllerTest {
         mockOrderRequest.setOrderId("ORDER-123");
         mockOrderRequest.setCustomerId("CUSTOMER-456");
         mockOrderRequest.setCustomerPhoneNumber("+1234567890");
-        mockOrderRequest.setStatus("COMPLETED");
+        mockOrderRequest.setStatus(OrderStatus.DELIVERED);
         mockOrderRequest.setItems(Arrays.asList("item1", "item2", "item3"));
         mockOrderRequest.setTs(OffsetDateTime.now());
 
@@ -128,7 +132,7 @@ class OrderRequestControllerTest {
                     .jsonPath("$.status").isEqualTo(200)
                     .jsonPath("$.comment").isEqualTo("Order found successfully")
                     .jsonPath("$.data.orderId").isEqualTo("ORDER-123")
-                    .jsonPath("$.data.status").isEqualTo("COMPLETED")
+                    .jsonPath("$.data.status").isEqualTo("DELIVERED")
                     .jsonPath("$.data.timestamp").exists(); // Verificar que timestamp existe
 
             verify(orderServiceImpl, times(1)).findByOrderId(orderId);
@@ -269,7 +273,7 @@ class OrderRequestControllerTest {
     void findByOrderId_VerifyOrderResponseMapping() {
         // Given
         String orderId = "ORDER-456";
-        String expectedStatus = "PENDING";
+        OrderStatus expectedStatus = OrderStatus.RECEIVED;
         OffsetDateTime expectedTimestamp = OffsetDateTime.now().minusHours(2);
 
         OrderRequest orderRequest = new OrderRequest();
@@ -286,7 +290,7 @@ class OrderRequestControllerTest {
 
         OrderResponse orderResponse = new OrderResponse();
         orderResponse.setOrderId(orderId);
-        orderResponse.setStatus(expectedStatus);
+        orderResponse.setStatus(expectedStatus.name());
         orderResponse.setTimestamp(expectedTimestamp);
         successResponse.setData(orderResponse);
 
@@ -304,7 +308,7 @@ class OrderRequestControllerTest {
                     .expectHeader().contentType(MediaType.APPLICATION_JSON)
                     .expectBody()
                     .jsonPath("$.data.orderId").isEqualTo(orderId)
-                    .jsonPath("$.data.status").isEqualTo(expectedStatus)
+                    .jsonPath("$.data.status").isEqualTo(expectedStatus.name())
                     .jsonPath("$.data.timestamp").isEqualTo(expectedTimestamp.format(DateTimeFormatter.ISO_OFFSET_DATE_TIME));
 
             verify(orderServiceImpl, times(1)).findByOrderId(orderId);
@@ -573,4 +577,69 @@ class OrderRequestControllerTest {
             verify(orderServiceImpl, times(1)).countOrdersByDateRange(any(OffsetDateTime.class), any(OffsetDateTime.class));
         }
     }
+
+    // ========== TESTS FOR GET /api/orders/export ==========
+
+    @Test
+    @DisplayName("GET /api/orders/export - Should stream NDJSON lines with a resume cursor")
+    void exportOrders_Ndjson() {
+        // Given
+        when(orderServiceImpl.exportOrders(any(OffsetDateTime.class), any(OffsetDateTime.class), isNull()))
+                .thenReturn(Flux.just(mockOrderRequest));
+
+        // When & Then
+        List<OrderExportResponse> lines = webTestClient.get()
+                .uri("/api/orders/export?start=2025-01-01T00:00:00Z&end=2025-01-31T23:59:59Z")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(OrderExportResponse.class)
+                .getResponseBody()
+                .collectList()
+                .block();
+
+        assertEquals(1, lines.size());
+        assertEquals("ORDER-123", lines.get(0).getOrderId());
+        assertEquals(ContinuationToken.of(mockOrderRequest).encode(), lines.get(0).getCursor());
+    }
+
+    @Test
+    @DisplayName("GET /api/orders/export - Should resume an SSE stream from Last-Event-ID")
+    void exportOrders_SseResumesFromLastEventId() {
+        // Given
+        ContinuationToken lastSeen = new ContinuationToken(
+                OffsetDateTime.parse("2025-01-10T10:00:00Z"), new ObjectId());
+        when(orderServiceImpl.exportOrders(any(OffsetDateTime.class), any(OffsetDateTime.class), eq(lastSeen)))
+                .thenReturn(Flux.just(mockOrderRequest));
+
+        // When & Then
+        webTestClient.get()
+                .uri("/api/orders/export?start=2025-01-01T00:00:00Z&end=2025-01-31T23:59:59Z")
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .header("Last-Event-ID", lastSeen.encode())
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.TEXT_EVENT_STREAM)
+                .expectBody(String.class)
+                .value(body -> {
+                    assertTrue(body.contains("id:" + ContinuationToken.of(mockOrderRequest).encode()));
+                    assertTrue(body.contains("\"orderId\":\"ORDER-123\""));
+                });
+
+        verify(orderServiceImpl, times(1)).exportOrders(any(OffsetDateTime.class), any(OffsetDateTime.class), eq(lastSeen));
+    }
+
+    @Test
+    @DisplayName("GET /api/orders/export - Should return 400 for an invalid cursor")
+    void exportOrders_InvalidCursor() {
+        // When & Then
+        webTestClient.get()
+                .uri("/api/orders/export?start=2025-01-01T00:00:00Z&end=2025-01-31T23:59:59Z&after=not-a-cursor")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isBadRequest();
+
+        verify(orderServiceImpl, never()).exportOrders(any(), any(), any());
+    }
 }
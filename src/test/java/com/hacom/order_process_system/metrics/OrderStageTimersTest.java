@@ -0,0 +1,78 @@
+package com.hacom.order_process_system.metrics;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.CountAtBucket;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("OrderStageTimers")
+class OrderStageTimersTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final OrderStageTimers timers = new OrderStageTimers(registry, new long[]{1, 50, 1000}, 0);
+
+    private Timer stage(String stage) {
+        return registry.get("orders.stage.latency").tag("stage", stage).timer();
+    }
+
+    @Test
+    @DisplayName("Should record every stage of an order that is saved, acknowledged and notified")
+    void recordsAllStages() {
+        OrderTrace trace = OrderTrace.start();
+        timers.dequeued(trace);
+        timers.saved(trace);
+        timers.acked("ORDER-1", trace);
+        timers.smsQueued(trace);
+        timers.smsStarted(trace);
+        timers.smsSubmitted(trace);
+
+        assertEquals(1, registry.get("orders.queue.wait").timer().count());
+        for (String stage : new String[]{"save", "ack", "sms.queue", "sms.submit"}) {
+            assertEquals(1, stage(stage).count(), stage);
+        }
+        assertEquals(1, registry.get("orders.latency").tag("until", "ack").timer().count());
+        assertEquals(1, registry.get("orders.latency").tag("until", "sms").timer().count());
+
+        Timer untilSms = registry.get("orders.latency").tag("until", "sms").timer();
+        Timer untilAck = registry.get("orders.latency").tag("until", "ack").timer();
+        assertTrue(untilSms.totalTime(TimeUnit.NANOSECONDS) >= untilAck.totalTime(TimeUnit.NANOSECONDS));
+    }
+
+    @Test
+    @DisplayName("Should publish the configured SLO boundaries as histogram buckets")
+    void publishesSloBuckets() {
+        OrderTrace trace = OrderTrace.start();
+        timers.dequeued(trace);
+
+        double[] boundariesMs = Arrays.stream(registry.get("orders.queue.wait").timer().takeSnapshot().histogramCounts())
+                .mapToDouble(bucket -> bucket.bucket(TimeUnit.MILLISECONDS))
+                .toArray();
+        for (double slo : new double[]{1, 50, 1000}) {
+            assertTrue(Arrays.stream(boundariesMs).anyMatch(boundary -> boundary == slo), "missing bucket " + slo);
+        }
+        assertTrue(Arrays.stream(registry.get("orders.queue.wait").timer().takeSnapshot().histogramCounts())
+                .filter(bucket -> bucket.bucket(TimeUnit.MILLISECONDS) == 1000)
+                .mapToDouble(CountAtBucket::count)
+                .allMatch(count -> count == 1));
+    }
+
+    @Test
+    @DisplayName("Should describe only the stages the order reached")
+    void traceBreakdown() {
+        OrderTrace trace = OrderTrace.start();
+        timers.dequeued(trace);
+        timers.saved(trace);
+
+        String breakdown = trace.toString();
+        assertTrue(breakdown.startsWith("queue="), breakdown);
+        assertTrue(breakdown.contains(" save="), breakdown);
+        assertFalse(breakdown.contains("ack="), breakdown);
+        assertFalse(breakdown.contains("sms"), breakdown);
+    }
+}
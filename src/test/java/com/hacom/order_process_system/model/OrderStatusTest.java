@@ -0,0 +1,48 @@
+package com.hacom.order_process_system.model;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("OrderStatus")
+class OrderStatusTest {
+
+    @Test
+    @DisplayName("Should only allow forward transitions of the lifecycle")
+    void transitions() {
+        assertTrue(OrderStatus.RECEIVED.canTransitionTo(OrderStatus.PROCESSED));
+        assertTrue(OrderStatus.PROCESSED.canTransitionTo(OrderStatus.SMS_SENT));
+        assertTrue(OrderStatus.SMS_SENT.canTransitionTo(OrderStatus.DELIVERED));
+        assertTrue(OrderStatus.SMS_SENT.canTransitionTo(OrderStatus.FAILED));
+
+        assertFalse(OrderStatus.PROCESSED.canTransitionTo(OrderStatus.DELIVERED));
+        assertFalse(OrderStatus.SMS_SENT.canTransitionTo(OrderStatus.PROCESSED));
+        assertFalse(OrderStatus.PROCESSED.canTransitionTo(OrderStatus.PROCESSED));
+        assertFalse(OrderStatus.DELIVERED.canTransitionTo(OrderStatus.FAILED));
+        assertTrue(OrderStatus.DELIVERED.isFinal());
+        assertTrue(OrderStatus.FAILED.isFinal());
+    }
+
+    @Test
+    @DisplayName("Should list the states each status can be reached from")
+    void previous() {
+        assertEquals(Set.of(), OrderStatus.RECEIVED.previous());
+        assertEquals(Set.of(OrderStatus.SMS_SENT), OrderStatus.DELIVERED.previous());
+        assertEquals(Set.of(OrderStatus.RECEIVED, OrderStatus.PROCESSED, OrderStatus.SMS_SENT),
+                OrderStatus.FAILED.previous());
+    }
+
+    @Test
+    @DisplayName("Should map every status to a unique code and back")
+    void codes() {
+        for (OrderStatus status : OrderStatus.values()) {
+            assertEquals(status, OrderStatus.fromCode(status.code()));
+            assertEquals(status, OrderStatus.from(status.name().toLowerCase()));
+        }
+        assertThrows(IllegalArgumentException.class, () -> OrderStatus.fromCode(0));
+        assertThrows(IllegalArgumentException.class, () -> OrderStatus.from("COMPLETED"));
+    }
+}
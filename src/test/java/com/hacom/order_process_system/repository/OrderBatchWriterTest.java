@@ -0,0 +1,80 @@
+package com.hacom.order_process_system.repository;
+
+import com.hacom.order_process_system.model.request.OrderRequest;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@DisplayName("OrderBatchWriter")
+class OrderBatchWriterTest {
+
+    private static final long LINGER_MS = 20;
+
+    private final OrderCollection orderCollection = mock(OrderCollection.class);
+    private final OrderCountBuckets orderCountBuckets = mock(OrderCountBuckets.class);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private OrderBatchWriter writer(int maxInFlight) {
+        when(orderCountBuckets.increment(anyList())).thenReturn(Mono.empty());
+        return new OrderBatchWriter(orderCollection, mock(OrderRepository.class), orderCountBuckets,
+                DistributionSummary.builder("orders.batch.size").register(registry),
+                Timer.builder("orders.batch.flush").register(registry),
+                true, 100, LINGER_MS, maxInFlight);
+    }
+
+    private static OrderRequest order(String orderId) {
+        OrderRequest order = new OrderRequest();
+        order.setOrderId(orderId);
+        return order;
+    }
+
+    @Test
+    @DisplayName("Should keep flushing when the linger expires with max-in-flight batches pending")
+    void survivesLingerWhileInFlightIsFull() throws InterruptedException {
+        List<Sinks.Empty<Void>> held = new CopyOnWriteArrayList<>();
+        when(orderCollection.insertUnordered(anyList())).thenAnswer(invocation -> {
+            if (held.size() < 2) {
+                Sinks.Empty<Void> insert = Sinks.empty();
+                held.add(insert);
+                return insert.asMono();
+            }
+            return Mono.empty();
+        });
+        OrderBatchWriter writer = writer(2);
+
+        // Dos lotes de una orden que no terminan: no queda demanda para un tercero
+        Mono<OrderRequest> first = writer.save(order("ORDER-1")).cache();
+        first.subscribe();
+        await().atMost(Duration.ofSeconds(2)).until(() -> held.size() == 1);
+        Mono<OrderRequest> second = writer.save(order("ORDER-2")).cache();
+        second.subscribe();
+        await().atMost(Duration.ofSeconds(2)).until(() -> held.size() == 2);
+
+        Mono<OrderRequest> third = writer.save(order("ORDER-3")).cache();
+        third.subscribe();
+        Thread.sleep(LINGER_MS * 5);
+
+        held.forEach(Sinks.Empty::tryEmitEmpty);
+        assertEquals("ORDER-1", first.block(Duration.ofSeconds(2)).getOrderId());
+        assertEquals("ORDER-2", second.block(Duration.ofSeconds(2)).getOrderId());
+        assertEquals("ORDER-3", third.block(Duration.ofSeconds(2)).getOrderId());
+        assertEquals("ORDER-4", writer.save(order("ORDER-4")).block(Duration.ofSeconds(2)).getOrderId());
+        // El resultado llega al llamador antes de que se registre el tamaño del lote
+        await().atMost(Duration.ofSeconds(2))
+                .until(() -> registry.get("orders.batch.size").summary().count() == 4);
+        writer.destroy();
+    }
+}
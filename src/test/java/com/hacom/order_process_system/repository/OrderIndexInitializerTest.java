@@ -0,0 +1,73 @@
+package com.hacom.order_process_system.repository;
+
+import com.hacom.order_process_system.model.request.OrderRequest;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.ReactiveIndexOperations;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@DisplayName("OrderIndexInitializer")
+class OrderIndexInitializerTest {
+
+    private final ReactiveMongoTemplate template = mock(ReactiveMongoTemplate.class);
+    private final ReactiveIndexOperations indexOps = mock(ReactiveIndexOperations.class);
+
+    private OrderIndexInitializer initializer() {
+        when(template.indexOps(OrderRequest.class)).thenReturn(indexOps);
+        return new OrderIndexInitializer(template, true);
+    }
+
+    private static boolean isUnique(IndexDefinition index) {
+        return OrderIndexInitializer.UNIQUE_INDEX.equals(index.getIndexOptions().get("name"));
+    }
+
+    @Test
+    @DisplayName("Should open ingestion once the unique orderId index exists")
+    void opensWhenUniqueIndexIsReady() {
+        when(indexOps.ensureIndex(any())).thenAnswer(invocation ->
+                Mono.just(invocation.getArgument(0, IndexDefinition.class).getIndexOptions().getString("name")));
+        OrderIndexInitializer initializer = initializer();
+        assertFalse(initializer.isUniqueIndexReady());
+        assertEquals(Status.OUT_OF_SERVICE, new OrderIndexHealthIndicator(initializer).health().getStatus());
+
+        initializer.createIndexes();
+
+        await().atMost(Duration.ofSeconds(5)).until(initializer::isUniqueIndexReady);
+        assertEquals(Status.UP, new OrderIndexHealthIndicator(initializer).health().getStatus());
+        verify(indexOps, timeout(5000).times(OrderIndexInitializer.indexes().size())).ensureIndex(any());
+        initializer.destroy();
+    }
+
+    @Test
+    @DisplayName("Should keep ingestion closed and report DOWN when orders already has duplicate orderIds")
+    void failsOnDuplicates() {
+        when(indexOps.ensureIndex(any())).thenAnswer(invocation -> {
+            IndexDefinition index = invocation.getArgument(0);
+            return isUnique(index)
+                    ? Mono.error(new DuplicateKeyException("E11000 duplicate key error collection: orders"))
+                    : Mono.just(index.getIndexOptions().getString("name"));
+        });
+        OrderIndexInitializer initializer = initializer();
+
+        initializer.createIndexes();
+
+        await().atMost(Duration.ofSeconds(5))
+                .until(() -> initializer.getUniqueIndexState() == OrderIndexInitializer.UniqueIndexState.FAILED);
+        assertFalse(initializer.isUniqueIndexReady());
+        assertEquals(Status.DOWN, new OrderIndexHealthIndicator(initializer).health().getStatus());
+        // Los índices de consulta se crean igualmente, y el único no se reintenta
+        verify(indexOps, timeout(5000).times(OrderIndexInitializer.indexes().size())).ensureIndex(any());
+        initializer.destroy();
+    }
+}
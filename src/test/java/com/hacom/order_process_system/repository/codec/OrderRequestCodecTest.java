@@ -0,0 +1,109 @@
+package com.hacom.order_process_system.repository.codec;
+
+import com.hacom.order_process_system.model.OrderStatus;
+import com.hacom.order_process_system.model.request.OrderRequest;
+import com.mongodb.MongoClientSettings;
+import org.bson.BsonBinaryReader;
+import org.bson.BsonBinaryWriter;
+import org.bson.BsonDocument;
+import org.bson.BsonDocumentReader;
+import org.bson.BsonType;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.io.BasicOutputBuffer;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("OrderRequestCodec")
+class OrderRequestCodecTest {
+
+    private static final OffsetDateTime TS = OffsetDateTime.of(2025, 6, 1, 12, 30, 15, 123_000_000, ZoneOffset.UTC);
+
+    private final OrderRequestCodec codec = new OrderRequestCodec();
+
+    private byte[] encode(OrderRequest order) {
+        BasicOutputBuffer buffer = new BasicOutputBuffer();
+        codec.encode(new BsonBinaryWriter(buffer), order, EncoderContext.builder().build());
+        return buffer.toByteArray();
+    }
+
+    private OrderRequest decode(Document document) {
+        BsonDocument bson = document.toBsonDocument(BsonDocument.class, MongoClientSettings.getDefaultCodecRegistry());
+        return codec.decode(new BsonDocumentReader(bson), DecoderContext.builder().build());
+    }
+
+    @Test
+    @DisplayName("Should round-trip every field and store ts as a BSON date")
+    void roundTrip() {
+        OrderRequest order = new OrderRequest(new ObjectId(), "ORDER-1", "CUSTOMER-1", "+51987654321", OrderStatus.PROCESSED,
+                List.of("Producto A", "Producto B"), TS);
+
+        byte[] bson = encode(order);
+        OrderRequest decoded = codec.decode(new BsonBinaryReader(ByteBuffer.wrap(bson)), DecoderContext.builder().build());
+
+        assertEquals(order, decoded);
+        BsonDocument raw = new RawBsonDocument(bson);
+        assertEquals(BsonType.DATE_TIME, raw.get("ts").getBsonType());
+        assertEquals(TS.toInstant().toEpochMilli(), raw.getDateTime("ts").getValue());
+        assertEquals(OrderStatus.PROCESSED.code(), raw.getInt32("status").getValue());
+    }
+
+    @Test
+    @DisplayName("Should read documents written by Spring Data, skipping _class")
+    void readsSpringDataDocuments() {
+        ObjectId id = new ObjectId();
+        Document document = new Document("_id", id)
+                .append("orderId", "ORDER-1")
+                .append("customerId", "CUSTOMER-1")
+                .append("customerPhoneNumber", "+51987654321")
+                .append("status", OrderStatus.PROCESSED.code())
+                .append("items", List.of("Producto A"))
+                .append("ts", Date.from(TS.toInstant()))
+                .append("_class", OrderRequest.class.getName());
+
+        OrderRequest decoded = decode(document);
+
+        assertEquals(id, decoded.get_id());
+        assertEquals(OrderStatus.PROCESSED, decoded.getStatus());
+        assertEquals(List.of("Producto A"), decoded.getItems());
+        assertEquals(TS, decoded.getTs());
+    }
+
+    @Test
+    @DisplayName("Should leave fields outside the projection unset and read legacy string statuses")
+    void projectedFieldsOnly() {
+        OrderRequest decoded = decode(new Document("orderId", "ORDER-1").append("status", "PROCESSED")
+                .append("customerId", null));
+
+        assertEquals("ORDER-1", decoded.getOrderId());
+        assertEquals(OrderStatus.PROCESSED, decoded.getStatus());
+        assertNull(decoded.get_id());
+        assertNull(decoded.getCustomerId());
+        assertNull(decoded.getItems());
+        assertNull(decoded.getTs());
+    }
+
+    @Test
+    @DisplayName("Should omit null fields and keep dates before the epoch")
+    void nullFieldsAndPreEpochDates() {
+        OffsetDateTime beforeEpoch = OffsetDateTime.of(1969, 12, 31, 23, 59, 59, 500_000_000, ZoneOffset.UTC);
+        OrderRequest order = new OrderRequest("ORDER-1", null, null, OrderStatus.PROCESSED, null, beforeEpoch);
+
+        byte[] bson = encode(order);
+
+        assertFalse(new RawBsonDocument(bson).containsKey("customerId"));
+        assertEquals(beforeEpoch, codec.decode(new BsonBinaryReader(ByteBuffer.wrap(bson)),
+                DecoderContext.builder().build()).getTs());
+    }
+}
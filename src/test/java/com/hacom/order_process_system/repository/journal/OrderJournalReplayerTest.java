@@ -0,0 +1,118 @@
+package com.hacom.order_process_system.repository.journal;
+
+import com.hacom.grpc.CreateOrderRequest;
+import com.hacom.order_process_system.model.request.OrderRequest;
+import com.hacom.order_process_system.repository.OrderBatchWriter;
+import com.hacom.order_process_system.repository.OrderIndexInitializer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DuplicateKeyException;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@DisplayName("OrderJournalReplayer")
+class OrderJournalReplayerTest {
+
+    @TempDir
+    Path directory;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final OrderBatchWriter orderBatchWriter = mock(OrderBatchWriter.class);
+    private final OrderIndexInitializer orderIndexInitializer = mock(OrderIndexInitializer.class);
+    private OrderJournal journal;
+    private OrderJournalReplayer replayer;
+
+    @BeforeEach
+    void setUp() {
+        journal = new OrderJournal(registry, true, directory.toString(), 1, "none", 0);
+        when(orderIndexInitializer.isUniqueIndexReady()).thenReturn(true);
+        // La ronda se lanza a mano
+        replayer = new OrderJournalReplayer(journal, orderBatchWriter, orderIndexInitializer, registry,
+                Schedulers.boundedElastic(), 3_600_000, 100);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        replayer.destroy();
+        journal.destroy();
+    }
+
+    private long deferOrder(String orderId) {
+        long sequence = journal.append(CreateOrderRequest.newBuilder()
+                .setOrderId(orderId)
+                .setCustomerId("CUSTOMER-1")
+                .setCustomerPhoneNumber("+51987654321")
+                .addItems("Producto A")
+                .build(), 1_700_000_000_000L).block();
+        journal.deferred(sequence);
+        return sequence;
+    }
+
+    @Test
+    @DisplayName("Should keep deferred orders while Mongo is down and write them once it recovers")
+    void replaysAfterOutage() {
+        deferOrder("ORDER-1");
+        deferOrder("ORDER-2");
+        when(orderBatchWriter.save(any())).thenReturn(Mono.error(new DataAccessResourceFailureException("down")));
+
+        replayer.replay();
+
+        assertEquals(2, journal.deferredRecords(10).size());
+        assertTrue(journal.isMongoUnavailable());
+        assertEquals(0, journal.checkpoint());
+
+        when(orderBatchWriter.save(any())).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+
+        replayer.replay();
+
+        assertTrue(journal.deferredRecords(10).isEmpty());
+        assertFalse(journal.isMongoUnavailable());
+        assertEquals(2, journal.checkpoint());
+        assertEquals(2, registry.get("orders.journal.replayed").counter().count());
+        verify(orderBatchWriter, atLeastOnce()).save(argThat((OrderRequest order) ->
+                order.getTs().toInstant().toEpochMilli() == 1_700_000_000_000L));
+    }
+
+    @Test
+    @DisplayName("Should treat orders already in Mongo as replayed")
+    void duplicatesCountAsWritten() {
+        deferOrder("ORDER-1");
+        when(orderBatchWriter.save(any())).thenReturn(Mono.error(new DuplicateKeyException("duplicate orderId")));
+
+        replayer.replay();
+
+        assertTrue(journal.deferredRecords(10).isEmpty());
+        assertEquals(1, journal.checkpoint());
+        assertEquals(0, registry.get("orders.journal.replayed").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should not replay until the unique orderId index exists")
+    void waitsForUniqueIndex() {
+        deferOrder("ORDER-1");
+        when(orderIndexInitializer.isUniqueIndexReady()).thenReturn(false);
+        when(orderBatchWriter.save(any())).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+
+        replayer.replay();
+
+        assertEquals(1, journal.deferredRecords(10).size());
+        verify(orderBatchWriter, never()).save(any());
+
+        when(orderIndexInitializer.isUniqueIndexReady()).thenReturn(true);
+        replayer.replay();
+
+        assertTrue(journal.deferredRecords(10).isEmpty());
+        assertEquals(1, registry.get("orders.journal.replayed").counter().count());
+    }
+}
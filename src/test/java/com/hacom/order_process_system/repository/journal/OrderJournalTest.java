@@ -0,0 +1,198 @@
+package com.hacom.order_process_system.repository.journal;
+
+import com.hacom.grpc.CreateOrderRequest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("OrderJournal")
+class OrderJournalTest {
+
+    @TempDir
+    Path directory;
+
+    private final List<OrderJournal> opened = new ArrayList<>();
+
+    private OrderJournal open(String fsync, int segmentSizeMb) {
+        OrderJournal journal = new OrderJournal(new SimpleMeterRegistry(), true, directory.toString(),
+                segmentSizeMb, fsync, 0);
+        opened.add(journal);
+        return journal;
+    }
+
+    @AfterEach
+    void closeJournals() throws InterruptedException {
+        for (OrderJournal journal : opened) {
+            journal.destroy();
+        }
+    }
+
+    private static CreateOrderRequest order(String orderId) {
+        return CreateOrderRequest.newBuilder()
+                .setOrderId(orderId)
+                .setCustomerId("CUSTOMER-1")
+                .setCustomerPhoneNumber("+51987654321")
+                .addItems("Producto A")
+                .build();
+    }
+
+    private long segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(JournalSegment::isSegment).count();
+        }
+    }
+
+    @Test
+    @DisplayName("Should replay orders after the checkpoint when reopened")
+    void recoversAfterRestart() throws InterruptedException {
+        OrderJournal journal = open("none", 1);
+        for (int i = 1; i <= 3; i++) {
+            assertEquals(i, journal.append(order("ORDER-" + i), 1_000L * i).block());
+        }
+        journal.committed(1);
+        journal.committed(3);
+        assertEquals(1, journal.checkpoint());
+        journal.destroy();
+        opened.clear();
+
+        OrderJournal reopened = open("none", 1);
+        List<JournalRecord> records = reopened.deferredRecords(10);
+        assertEquals(List.of(2L, 3L), records.stream().map(JournalRecord::sequence).toList());
+        assertEquals("ORDER-2", records.get(0).request().getOrderId());
+        assertEquals(2_000L, records.get(0).receivedAtMillis());
+        assertEquals(4, reopened.append(order("ORDER-4"), 4_000L).block());
+    }
+
+    @Test
+    @DisplayName("Should discard a torn record at the end of the journal")
+    void discardsTornRecord() throws IOException, InterruptedException {
+        OrderJournal journal = open("always", 1);
+        journal.append(order("ORDER-1"), 1_000L).block();
+        journal.append(order("ORDER-2"), 2_000L).block();
+        journal.destroy();
+        opened.clear();
+
+        Path segment;
+        try (Stream<Path> files = Files.list(directory)) {
+            segment = files.filter(JournalSegment::isSegment).findFirst().orElseThrow();
+        }
+        int firstRecordBytes = JournalSegment.HEADER_BYTES + order("ORDER-1").getSerializedSize();
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            // Payload del segundo registro a medio escribir
+            file.seek(firstRecordBytes + JournalSegment.HEADER_BYTES + 3);
+            file.write(new byte[]{0, 0, 0, 0});
+        }
+
+        OrderJournal reopened = open("always", 1);
+        assertEquals(List.of(1L), reopened.deferredRecords(10).stream().map(JournalRecord::sequence).toList());
+        assertEquals(2, reopened.append(order("ORDER-2"), 2_000L).block());
+    }
+
+    @Test
+    @DisplayName("Should confirm every concurrent append with group commit")
+    void groupCommit() throws Exception {
+        OrderJournal journal = open("group", 1);
+        Set<Long> sequences = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < 8; thread++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 200; i++) {
+                        sequences.add(journal.append(order("ORDER"), 0L).block());
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1_600, sequences.size());
+        assertEquals(1_600L, sequences.stream().mapToLong(Long::longValue).max().orElseThrow());
+    }
+
+    @Test
+    @DisplayName("Should abandon the orders of a failed fsync so the checkpoint moves past them")
+    void abandonsFailedGroup() {
+        AtomicBoolean failing = new AtomicBoolean();
+        OrderJournal journal = new OrderJournal(new SimpleMeterRegistry(), true, directory.toString(), 1, "group", 0) {
+            @Override
+            void force(JournalSegment segment, int end) {
+                if (failing.get()) {
+                    throw new UncheckedIOException(new IOException("Input/output error"));
+                }
+                super.force(segment, end);
+            }
+        };
+        opened.add(journal);
+
+        assertEquals(1, journal.append(order("ORDER-1"), 0L).block());
+        failing.set(true);
+        assertThrows(UncheckedIOException.class, () -> journal.append(order("ORDER-2"), 0L).block());
+        failing.set(false);
+        assertEquals(3, journal.append(order("ORDER-3"), 0L).block());
+
+        journal.committed(1);
+        journal.committed(3);
+        assertEquals(3, journal.checkpoint());
+    }
+
+    @Test
+    @DisplayName("Should not run the caller's continuation on the flusher thread")
+    void completesOffFlusherThread() {
+        OrderJournal journal = open("group", 1);
+
+        String thread = journal.append(order("ORDER-1"), 0L)
+                .map(sequence -> Thread.currentThread().getName())
+                .block();
+        assertNotEquals("order-journal-flusher", thread);
+    }
+
+    @Test
+    @DisplayName("Should delete full segments once their orders are in Mongo")
+    void deletesCommittedSegments() throws IOException {
+        OrderJournal journal = open("none", 1);
+        int perSegment = 1024 * 1024 / (JournalSegment.HEADER_BYTES + order("ORDER").getSerializedSize());
+        long last = 0;
+        for (int i = 0; i < perSegment * 3; i++) {
+            last = journal.append(order("ORDER"), 0L).block();
+        }
+        assertTrue(segmentFiles() >= 3);
+
+        for (long sequence = 1; sequence < last; sequence++) {
+            journal.committed(sequence);
+        }
+        assertEquals(last - 1, journal.checkpoint());
+        assertEquals(1, segmentFiles());
+    }
+
+    @Test
+    @DisplayName("Should not create files when disabled")
+    void disabled() throws IOException {
+        OrderJournal journal = new OrderJournal(new SimpleMeterRegistry(), false, directory.toString(), 1, "group", 0);
+
+        assertEquals(OrderJournal.NO_SEQUENCE, journal.append(order("ORDER-1"), 0L).block());
+        assertEquals(0, segmentFiles());
+    }
+}
@@ -0,0 +1,150 @@
+package com.hacom.order_process_system.service.cache;
+
+import com.hacom.order_process_system.model.OrderStatus;
+import com.hacom.order_process_system.model.request.OrderRequest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("OrderStatusCache")
+class OrderStatusCacheTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final AtomicInteger loads = new AtomicInteger();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private OrderStatusCache newCache(boolean enabled) {
+        return new OrderStatusCache(registry, enabled, 100, 60_000, 1_000, nanos::get);
+    }
+
+    private Function<String, Mono<OrderRequest>> loader(OrderRequest result) {
+        return orderId -> {
+            loads.incrementAndGet();
+            return Mono.justOrEmpty(result);
+        };
+    }
+
+    private static OrderRequest order(String orderId, OrderStatus status) {
+        return new OrderRequest(orderId, "CUSTOMER-1", "+51987654321", status, List.of("item"), OffsetDateTime.now());
+    }
+
+    @Test
+    @DisplayName("Should answer from the cache after a write-through without calling the loader")
+    void writeThroughServesLookups() {
+        OrderStatusCache cache = newCache(true);
+        cache.put(order("ORDER-1", OrderStatus.PROCESSED));
+
+        StepVerifier.create(cache.get("ORDER-1", loader(null)))
+                .assertNext(order -> {
+                    assertEquals("ORDER-1", order.getOrderId());
+                    assertEquals(OrderStatus.PROCESSED, order.getStatus());
+                    assertNotNull(order.getTs());
+                    assertNull(order.getItems());
+                })
+                .verifyComplete();
+        assertEquals(0, loads.get());
+        assertEquals(1.0, registry.get("orders.status.cache.hit.ratio").gauge().value());
+    }
+
+    @Test
+    @DisplayName("Should cache a loaded status until its TTL expires")
+    void cachesLoadedStatus() {
+        OrderStatusCache cache = newCache(true);
+        OrderRequest stored = order("ORDER-2", OrderStatus.PROCESSED);
+
+        StepVerifier.create(cache.get("ORDER-2", loader(stored))).expectNextCount(1).verifyComplete();
+        StepVerifier.create(cache.get("ORDER-2", loader(stored))).expectNextCount(1).verifyComplete();
+        assertEquals(1, loads.get());
+
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(61));
+        StepVerifier.create(cache.get("ORDER-2", loader(stored))).expectNextCount(1).verifyComplete();
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    @DisplayName("Should count expired statuses as evictions")
+    void countsEvictions() {
+        OrderStatusCache cache = newCache(true);
+        cache.put(order("ORDER-8", OrderStatus.PROCESSED));
+
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(61));
+        StepVerifier.create(cache.get("ORDER-9", loader(null))).verifyComplete();
+
+        // Caffeine retira la entrada caducada en su mantenimiento, que puede ir en otro hilo
+        await().atMost(Duration.ofSeconds(5))
+                .until(() -> registry.get("orders.status.cache.evictions").functionCounter().count() == 1.0);
+    }
+
+    @Test
+    @DisplayName("Should cache a missing order only for the negative TTL")
+    void cachesNegativeLookupsBriefly() {
+        OrderStatusCache cache = newCache(true);
+
+        StepVerifier.create(cache.get("ORDER-3", loader(null))).verifyComplete();
+        StepVerifier.create(cache.get("ORDER-3", loader(null))).verifyComplete();
+        assertEquals(1, loads.get());
+
+        nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(1_001));
+        StepVerifier.create(cache.get("ORDER-3", loader(null))).verifyComplete();
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    @DisplayName("Should replace a negative entry when the order is written")
+    void writeThroughReplacesNegativeEntry() {
+        OrderStatusCache cache = newCache(true);
+        StepVerifier.create(cache.get("ORDER-4", loader(null))).verifyComplete();
+
+        cache.put(order("ORDER-4", OrderStatus.PROCESSED));
+
+        StepVerifier.create(cache.get("ORDER-4", loader(null)))
+                .assertNext(order -> assertEquals(OrderStatus.PROCESSED, order.getStatus()))
+                .verifyComplete();
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    @DisplayName("Should reflect status changes only on cached orders")
+    void updatesCachedStatus() {
+        OrderStatusCache cache = newCache(true);
+        OrderRequest stored = order("ORDER-6", OrderStatus.PROCESSED);
+        cache.put(stored);
+
+        cache.updateStatus("ORDER-6", OrderStatus.SMS_SENT);
+        cache.updateStatus("ORDER-7", OrderStatus.SMS_SENT);
+
+        StepVerifier.create(cache.get("ORDER-6", loader(null)))
+                .assertNext(order -> {
+                    assertEquals(OrderStatus.SMS_SENT, order.getStatus());
+                    assertEquals(stored.getTs(), order.getTs());
+                })
+                .verifyComplete();
+        StepVerifier.create(cache.get("ORDER-7", loader(null))).verifyComplete();
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    @DisplayName("Should always call the loader when disabled")
+    void disabledCacheDelegates() {
+        OrderStatusCache cache = newCache(false);
+        cache.put(order("ORDER-5", OrderStatus.PROCESSED));
+
+        StepVerifier.create(cache.get("ORDER-5", loader(null))).verifyComplete();
+        StepVerifier.create(cache.get("ORDER-5", loader(null))).verifyComplete();
+        assertEquals(2, loads.get());
+        assertTrue(registry.find("orders.status.cache.size").gauges().isEmpty());
+    }
+}
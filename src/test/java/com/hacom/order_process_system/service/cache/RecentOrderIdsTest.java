@@ -0,0 +1,96 @@
+package com.hacom.order_process_system.service.cache;
+
+import com.hacom.order_process_system.model.OrderStatus;
+import com.hacom.order_process_system.model.request.OrderRequest;
+import com.hacom.order_process_system.repository.OrderRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("RecentOrderIds")
+class RecentOrderIdsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final OrderRepository orderRepository = mock(OrderRepository.class);
+
+    private RecentOrderIds newFilter(long expectedIds, long recentMaxSize) {
+        return new RecentOrderIds(registry, orderRepository, true, expectedIds, 0.01, recentMaxSize);
+    }
+
+    private static OrderRequest order(String orderId) {
+        return new OrderRequest(orderId, "CUSTOMER-1", "+51987654321", OrderStatus.PROCESSED, List.of("item"), OffsetDateTime.now());
+    }
+
+    @Test
+    @DisplayName("Should treat unseen orderIds as new without querying Mongo")
+    void newOrderIdsSkipMongo() {
+        RecentOrderIds filter = newFilter(1_000, 100);
+        filter.record(order("ORDER-1"));
+
+        StepVerifier.create(filter.findOriginal("ORDER-2")).verifyComplete();
+        verifyNoInteractions(orderRepository);
+    }
+
+    @Test
+    @DisplayName("Should answer a recent retry from memory")
+    void recentRetryAnsweredFromMemory() {
+        RecentOrderIds filter = newFilter(1_000, 100);
+        filter.record(order("ORDER-1"));
+
+        StepVerifier.create(filter.findOriginal("ORDER-1"))
+                .assertNext(original -> assertEquals(OrderStatus.PROCESSED, original.getStatus()))
+                .verifyComplete();
+        verifyNoInteractions(orderRepository);
+        assertEquals(1.0, registry.get("orders.duplicates").tag("source", "recent").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should confirm in Mongo an orderId the bloom filter has seen but the LRU no longer holds")
+    void evictedOrderIdConfirmedInMongo() {
+        RecentOrderIds filter = newFilter(1_000, 0);
+        filter.record(order("ORDER-1"));
+        when(orderRepository.findStatusByOrderId("ORDER-1")).thenReturn(Mono.just(order("ORDER-1")));
+
+        StepVerifier.create(filter.findOriginal("ORDER-1"))
+                .assertNext(original -> assertEquals("ORDER-1", original.getOrderId()))
+                .verifyComplete();
+        verify(orderRepository).findStatusByOrderId("ORDER-1");
+        assertEquals(1.0, registry.get("orders.idempotency.lookups").counter().count());
+        assertEquals(1.0, registry.get("orders.duplicates").tag("source", "mongo").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should keep recognising orderIds from the previous bloom generation after rotating")
+    void rotationKeepsPreviousGeneration() {
+        RecentOrderIds.BloomFilter bloom = new RecentOrderIds.BloomFilter(1_000, 0.01);
+        for (int i = 0; i < 1_000; i++) {
+            bloom.put("ORDER-" + i);
+        }
+        for (int i = 0; i < 1_000; i++) {
+            assertTrue(bloom.mightContain("ORDER-" + i));
+        }
+        long falsePositives = 0;
+        for (int i = 1_000; i < 11_000; i++) {
+            if (bloom.mightContain("ORDER-" + i)) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 300, "false positives: " + falsePositives);
+
+        RecentOrderIds filter = newFilter(2, 0);
+        filter.record(order("ORDER-A"));
+        filter.record(order("ORDER-B"));
+        filter.record(order("ORDER-C"));
+        when(orderRepository.findStatusByOrderId("ORDER-A")).thenReturn(Mono.just(order("ORDER-A")));
+
+        StepVerifier.create(filter.findOriginal("ORDER-A")).expectNextCount(1).verifyComplete();
+    }
+}
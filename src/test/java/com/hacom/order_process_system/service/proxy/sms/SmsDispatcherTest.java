@@ -0,0 +1,173 @@
+package com.hacom.order_process_system.service.proxy.sms;
+
+import com.hacom.order_process_system.config.BlockingMode;
+import com.hacom.order_process_system.config.SmppProperties;
+import com.hacom.order_process_system.metrics.OrderStageTimers;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("SmsDispatcher")
+class SmsDispatcherTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final List<String> sent = new CopyOnWriteArrayList<>();
+    private final List<Boolean> retried = new CopyOnWriteArrayList<>();
+    private final AtomicInteger throttleNext = new AtomicInteger();
+    /** {@code {System.nanoTime(), segmentos}} de cada envío. */
+    private final List<long[]> submits = new CopyOnWriteArrayList<>();
+    private SmsDispatcher dispatcher;
+
+    /** Registra cada envío y contesta ESME_RTHROTTLED a los {@code throttleNext} siguientes. */
+    private final SmsService smsService = new SmsService() {
+        @Override
+        public void sendSms(String phoneNumber, String message) {
+            sent.add(message);
+        }
+
+        @Override
+        public void sendSms(String orderId, String phoneNumber, String message, ThrottleHandler onThrottled) {
+            submits.add(new long[]{System.nanoTime(), SmsEncoder.segmentCount(message)});
+            sent.add(message);
+            if (throttleNext.getAndUpdate(n -> Math.max(0, n - 1)) > 0) {
+                retried.add(onThrottled.throttled(new ThrottledSegments() {
+                    @Override
+                    public int count() {
+                        return 1;
+                    }
+
+                    @Override
+                    public void resend(ThrottleHandler next) {
+                        sendSms(orderId, phoneNumber, message, next);
+                    }
+                }));
+            }
+        }
+    };
+
+    private SmsDispatcher newDispatcher(Executor executor, int maxRetries) {
+        return newDispatcher(executor, maxRetries, 100);
+    }
+
+    private SmsDispatcher newDispatcher(Executor executor, int maxRetries, int queueCapacity) {
+        return newDispatcher(executor, maxRetries, queueCapacity, new SmppProperties());
+    }
+
+    private SmsDispatcher newDispatcher(Executor executor, int maxRetries, int queueCapacity,
+                                        SmppProperties properties) {
+        properties.setThrottleMaxRetries(maxRetries);
+        properties.setThrottleInitialBackoffMs(20);
+        properties.setThrottleMaxBackoffMs(40);
+        dispatcher = new SmsDispatcher(smsService, registry, new OrderStageTimers(registry, new long[]{1}, 0),
+                BlockingMode.PLATFORM, executor, Schedulers.immediate(), properties, queueCapacity);
+        return dispatcher;
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        dispatcher.destroy();
+    }
+
+    @Test
+    @DisplayName("Should submit order SMS ahead of bulk SMS already waiting")
+    void transactionalJumpsAheadOfBulk() {
+        List<Runnable> tasks = new ArrayList<>();
+        SmsDispatcher dispatcher = newDispatcher(tasks::add, 0);
+
+        dispatcher.dispatch("+51900000001", "bulk-1");
+        dispatcher.dispatch("+51900000002", "bulk-2");
+        dispatcher.dispatch("ORDER-1", "+51987654321", "order-1", null);
+        tasks.forEach(Runnable::run);
+
+        assertEquals(List.of("order-1", "bulk-1", "bulk-2"), sent);
+        assertEquals(1.0, registry.get("sms.queue.wait").tag("priority", "transactional").timer().count());
+        assertEquals(2.0, registry.get("sms.submitted").tag("priority", "bulk").counter().count());
+        assertEquals(0.0, registry.get("sms.queue.size").gauge().value());
+    }
+
+    @Test
+    @DisplayName("Should requeue throttled SMS with backoff until the retries run out")
+    void retriesThrottledSubmits() {
+        SmsDispatcher dispatcher = newDispatcher(Runnable::run, 2);
+        throttleNext.set(2);
+
+        dispatcher.dispatch("ORDER-1", "+51987654321", "order-1", null);
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> sent.size() == 3);
+        assertEquals(List.of(true, true), retried);
+        assertEquals(2.0, registry.get("sms.throttle.retries").counter().count());
+
+        throttleNext.set(3);
+        dispatcher.dispatch("ORDER-2", "+51987654321", "order-2", null);
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> retried.size() == 5);
+        assertEquals(List.of(true, true, true, true, false), retried);
+    }
+
+    @Test
+    @DisplayName("Should not retry a throttled SMS when the queue has no room for it")
+    void rejectsRetryWhenQueueIsFull() {
+        List<Runnable> tasks = new ArrayList<>();
+        SmsDispatcher dispatcher = newDispatcher(tasks::add, 2, 2);
+        throttleNext.set(1);
+
+        dispatcher.dispatch("+51900000001", "bulk-1");
+        dispatcher.dispatch("ORDER-1", "+51987654321", "order-1", null);
+        // order-1 sale primero y se frena mientras bulk-1 ocupa la otra plaza
+        tasks.get(0).run();
+
+        assertEquals(List.of("order-1"), sent);
+        assertEquals(List.of(false), retried);
+        assertEquals(1.0, registry.get("sms.dropped").counter().count());
+        assertEquals(0.0, registry.get("sms.throttle.retries").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should take the TPS permits of the SMS each worker actually sends")
+    void shapesMixedSegmentsAcrossWorkers() {
+        SmppProperties properties = new SmppProperties();
+        properties.setTps(50);
+        properties.setBurst(1);
+        ExecutorService workers = Executors.newFixedThreadPool(2);
+        SmsDispatcher dispatcher = newDispatcher(workers, 0, 100, properties);
+
+        String campaign = "Aviso de campaña para clientes. ".repeat(12);
+        assertEquals(3, SmsEncoder.segmentCount(campaign));
+        // En la misma cola, alternando 1 y 3 segmentos: los dos hilos compiten por la misma cabeza
+        for (int i = 0; i < 8; i++) {
+            dispatcher.dispatch("+51900000001", "bulk-" + i);
+            dispatcher.dispatch("+51900000001", campaign);
+        }
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> submits.size() == 16);
+        workers.shutdown();
+        // Entre dos envíos no salen más segmentos que la ráfaga más los que genera el bucket en ese tiempo
+        List<long[]> ordered = submits.stream().sorted((a, b) -> Long.compare(a[0], b[0])).toList();
+        for (int from = 0; from < ordered.size(); from++) {
+            long segments = 0;
+            for (int to = from + 1; to < ordered.size(); to++) {
+                segments += ordered.get(to)[1];
+                long elapsedNanos = ordered.get(to)[0] - ordered.get(from)[0];
+                double allowed = properties.getBurst()
+                        + properties.getTps() * elapsedNanos / TimeUnit.SECONDS.toNanos(1);
+                assertTrue(segments <= allowed, segments + " segments submitted with " + allowed + " permits");
+            }
+        }
+        assertEquals(32, ordered.stream().mapToLong(submit -> submit[1]).sum());
+    }
+}
@@ -0,0 +1,102 @@
+package com.hacom.order_process_system.service.proxy.sms;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("SmsEncoder")
+class SmsEncoderTest {
+
+    private final SmsEncoder encoder = new SmsEncoder(false);
+
+    @Test
+    @DisplayName("Should send 160 GSM-7 characters as a single unpacked segment")
+    void singleGsm7Segment() {
+        String text = "Your order ORDER-1 has been processed @£$¥ ñÑüÜ".repeat(4).substring(0, 160);
+
+        SmsEncoder.Encoded encoded = encoder.encode(text, 1);
+
+        assertEquals(SmsEncoder.DATA_CODING_GSM7, encoded.dataCoding());
+        assertEquals(1, encoded.segments());
+        assertEquals(160, encoded.length(0));
+        assertEquals('Y', encoded.segment(0)[0]);
+        assertEquals(0x00, encoded.segment(0)[38]); // @
+        assertEquals(0x01, encoded.segment(0)[39]); // £
+        assertEquals(1, SmsEncoder.segmentCount(text));
+    }
+
+    @Test
+    @DisplayName("Should escape extension characters and never split an escape across segments")
+    void gsm7ExtensionAndSegmentation() {
+        assertArrayEquals(new byte[]{0x1B, 0x65, 0x31}, encoder.encode("€1", 0).segment(0));
+
+        // 152 septetos y después un € (dos septetos) que ya no cabe en el primer segmento
+        String text = "a".repeat(152) + "€" + "b".repeat(10);
+        SmsEncoder.Encoded encoded = encoder.encode(text, 0x2A);
+
+        assertEquals(2, encoded.segments());
+        assertEquals(2, SmsEncoder.segmentCount(text));
+        byte[] first = encoded.segment(0);
+        byte[] second = encoded.segment(1);
+        assertArrayEquals(new byte[]{0x05, 0x00, 0x03, 0x2A, 0x02, 0x01}, Arrays.copyOf(first, 6));
+        assertEquals(6 + 152, first.length);
+        assertArrayEquals(new byte[]{0x05, 0x00, 0x03, 0x2A, 0x02, 0x02, 0x1B, 0x65}, Arrays.copyOf(second, 8));
+        assertEquals(6 + 2 + 10, second.length);
+    }
+
+    @Test
+    @DisplayName("Should reserve a full unpacked segment for long GSM-7 texts mixing escapes")
+    void longUnpackedGsm7WithEscapes() {
+        // 70 segmentos de 153 octetos sin empaquetar en el buffer reutilizado del hilo
+        String text = "a".repeat(30 * 153) + ("€" + "a".repeat(150)).repeat(40);
+
+        SmsEncoder.Encoded encoded = encoder.encode(text, 9);
+
+        assertEquals(SmsEncoder.segmentCount(text), encoded.segments());
+        int septets = 0;
+        for (int segment = 0; segment < encoded.segments(); segment++) {
+            byte[] bytes = encoded.segment(segment);
+            assertTrue(bytes.length <= 6 + 153, "segment " + segment + " has " + bytes.length + " bytes");
+            assertEquals((byte) (segment + 1), bytes[5]);
+            septets += bytes.length - 6;
+        }
+        assertEquals(30 * 153 + 40 * 152, septets);
+        assertEquals(0x1B, encoded.segment(30)[6]);
+    }
+
+    @Test
+    @DisplayName("Should fall back to UCS-2 for characters outside GSM-7 and split at 67 characters")
+    void ucs2Segmentation() {
+        String name = "Núñez";
+        SmsEncoder.Encoded single = encoder.encode(name, 0);
+        assertEquals(SmsEncoder.DATA_CODING_UCS2, single.dataCoding());
+        assertArrayEquals(name.getBytes(StandardCharsets.UTF_16BE), single.segment(0));
+
+        String text = "á".repeat(66) + "😀" + "b".repeat(3);
+        SmsEncoder.Encoded encoded = encoder.encode(text, 7);
+
+        assertEquals(2, encoded.segments());
+        assertEquals(6 + 66 * 2, encoded.length(0));
+        assertEquals(6 + 5 * 2, encoded.length(1));
+        assertEquals((byte) 0xD8, encoded.segment(1)[6]);
+    }
+
+    @Test
+    @DisplayName("Should pack GSM-7 into septets and align the first septet after the UDH")
+    void packsGsm7() {
+        SmsEncoder packed = new SmsEncoder(true);
+
+        assertArrayEquals(new byte[]{(byte) 0xE8, 0x32, (byte) 0x9B, (byte) 0xFD, 0x46, (byte) 0x97, (byte) 0xD9,
+                (byte) 0xEC, 0x37}, packed.encode("hellohello", 0).segment(0));
+
+        SmsEncoder.Encoded encoded = packed.encode("h".repeat(200), 1);
+        assertEquals(2, encoded.segments());
+        assertEquals(140, encoded.length(0));
+        // Un bit de relleno tras los 48 de la UDH
+        assertEquals((byte) ('h' << 1), encoded.segment(0)[6]);
+    }
+}
@@ -0,0 +1,40 @@
+package com.hacom.order_process_system.service.proxy.sms;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("TokenBucket")
+class TokenBucketTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+
+    @Test
+    @DisplayName("Should let the burst through and then pace reservations at the configured rate")
+    void pacesAfterBurst() {
+        TokenBucket bucket = new TokenBucket(10, 3, nanos::get);
+
+        assertEquals(0, bucket.reserve(1));
+        assertEquals(0, bucket.reserve(1));
+        assertEquals(0, bucket.reserve(1));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(100), bucket.reserve(1));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(200), bucket.reserve(1));
+
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        assertEquals(3.0, bucket.available(), 1e-9);
+    }
+
+    @Test
+    @DisplayName("Should drop the accumulated burst after a throttling error")
+    void drainsBurst() {
+        TokenBucket bucket = new TokenBucket(10, 5, nanos::get);
+
+        bucket.drain();
+
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(100), bucket.reserve(1));
+    }
+}
@@ -0,0 +1,60 @@
+package com.hacom.order_process_system.service.proxy.sms.impl;
+
+import com.cloudhopper.smpp.SmppConstants;
+import com.cloudhopper.smpp.pdu.DeliverSm;
+import com.cloudhopper.smpp.tlv.Tlv;
+import com.hacom.order_process_system.model.OrderStatus;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("DeliveryReceipt")
+class DeliveryReceiptTest {
+
+    private static DeliverSm receipt(String text) throws Exception {
+        DeliverSm deliverSm = new DeliverSm();
+        deliverSm.setEsmClass(SmppConstants.ESM_CLASS_MT_SMSC_DELIVERY_RECEIPT);
+        deliverSm.setShortMessage(text.getBytes(StandardCharsets.ISO_8859_1));
+        return deliverSm;
+    }
+
+    @Test
+    @DisplayName("Should read the message id and state from the receipt text")
+    void parsesTextReceipt() throws Exception {
+        DeliveryReceipt receipt = DeliveryReceipt.parse(receipt("id:0A1B2C sub:001 dlvrd:001 submit date:2401011200"
+                + " done date:2401011201 stat:DELIVRD err:000 Text:Your order id:X stat:UNDELIV"));
+
+        assertEquals(new DeliveryReceipt("0A1B2C", "DELIVRD"), receipt);
+        assertEquals(OrderStatus.DELIVERED, receipt.orderStatus());
+    }
+
+    @Test
+    @DisplayName("Should prefer the receipted_message_id and message_state TLVs over the text")
+    void prefersTlvs() throws Exception {
+        DeliverSm deliverSm = receipt("id:OTHER stat:DELIVRD");
+        deliverSm.addOptionalParameter(new Tlv(SmppConstants.TAG_RECEIPTED_MSG_ID,
+                "MSG-7\0".getBytes(StandardCharsets.ISO_8859_1)));
+        deliverSm.addOptionalParameter(new Tlv(SmppConstants.TAG_MSG_STATE,
+                new byte[]{SmppConstants.STATE_UNDELIVERABLE}));
+
+        DeliveryReceipt receipt = DeliveryReceipt.parse(deliverSm);
+
+        assertEquals(new DeliveryReceipt("MSG-7", "UNDELIV"), receipt);
+        assertEquals(OrderStatus.FAILED, receipt.orderStatus());
+    }
+
+    @Test
+    @DisplayName("Should ignore mobile-originated messages and receipts without id or state")
+    void ignoresNonReceipts() throws Exception {
+        DeliverSm mobileOriginated = receipt("id:1 stat:DELIVRD");
+        mobileOriginated.setEsmClass((byte) 0);
+
+        assertNull(DeliveryReceipt.parse(mobileOriginated));
+        assertNull(DeliveryReceipt.parse(receipt("sub:001 dlvrd:001 stat:DELIVRD")));
+        assertNull(DeliveryReceipt.parse(receipt("id:1 sub:001")));
+        assertNull(new DeliveryReceipt("1", "ENROUTE").orderStatus());
+    }
+}
@@ -0,0 +1,170 @@
+package com.hacom.order_process_system.service.proxy.sms.impl;
+
+import com.cloudhopper.smpp.SmppConstants;
+import com.cloudhopper.smpp.SmppServerConfiguration;
+import com.cloudhopper.smpp.SmppServerHandler;
+import com.cloudhopper.smpp.SmppServerSession;
+import com.cloudhopper.smpp.SmppSessionConfiguration;
+import com.cloudhopper.smpp.impl.DefaultSmppServer;
+import com.cloudhopper.smpp.impl.DefaultSmppSessionHandler;
+import com.cloudhopper.smpp.pdu.BaseBind;
+import com.cloudhopper.smpp.pdu.BaseBindResp;
+import com.cloudhopper.smpp.pdu.DeliverSm;
+import com.cloudhopper.smpp.pdu.EnquireLink;
+import com.cloudhopper.smpp.pdu.PduRequest;
+import com.cloudhopper.smpp.pdu.PduResponse;
+import com.cloudhopper.smpp.pdu.SubmitSm;
+import com.cloudhopper.smpp.pdu.SubmitSmResp;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.ToIntFunction;
+
+/**
+ * SMSC mínimo sobre DefaultSmppServer de cloudhopper: acepta cualquier bind y responde
+ * cada submit_sm con un message_id secuencial. Con {@link #receiptState(String)} además envía por la misma
+ * sesión un deliver_sm con el acuse de entrega de cada submit_sm que lo pida, y con
+ * {@link #submitStatus(ToIntFunction)} rechaza los submit_sm que se quiera. Cuenta los enquire_link y, con
+ * {@link #answerEnquireLink(boolean)}, puede dejarlos sin respuesta.
+ */
+class SmppServerStub {
+
+    private final int port;
+    private final List<SmppServerSession> sessions = new CopyOnWriteArrayList<>();
+    private final AtomicInteger submits = new AtomicInteger();
+    private final AtomicInteger messageIds = new AtomicInteger();
+    private final AtomicInteger enquireLinks = new AtomicInteger();
+    private volatile boolean answerEnquireLink = true;
+    private ScheduledExecutorService receipts;
+    private volatile String receiptState;
+    private volatile ToIntFunction<SubmitSm> submitStatus = submit -> 0;
+    private DefaultSmppServer server;
+
+    SmppServerStub() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            this.port = socket.getLocalPort();
+        }
+    }
+
+    int port() {
+        return port;
+    }
+
+    int submits() {
+        return submits.get();
+    }
+
+    int enquireLinks() {
+        return enquireLinks.get();
+    }
+
+    void answerEnquireLink(boolean answer) {
+        this.answerEnquireLink = answer;
+    }
+
+    List<SmppServerSession> sessions() {
+        return sessions;
+    }
+
+    /** Estado (DELIVRD, UNDELIV...) de los acuses que se envían tras cada submit_sm; null para no enviarlos. */
+    void receiptState(String state) {
+        this.receiptState = state;
+    }
+
+    /** command_status del submit_sm_resp de cada submit_sm; distinto de 0 no asigna message_id ni envía acuse. */
+    void submitStatus(ToIntFunction<SubmitSm> status) {
+        this.submitStatus = status;
+    }
+
+    /** Envía por la primera sesión un acuse en formato texto para {@code messageId}. */
+    void sendReceipt(String messageId, String state) {
+        sendReceipt(sessions.get(0), messageId, state);
+    }
+
+    private void sendReceipt(SmppServerSession session, String messageId, String state) {
+        try {
+            DeliverSm deliverSm = new DeliverSm();
+            deliverSm.setEsmClass(SmppConstants.ESM_CLASS_MT_SMSC_DELIVERY_RECEIPT);
+            deliverSm.setShortMessage(("id:" + messageId + " sub:001 dlvrd:001 submit date:2401011200"
+                    + " done date:2401011201 stat:" + state + " err:000 Text:Your order")
+                    .getBytes(StandardCharsets.ISO_8859_1));
+            session.sendRequestPdu(deliverSm, 5000, false);
+        } catch (Exception e) {
+            throw new IllegalStateException("Error sending delivery receipt for " + messageId, e);
+        }
+    }
+
+    void start() throws Exception {
+        SmppServerConfiguration configuration = new SmppServerConfiguration();
+        configuration.setPort(port);
+        configuration.setNonBlockingSocketsEnabled(true);
+        configuration.setDefaultWindowSize(100);
+        configuration.setReuseAddress(true);
+        receipts = Executors.newSingleThreadScheduledExecutor();
+        server = new DefaultSmppServer(configuration, new Handler(), Executors.newCachedThreadPool());
+        server.start();
+    }
+
+    void stop() {
+        if (server != null) {
+            sessions.forEach(SmppServerSession::destroy);
+            sessions.clear();
+            server.destroy();
+            server = null;
+            receipts.shutdownNow();
+        }
+    }
+
+    private class Handler implements SmppServerHandler {
+        @Override
+        public void sessionBindRequested(Long sessionId, SmppSessionConfiguration sessionConfiguration,
+                                         BaseBind bindRequest) {
+        }
+
+        @Override
+        public void sessionCreated(Long sessionId, SmppServerSession session, BaseBindResp preparedBindResponse) {
+            sessions.add(session);
+            session.serverReady(new DefaultSmppSessionHandler() {
+                @Override
+                public PduResponse firePduRequestReceived(PduRequest pduRequest) {
+                    if (pduRequest instanceof EnquireLink) {
+                        enquireLinks.incrementAndGet();
+                        return answerEnquireLink ? pduRequest.createResponse() : null;
+                    }
+                    PduResponse response = pduRequest.createResponse();
+                    if (pduRequest instanceof SubmitSm submit) {
+                        submits.incrementAndGet();
+                        int status = submitStatus.applyAsInt(submit);
+                        if (status != 0) {
+                            response.setCommandStatus(status);
+                            return response;
+                        }
+                        String messageId = "MSG-" + messageIds.incrementAndGet();
+                        ((SubmitSmResp) response).setMessageId(messageId);
+                        String state = receiptState;
+                        if (state != null && (submit.getRegisteredDelivery()
+                                & SmppConstants.REGISTERED_DELIVERY_SMSC_RECEIPT_MASK) != 0) {
+                            // Después del submit_sm_resp, como haría un SMSC real
+                            receipts.schedule(() -> sendReceipt(session, messageId, state),
+                                    20, TimeUnit.MILLISECONDS);
+                        }
+                    }
+                    return response;
+                }
+            });
+        }
+
+        @Override
+        public void sessionDestroyed(Long sessionId, SmppServerSession session) {
+            sessions.remove(session);
+            session.destroy();
+        }
+    }
+}
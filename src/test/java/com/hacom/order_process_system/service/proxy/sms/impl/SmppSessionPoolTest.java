@@ -0,0 +1,175 @@
+package com.hacom.order_process_system.service.proxy.sms.impl;
+
+import com.cloudhopper.smpp.PduAsyncResponse;
+import com.cloudhopper.smpp.SmppSession;
+import com.cloudhopper.smpp.impl.DefaultSmppSessionHandler;
+import com.cloudhopper.smpp.pdu.SubmitSm;
+import com.cloudhopper.smpp.type.Address;
+import com.hacom.order_process_system.config.SmppProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("SmppSessionPool against a local SMPP server stub")
+class SmppSessionPoolTest {
+
+    private SmppServerStub server;
+    private SmppSessionPool pool;
+    private final AtomicInteger responses = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = new SmppServerStub();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (pool != null) {
+            pool.stop();
+        }
+        server.stop();
+    }
+
+    private SmppSessionPool newPool(SmppProperties.Selection selection) {
+        return newPool(selection, 3, 5000);
+    }
+
+    private SmppSessionPool newPool(SmppProperties.Selection selection, int sessions, long requestTimeoutMs) {
+        SmppProperties properties = new SmppProperties();
+        properties.setPort(server.port());
+        properties.setSessions(sessions);
+        properties.setWindowSize(4);
+        properties.setSelection(selection);
+        properties.setBindTimeoutMs(2000);
+        properties.setEnquireLinkIntervalMs(200);
+        properties.setRebindInitialBackoffMs(100);
+        properties.setRebindMaxBackoffMs(400);
+
+        return new SmppSessionPool(properties, requestTimeoutMs, new DefaultSmppSessionHandler() {
+            @Override
+            public void fireExpectedPduResponseReceived(PduAsyncResponse pduAsyncResponse) {
+                responses.incrementAndGet();
+            }
+        });
+    }
+
+    private static SubmitSm submit() throws Exception {
+        SubmitSm submit = new SubmitSm();
+        submit.setSourceAddress(new Address((byte) 0x00, (byte) 0x00, "12345"));
+        submit.setDestAddress(new Address((byte) 0x01, (byte) 0x01, "1234567890"));
+        submit.setShortMessage("test".getBytes());
+        return submit;
+    }
+
+    @Test
+    @DisplayName("Should bind every session and keep several submits in flight")
+    void bindsAllSessionsAndSubmitsAsync() throws Exception {
+        server.start();
+        pool = newPool(SmppProperties.Selection.LEAST_LOADED);
+        pool.bindTo(new SimpleMeterRegistry());
+        pool.start();
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> pool.boundCount() == 3);
+        assertEquals(12, pool.windowCapacity());
+
+        for (int i = 0; i < 30; i++) {
+            SmppSession session = pool.acquire();
+            assertNotNull(session);
+            session.sendRequestPdu(submit(), 5000, false);
+        }
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> responses.get() == 30);
+        assertEquals(30, server.submits());
+    }
+
+    @Test
+    @DisplayName("Should rotate sessions with round-robin selection")
+    void roundRobinRotatesSessions() throws Exception {
+        server.start();
+        pool = newPool(SmppProperties.Selection.ROUND_ROBIN);
+        pool.start();
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> pool.boundCount() == 3);
+
+        SmppSession first = pool.acquire();
+        SmppSession second = pool.acquire();
+        SmppSession third = pool.acquire();
+        assertNotSame(first, second);
+        assertNotSame(second, third);
+        assertSame(first, pool.acquire());
+    }
+
+    @Test
+    @DisplayName("Should bind once the SMSC becomes reachable and rebind after it restarts")
+    void rebindsWhenServerComesBack() throws Exception {
+        pool = newPool(SmppProperties.Selection.LEAST_LOADED);
+        pool.start();
+
+        Thread.sleep(300);
+        assertEquals(0, pool.boundCount());
+        assertNull(pool.acquire());
+
+        server.start();
+        await().atMost(Duration.ofSeconds(5)).until(() -> pool.boundCount() == 3);
+
+        server.stop();
+        await().atMost(Duration.ofSeconds(5)).until(() -> pool.boundCount() == 0);
+
+        server.start();
+        await().atMost(Duration.ofSeconds(5)).until(() -> pool.boundCount() == 3);
+        assertTrue(pool.rebindCount() >= 3);
+    }
+
+    /** Un submit_sm cada 50 ms durante {@code duration}, más rápido que el intervalo de enquire_link. */
+    private void keepBusy(Duration duration) throws Exception {
+        long deadline = System.nanoTime() + duration.toNanos();
+        while (System.nanoTime() < deadline) {
+            pool.acquire().sendRequestPdu(submit(), 5000, false);
+            Thread.sleep(50);
+        }
+    }
+
+    @Test
+    @DisplayName("Should send enquire_link only while the session has no traffic")
+    void enquiresOnlyWhenIdle() throws Exception {
+        server.start();
+        pool = newPool(SmppProperties.Selection.LEAST_LOADED, 1, 5000);
+        pool.start();
+        await().atMost(Duration.ofSeconds(5)).until(() -> pool.boundCount() == 1);
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> server.enquireLinks() >= 2);
+        int idle = server.enquireLinks();
+        keepBusy(Duration.ofMillis(1000));
+
+        assertTrue(server.enquireLinks() <= idle + 1, "enquire_link sent while submits were flowing");
+        assertEquals(0, pool.rebindCount());
+    }
+
+    @Test
+    @DisplayName("Should keep a busy session whose enquire_link expires and rebind an idle one")
+    void unansweredEnquireLinkOnlyDropsIdleSession() throws Exception {
+        server.start();
+        server.answerEnquireLink(false);
+        pool = newPool(SmppProperties.Selection.LEAST_LOADED, 1, 500);
+        pool.start();
+        await().atMost(Duration.ofSeconds(5)).until(() -> pool.boundCount() == 1);
+        SmppSession session = pool.acquire();
+
+        // El enquire_link sale en cuanto la sesión lleva un intervalo sin tráfico y expira con tráfico ya en marcha
+        await().atMost(Duration.ofSeconds(5)).until(() -> server.enquireLinks() == 1);
+        keepBusy(Duration.ofMillis(2500));
+
+        assertSame(session, pool.acquire());
+        assertEquals(0, pool.rebindCount());
+
+        await().atMost(Duration.ofSeconds(10)).until(() -> pool.rebindCount() == 1);
+    }
+}
@@ -0,0 +1,190 @@
+package com.hacom.order_process_system.service.proxy.sms.impl;
+
+import com.cloudhopper.smpp.SmppConstants;
+import com.hacom.order_process_system.config.SmppProperties;
+import com.hacom.order_process_system.model.OrderStatus;
+import com.hacom.order_process_system.repository.OrderStatusStore;
+import com.hacom.order_process_system.service.OrderService;
+import com.hacom.order_process_system.service.proxy.sms.SmsEncoder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@DisplayName("SmsDeliveryTracker against a local SMPP server stub")
+class SmsDeliveryTrackerTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final OrderService orderService = mock(OrderService.class);
+    private final List<OrderStatusStore.Change> written = new CopyOnWriteArrayList<>();
+    private SmppServerStub server;
+    private SmsDeliveryTracker tracker;
+    private SmsServiceImpl smsService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() throws Exception {
+        when(orderService.updateOrderStatuses(anyList())).thenAnswer(invocation -> {
+            written.addAll(invocation.getArgument(0, List.class));
+            return Mono.just(List.of());
+        });
+        server = new SmppServerStub();
+        server.start();
+
+        SmppProperties properties = new SmppProperties();
+        properties.setPort(server.port());
+        properties.setSessions(2);
+        properties.setBindTimeoutMs(2000);
+        tracker = new SmsDeliveryTracker(orderService, registry, true, 1000, 60_000, 100, 10, 1000, 0);
+        smsService = new SmsServiceImpl(properties, registry, tracker, new SmsEncoder(false), 5000);
+        smsService.init();
+        await().atMost(Duration.ofSeconds(5)).until(() -> smsService.getSessionPool().boundCount() == 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        smsService.destroy();
+        tracker.destroy();
+        server.stop();
+    }
+
+    private List<OrderStatus> statusesOf(String orderId) {
+        return written.stream()
+                .filter(change -> change.orderId().equals(orderId))
+                .map(OrderStatusStore.Change::status)
+                .toList();
+    }
+
+    @Test
+    @DisplayName("Should move each order to SMS_SENT and then DELIVERED from the SMSC receipts")
+    void appliesSubmitAndDeliveryReceipts() {
+        server.receiptState("DELIVRD");
+
+        for (int i = 1; i <= 5; i++) {
+            smsService.sendSms("ORDER-" + i, "+5198765432" + i, "Your order ORDER-" + i + " has been processed");
+        }
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> written.size() == 10);
+        for (int i = 1; i <= 5; i++) {
+            assertEquals(List.of(OrderStatus.SMS_SENT, OrderStatus.DELIVERED), statusesOf("ORDER-" + i));
+        }
+        assertEquals(5.0, registry.get("sms.receipts").tag("state", "delivered").counter().count());
+        assertEquals(0.0, registry.get("sms.receipts.correlation.misses").counter().count());
+        assertEquals(0.0, registry.get("sms.receipts.correlation.size").gauge().value());
+    }
+
+    @Test
+    @DisplayName("Should fail the order when the receipt reports the SMS as undeliverable")
+    void failsUndeliverableOrders() {
+        server.receiptState("UNDELIV");
+
+        smsService.sendSms("ORDER-9", "+51987654321", "Your order ORDER-9 has been processed");
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> written.size() == 2);
+        assertEquals(List.of(OrderStatus.SMS_SENT, OrderStatus.FAILED), statusesOf("ORDER-9"));
+        assertEquals(1.0, registry.get("sms.receipts").tag("state", "failed").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should send a long SMS as concatenated segments and follow the order by the last one")
+    void tracksLongSmsByLastSegment() {
+        server.receiptState("DELIVRD");
+
+        String message = "Señor José, su orden ORDER-10 ya está en camino. ".repeat(3);
+        smsService.sendSms("ORDER-10", "+51987654321", message);
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> written.size() == 2);
+        assertEquals(3, server.submits());
+        assertEquals(List.of(OrderStatus.SMS_SENT, OrderStatus.DELIVERED), statusesOf("ORDER-10"));
+        assertEquals(3.0, registry.get("sms.segments").tag("encoding", "ucs2").summary().totalAmount());
+    }
+
+    @Test
+    @DisplayName("Should resend only the throttled segment of a long SMS")
+    void resendsOnlyThrottledSegments() {
+        server.receiptState("DELIVRD");
+        List<Integer> parts = new CopyOnWriteArrayList<>();
+        AtomicBoolean throttleOnce = new AtomicBoolean(true);
+        server.submitStatus(submit -> {
+            int part = submit.getShortMessage()[5];
+            parts.add(part);
+            return part == 2 && throttleOnce.getAndSet(false) ? SmppConstants.STATUS_THROTTLED : 0;
+        });
+        List<Integer> retried = new CopyOnWriteArrayList<>();
+
+        String message = "Señor José, su orden ORDER-11 ya está en camino. ".repeat(3);
+        smsService.sendSms("ORDER-11", "+51987654321", message, throttled -> {
+            retried.add(throttled.count());
+            new Thread(() -> throttled.resend(null)).start();
+            return true;
+        });
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> written.size() == 2);
+        assertEquals(List.of(1), retried);
+        assertEquals(List.of(1, 2, 2, 3), parts.stream().sorted().toList());
+        assertEquals(List.of(OrderStatus.SMS_SENT, OrderStatus.DELIVERED), statusesOf("ORDER-11"));
+        assertEquals(0.0, registry.get("sms.failed").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should give each long SMS its own UDH reference and keep it on resent segments")
+    void keepsOneReferencePerSms() {
+        server.receiptState("DELIVRD");
+        List<String> references = new CopyOnWriteArrayList<>();
+        AtomicBoolean throttleOnce = new AtomicBoolean(true);
+        server.submitStatus(submit -> {
+            byte[] udh = submit.getShortMessage();
+            references.add(udh[3] + "/" + udh[5]);
+            return udh[5] == 2 && throttleOnce.getAndSet(false) ? SmppConstants.STATUS_THROTTLED : 0;
+        });
+
+        // Mismo destino y mismo texto: sólo la referencia distingue los segmentos de uno y otro
+        String message = "Señor José, su orden ya está en camino. ".repeat(4);
+        smsService.sendSms("ORDER-13", "+51987654321", message, throttled -> {
+            new Thread(() -> throttled.resend(null)).start();
+            return true;
+        });
+        smsService.sendSms("ORDER-14", "+51987654321", message);
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> written.size() == 4 && references.size() == 7);
+        assertEquals(6, references.stream().distinct().count());
+        assertEquals(2, references.stream().map(reference -> reference.split("/")[0]).distinct().count());
+    }
+
+    @Test
+    @DisplayName("Should count a long SMS as failed once and keep following its delivered last segment")
+    void failsLongSmsOnce() {
+        server.receiptState("DELIVRD");
+        server.submitStatus(submit -> submit.getShortMessage()[5] < 3 ? SmppConstants.STATUS_SYSERR : 0);
+
+        String message = "Señor José, su orden ORDER-12 ya está en camino. ".repeat(3);
+        smsService.sendSms("ORDER-12", "+51987654321", message);
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> written.size() == 2);
+        assertEquals(List.of(OrderStatus.SMS_SENT, OrderStatus.DELIVERED), statusesOf("ORDER-12"));
+        assertEquals(1.0, registry.get("sms.failed").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should count receipts for unknown message ids as correlation misses")
+    void countsCorrelationMisses() {
+        server.sendReceipt("MSG-UNKNOWN", "DELIVRD");
+
+        await().atMost(Duration.ofSeconds(5))
+                .until(() -> registry.get("sms.receipts.correlation.misses").counter().count() == 1.0);
+        assertTrue(written.isEmpty());
+        verify(orderService, never()).updateOrderStatuses(anyList());
+    }
+}
@@ -0,0 +1,42 @@
+package com.hacom.order_process_system.service.proxy.sms.template;
+
+import com.hacom.grpc.CreateOrderRequest;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("OrderSmsTemplates")
+class OrderSmsTemplatesTest {
+
+    private static final CreateOrderRequest REQUEST = CreateOrderRequest.newBuilder()
+            .setOrderId("ORDER-1")
+            .setCustomerId("José Núñez")
+            .setCustomerPhoneNumber("+51987654321")
+            .addItems("item-1")
+            .addItems("item-2")
+            .build();
+
+    @Test
+    @DisplayName("Should keep the previous notification text by default")
+    void defaultTemplate() {
+        assertEquals("Your order ORDER-1 has been processed", new OrderSmsTemplates("").orderProcessed(REQUEST));
+    }
+
+    @Test
+    @DisplayName("Should render every field of a configured template")
+    void rendersFields() {
+        OrderSmsTemplates templates =
+                new OrderSmsTemplates("Hola {customerId}: tu orden {orderId} ({itemCount} ítems)");
+
+        assertEquals("Hola José Núñez: tu orden ORDER-1 (2 ítems)", templates.orderProcessed(REQUEST));
+        assertEquals("Hola José Núñez: tu orden ORDER-1 (2 ítems)", templates.orderProcessed(REQUEST));
+    }
+
+    @Test
+    @DisplayName("Should reject unknown fields and unclosed braces at startup")
+    void rejectsInvalidTemplates() {
+        assertThrows(IllegalArgumentException.class, () -> new OrderSmsTemplates("Order {total}"));
+        assertThrows(IllegalArgumentException.class, () -> new OrderSmsTemplates("Order {orderId"));
+    }
+}